@@ -0,0 +1,43 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Optional extension of a {@link Connector} which can return the content without a copy into a new byte[] (e.g. memory-mapped files or
+ * off-heap cached contents).
+ * <p>
+ * Use {@link org.settings4j.util.ContentBufferUtil#getContentBuffer(Connector, String)} to call it for any Connector. Connector wrappers pass the
+ * call through to the wrapped connector.
+ * </p>
+ *
+ * @author Harald.Brabenetz
+ */
+public interface BufferedConnector extends Connector {
+
+    /**
+     * Return the content as read-only {@link ByteBuffer}.
+     *
+     * @param key the Key for the configuration-property. e.g.: "com/mycompany/myapp/myParameterKey"
+     * @return a new read-only buffer (position 0, limit = the length of the content) or null if nothing where found.
+     */
+    ByteBuffer getContentBuffer(String key);
+}
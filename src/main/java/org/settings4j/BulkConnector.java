@@ -0,0 +1,63 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Optional extension of a {@link Connector} which can resolve many keys in one call.
+ * <p>
+ * Connectors which can read many keys at once (e.g. one JNDI context or one Preferences node for all keys) should implement this interface.
+ * {@link ExtendedSettings4jInstance#getStrings(Collection)} and the other bulk methods use it to ask such a connector only once for all missing keys. For
+ * connectors which doesn't implement this interface the keys are resolved one by one (see {@link org.settings4j.util.BulkConnectorUtil}).
+ * </p>
+ * <p>
+ * The returned Maps contains only the keys for which a value where found.
+ * </p>
+ *
+ * @author Harald.Brabenetz
+ */
+public interface BulkConnector extends Connector {
+
+    /**
+     * return the String-Values for the given keys.
+     *
+     * @param keys the Keys for the configuration-properties. e.g.: "com/mycompany/myapp/myParameterKey"
+     * @return the found String-Values (key = the given key). Keys without a value are not contained.
+     */
+    Map<String, String> getStrings(Collection<String> keys);
+
+    /**
+     * return the byte[]-Values for the given keys.
+     *
+     * @param keys the Keys for the configuration-properties. e.g.: "com/mycompany/myapp/myParameterKey"
+     * @return the found byte[]-Values (key = the given key). Keys without a value are not contained.
+     */
+    Map<String, byte[]> getContents(Collection<String> keys);
+
+    /**
+     * return the Object-Values for the given keys.
+     *
+     * @param keys the Keys for the configuration-properties. e.g.: "com/mycompany/myapp/myParameterKey"
+     * @return the found Object-Values (key = the given key). Keys without a value are not contained.
+     */
+    Map<String, Object> getObjects(Collection<String> keys);
+}
@@ -0,0 +1,38 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j;
+
+/**
+ * Optional interface for {@link Connector}s and {@link ContentResolver}s which detect changes of their values and push them to the caches
+ * layered above (see {@link ChangeListener}).
+ * <p>
+ * The {@link org.settings4j.settings.DefaultSettings} registers a listener at each added connector which implements this interface, and
+ * refreshes the changed keys. Connector wrappers pass the listeners through to the wrapped connector.
+ * </p>
+ *
+ * @author Harald.Brabenetz
+ */
+public interface ChangeNotifier {
+
+    /**
+     * @param listener the listener which will be notified about changed keys.
+     */
+    void addChangeListener(ChangeListener listener);
+}
@@ -0,0 +1,38 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j;
+
+/**
+ * Optional interface for {@link Connector}s which hold resources beyond their own lifetime, e.g. registered JMX MBeans or background tasks.
+ * <p>
+ * The {@link org.settings4j.settings.DefaultSettings} calls {@link #destroy()} for each removed connector which implements this interface
+ * (see {@link Settings4jInstance#removeAllConnectors()}, which is also called on each reconfiguration). Connector wrappers pass the call
+ * through to the wrapped connector.
+ * </p>
+ *
+ * @author Harald.Brabenetz
+ */
+public interface DisposableConnector {
+
+    /**
+     * Release all resources of this connector. The connector must not be used afterwards.
+     */
+    void destroy();
+}
@@ -0,0 +1,227 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j;
+
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional extension of a {@link Settings4jInstance} with bulk, asynchronous, typed and streaming lookups, refresh and handles.
+ * <p>
+ * An interface instead of new {@link Settings4jInstance} methods, so custom implementations (see {@link Settings4jFactory}) don't break. The
+ * {@link org.settings4j.settings.DefaultSettings} implements it. The static methods of {@link Settings4j} throws an
+ * {@link UnsupportedOperationException} if the configured Settings4jInstance doesn't implement this interface.
+ * </p>
+ *
+ * @author Harald.Brabenetz
+ */
+public interface ExtendedSettings4jInstance extends Settings4jInstance {
+
+    /**
+     * open the found content for the given key as stream.<br>
+     * Like {@link #getContent(String)}, but connectors which implements {@link StreamingConnector} (e.g. the
+     * {@link org.settings4j.connector.FSConnector}) don't read the whole content into a byte[]. So large resources can be processed with constant
+     * memory. The streams are never cached by the Settings4jInstance. The caller must close the returned stream.
+     *
+     * @param key
+     *        the Key for the configuration-property. e.g.: "com/mycompany/myapp/myParameterKey"
+     * @return a new {@link InputStream} of the found content or null if no connector found a content for the given key.
+     */
+    InputStream openContent(String key);
+
+    /**
+     * return the found String-Values for the given keys.<br>
+     * The {@link Settings4jInstance} iterates all his {@link Connector}s only once and asks every Connector for all keys which are still missing.
+     * Connectors which implements {@link BulkConnector} can resolve all this keys in one call.
+     *
+     * @param keys the Keys for the configuration-properties. e.g.: "com/mycompany/myapp/myParameterKey"
+     * @return the found String-Values in the order of the given keys. Keys without a value are not contained.
+     */
+    Map<String, String> getStrings(Collection<String> keys);
+
+    /**
+     * return the found byte[]-Values for the given keys.<br>
+     * Like {@link #getStrings(Collection)} but for {@link #getContent(String)}.
+     *
+     * @param keys the Keys for the configuration-properties. e.g.: "com/mycompany/myapp/myParameterKey"
+     * @return the found byte[]-Values in the order of the given keys. Keys without a value are not contained.
+     */
+    Map<String, byte[]> getContents(Collection<String> keys);
+
+    /**
+     * return the found Object-Values for the given keys.<br>
+     * Like {@link #getStrings(Collection)} but for {@link #getObject(String)}.
+     *
+     * @param keys the Keys for the configuration-properties. e.g.: "com/mycompany/myapp/myParameterKey"
+     * @return the found Object-Values in the order of the given keys. Keys without a value are not contained.
+     */
+    Map<String, Object> getObjects(Collection<String> keys);
+
+    /**
+     * return the String-Value for the given key asynchronously.
+     * <p>
+     * The lookup runs in a background executor, so the calling thread never blocks on slow connectors (e.g. a remote JNDI server).
+     * </p>
+     *
+     * @param key the Key for the configuration-property. e.g.: "com/mycompany/myapp/myParameterKey"
+     * @return the {@link Future} of the String-Value. The value is null if no connector returned a value.
+     */
+    Future<String> getStringAsync(String key);
+
+    /**
+     * return the byte[]-Value for the given key asynchronously (see {@link #getStringAsync(String)}).
+     *
+     * @param key the Key for the configuration-property. e.g.: "com/mycompany/myapp/myParameterKey"
+     * @return the {@link Future} of the byte[]-Value. The value is null if no connector returned a value.
+     */
+    Future<byte[]> getContentAsync(String key);
+
+    /**
+     * return the Object-Value for the given key asynchronously (see {@link #getStringAsync(String)}).
+     *
+     * @param key the Key for the configuration-property. e.g.: "com/mycompany/myapp/myParameterKey"
+     * @return the {@link Future} of the Object-Value. The value is null if no connector returned a value.
+     */
+    Future<Object> getObjectAsync(String key);
+
+    /**
+     * Create an immutable point-in-time view of the String-Values for the given keys.
+     * <p>
+     * All keys are resolved with one pass through the connector chain (see {@link #getStrings(Collection)}). Lookups on the returned
+     * {@link SettingsSnapshot} never call a connector.
+     * </p>
+     *
+     * @param keys the Keys for the configuration-properties. e.g.: "com/mycompany/myapp/myParameterKey"
+     * @return the {@link SettingsSnapshot} with the current values.
+     */
+    SettingsSnapshot snapshot(Collection<String> keys);
+
+    /**
+     * return the int-Value for the given key.
+     * <p>
+     * The String-Value will be parsed. The parsed value is cached as long as the String-Value doesn't change.
+     * </p>
+     *
+     * @param key the Key for the configuration-property. e.g.: "com/mycompany/myapp/myParameterKey"
+     * @param defaultValue the value if no connector returns a value.
+     * @return the int-Value for the given key.
+     * @throws IllegalArgumentException if the value is not a valid int.
+     */
+    int getInt(String key, int defaultValue);
+
+    /**
+     * return the long-Value for the given key (see {@link #getInt(String, int)}).
+     *
+     * @param key the Key for the configuration-property. e.g.: "com/mycompany/myapp/myParameterKey"
+     * @param defaultValue the value if no connector returns a value.
+     * @return the long-Value for the given key.
+     * @throws IllegalArgumentException if the value is not a valid long.
+     */
+    long getLong(String key, long defaultValue);
+
+    /**
+     * return the boolean-Value for the given key (see {@link #getInt(String, int)}).
+     * <p>
+     * Valid values are "true", "false", "yes", "no", "on" and "off" (case insensitive).
+     * </p>
+     *
+     * @param key the Key for the configuration-property. e.g.: "com/mycompany/myapp/myParameterKey"
+     * @param defaultValue the value if no connector returns a value.
+     * @return the boolean-Value for the given key.
+     * @throws IllegalArgumentException if the value is not a valid boolean.
+     */
+    boolean getBoolean(String key, boolean defaultValue);
+
+    /**
+     * return the duration for the given key in the given unit (see {@link #getInt(String, int)}).
+     * <p>
+     * Valid values are numbers with an optional unit suffix: "ns", "us", "ms", "s", "m" (or "min"), "h" and "d". E.g. "500ms" or "30s". A number
+     * without suffix is already in the given unit.
+     * </p>
+     *
+     * @param key the Key for the configuration-property. e.g.: "com/mycompany/myapp/myParameterKey"
+     * @param unit the unit of the returned duration (and of numbers without suffix).
+     * @param defaultValue the value if no connector returns a value (in the given unit).
+     * @return the duration for the given key in the given unit.
+     * @throws IllegalArgumentException if the value is not a valid duration.
+     */
+    long getDuration(String key, TimeUnit unit, long defaultValue);
+
+    /**
+     * return the enum-Value for the given key (see {@link #getInt(String, int)}).
+     *
+     * @param <E> the enum type.
+     * @param key the Key for the configuration-property. e.g.: "com/mycompany/myapp/myParameterKey"
+     * @param enumType the enum class.
+     * @param defaultValue the value if no connector returns a value.
+     * @return the enum constant with the name of the String-Value.
+     * @throws IllegalArgumentException if the value is not a name of an enum constant.
+     */
+    <E extends Enum<E>> E getEnum(String key, Class<E> enumType, E defaultValue);
+
+    /**
+     * return the comma separated String-Value for the given key as List (see {@link #getInt(String, int)}).
+     * <p>
+     * The elements are trimmed and empty elements are ignored.
+     * </p>
+     *
+     * @param key the Key for the configuration-property. e.g.: "com/mycompany/myapp/myParameterKey"
+     * @param defaultValue the value if no connector returns a value.
+     * @return the unmodifiable List of the elements.
+     */
+    List<String> getList(String key, List<String> defaultValue);
+
+    /**
+     * Drop all values which were cached by this {@link Settings4jInstance}.
+     * <p>
+     * Call this method if the values inside the connectors have changed (e.g. a new System-Property or an edited File) and the
+     * {@link Settings4jInstance} caches resolved values. Changes of the connector chain or the mapping will refresh the cached values automatically.
+     * </p>
+     */
+    void refresh();
+
+    /**
+     * Drop the cached value of the given key (see {@link #refresh()}).
+     * <p>
+     * Call this method if the value of one key inside the connectors has changed. {@link SettingHandle}s of this key will resolve the value
+     * again.
+     * </p>
+     *
+     * @param key the key (before the mapping is applied).
+     */
+    void refresh(String key);
+
+    /**
+     * Return a {@link SettingHandle} for the given key which holds the resolved String-Value.
+     * <p>
+     * The value will be resolved with the first {@link SettingHandle#get()} and then held until the connector chain or the mapping changes or
+     * {@link #refresh()} or {@link #refresh(String)} is called. The same key always returns the same handle, also after
+     * {@link Settings4jRepository#resetConfiguration()}.
+     * </p>
+     *
+     * @param key the Key for the configuration-property. e.g.: "com/mycompany/myapp/myParameterKey"
+     * @return the {@link SettingHandle} for the given key.
+     */
+    SettingHandle<String> handle(String key);
+}
@@ -0,0 +1,57 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j;
+
+/**
+ * A lightweight handle to one key of a {@link Settings4jInstance}.
+ * <p>
+ * The value will be resolved once through the connector chain and then held inside the handle. {@link #get()} is a single volatile read until the
+ * value is invalidated by a change of the connector chain or the mapping, by {@link ExtendedSettings4jInstance#refresh()} or by
+ * {@link ExtendedSettings4jInstance#refresh(String)} for this key. The next {@link #get()} resolves the value again.
+ * </p>
+ * <p>
+ * {@link Settings4jRepository#resetConfiguration()} removes the connectors from the same instance, so a handle stays valid for the new
+ * configuration and may be kept in a static field.
+ * </p>
+ * <p>
+ * Handles are intended for constant keys in hot code paths, e.g.:
+ * </p>
+ *
+ * <pre>
+ * private static final SettingHandle&lt;String&gt; DB_URL = Settings4j.handle(&quot;com/mycompany/myapp/db/url&quot;);
+ * ...
+ * connect(DB_URL.get());
+ * </pre>
+ *
+ * @param <T> the type of the value.
+ * @author Harald.Brabenetz
+ */
+public interface SettingHandle<T> {
+
+    /**
+     * @return the key of this handle (before the mapping is applied).
+     */
+    String getKey();
+
+    /**
+     * @return the current value or null if no connector returned a value.
+     */
+    T get();
+}
@@ -19,7 +19,12 @@
  */
 package org.settings4j;
 
+import java.io.InputStream;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.settings4j.settings.SettingsManager;
 
@@ -104,6 +109,19 @@ public final class Settings4j {
         return getSettings().getContent(key);
     }
 
+    /**
+     * open the found content for the given key as stream.<br>
+     * Like {@link #getContent(String)}, but large files are not read into a byte[]. The caller must close the returned stream.
+     *
+     * @param key
+     *        the Key for the configuration-property. e.g.: "com/mycompany/myapp/myParameterKey"
+     * @return a new {@link InputStream} of the found content or null if no connector found a content for the given key.
+     * @see ExtendedSettings4jInstance#openContent(String)
+     */
+    public static InputStream openContent(final String key) {
+        return getExtendedSettings().openContent(key);
+    }
+
     /**
      * return the found Object-Value for the given key.<br>
      * The {@link Settings4j} Instance iterates all his {@link Connector} and return the first found Value.<br>
@@ -125,6 +143,210 @@ public final class Settings4j {
         return getSettings().getObject(key);
     }
 
+    /**
+     * return the found String-Values for the given keys.
+     * <p>
+     * Same as {@link #getString(String)} for many keys, but every {@link Connector} will be asked only once for all missing keys. This is useful if an
+     * application needs a lot of keys at startup.
+     * </p>
+     *
+     * @param keys
+     *        the Keys for the configuration-properties. e.g.: "com/mycompany/myapp/myParameterKey"
+     * @return the found String-Values in the order of the given keys. Keys without a value are not contained.
+     * @see ExtendedSettings4jInstance#getStrings(Collection)
+     */
+    public static Map<String, String> getStrings(final Collection<String> keys) {
+        return getExtendedSettings().getStrings(keys);
+    }
+
+    /**
+     * return the found byte[]-Values for the given keys.
+     * <p>
+     * Same as {@link #getContent(String)} for many keys, but every {@link Connector} will be asked only once for all missing keys.
+     * </p>
+     *
+     * @param keys
+     *        the Keys for the configuration-properties. e.g.: "com/mycompany/myapp/myParameterKey"
+     * @return the found byte[]-Values in the order of the given keys. Keys without a value are not contained.
+     * @see ExtendedSettings4jInstance#getContents(Collection)
+     */
+    public static Map<String, byte[]> getContents(final Collection<String> keys) {
+        return getExtendedSettings().getContents(keys);
+    }
+
+    /**
+     * return the found Object-Values for the given keys.
+     * <p>
+     * Same as {@link #getObject(String)} for many keys, but every {@link Connector} will be asked only once for all missing keys.
+     * </p>
+     *
+     * @param keys
+     *        the Keys for the configuration-properties. e.g.: "com/mycompany/myapp/myParameterKey"
+     * @return the found Object-Values in the order of the given keys. Keys without a value are not contained.
+     * @see ExtendedSettings4jInstance#getObjects(Collection)
+     */
+    public static Map<String, Object> getObjects(final Collection<String> keys) {
+        return getExtendedSettings().getObjects(keys);
+    }
+
+    /**
+     * return the String-Value for the given key asynchronously. The calling thread never blocks on slow connectors.
+     *
+     * @param key
+     *        the Key for the configuration-property. e.g.: "com/mycompany/myapp/myParameterKey"
+     * @return the {@link Future} of the String-Value. The value is null if no connector returned a value.
+     * @see ExtendedSettings4jInstance#getStringAsync(String)
+     */
+    public static Future<String> getStringAsync(final String key) {
+        return getExtendedSettings().getStringAsync(key);
+    }
+
+    /**
+     * return the byte[]-Value for the given key asynchronously. The calling thread never blocks on slow connectors.
+     *
+     * @param key
+     *        the Key for the configuration-property. e.g.: "com/mycompany/myapp/myParameterKey"
+     * @return the {@link Future} of the byte[]-Value. The value is null if no connector returned a value.
+     * @see ExtendedSettings4jInstance#getContentAsync(String)
+     */
+    public static Future<byte[]> getContentAsync(final String key) {
+        return getExtendedSettings().getContentAsync(key);
+    }
+
+    /**
+     * return the Object-Value for the given key asynchronously. The calling thread never blocks on slow connectors.
+     *
+     * @param key
+     *        the Key for the configuration-property. e.g.: "com/mycompany/myapp/myParameterKey"
+     * @return the {@link Future} of the Object-Value. The value is null if no connector returned a value.
+     * @see ExtendedSettings4jInstance#getObjectAsync(String)
+     */
+    public static Future<Object> getObjectAsync(final String key) {
+        return getExtendedSettings().getObjectAsync(key);
+    }
+
+    /**
+     * Create an immutable point-in-time view of the String-Values for the given keys. All values are resolved once, so a request or a batch job
+     * sees consistent values and lookups on the snapshot never call a connector.
+     *
+     * @param keys
+     *        the Keys for the configuration-properties. e.g.: "com/mycompany/myapp/myParameterKey"
+     * @return the {@link SettingsSnapshot} with the current values.
+     * @see ExtendedSettings4jInstance#snapshot(Collection)
+     */
+    public static SettingsSnapshot snapshot(final Collection<String> keys) {
+        return getExtendedSettings().snapshot(keys);
+    }
+
+    /**
+     * return the int-Value for the given key. The parsed value is cached as long as the String-Value doesn't change.
+     *
+     * @param key
+     *        the Key for the configuration-property. e.g.: "com/mycompany/myapp/myParameterKey"
+     * @param defaultValue
+     *        the value if no connector returns a value.
+     * @return the int-Value for the given key.
+     * @see ExtendedSettings4jInstance#getInt(String, int)
+     */
+    public static int getInt(final String key, final int defaultValue) {
+        return getExtendedSettings().getInt(key, defaultValue);
+    }
+
+    /**
+     * return the long-Value for the given key. The parsed value is cached as long as the String-Value doesn't change.
+     *
+     * @param key
+     *        the Key for the configuration-property. e.g.: "com/mycompany/myapp/myParameterKey"
+     * @param defaultValue
+     *        the value if no connector returns a value.
+     * @return the long-Value for the given key.
+     * @see ExtendedSettings4jInstance#getLong(String, long)
+     */
+    public static long getLong(final String key, final long defaultValue) {
+        return getExtendedSettings().getLong(key, defaultValue);
+    }
+
+    /**
+     * return the boolean-Value (true/false, yes/no, on/off) for the given key. The parsed value is cached as long as the String-Value doesn't change.
+     *
+     * @param key
+     *        the Key for the configuration-property. e.g.: "com/mycompany/myapp/myParameterKey"
+     * @param defaultValue
+     *        the value if no connector returns a value.
+     * @return the boolean-Value for the given key.
+     * @see ExtendedSettings4jInstance#getBoolean(String, boolean)
+     */
+    public static boolean getBoolean(final String key, final boolean defaultValue) {
+        return getExtendedSettings().getBoolean(key, defaultValue);
+    }
+
+    /**
+     * return the duration for the given key in the given unit, e.g. "500ms", "30s", "5m", "2h" or "1d". A number without suffix is already in the
+     * given unit. The parsed value is cached as long as the String-Value doesn't change.
+     *
+     * @param key
+     *        the Key for the configuration-property. e.g.: "com/mycompany/myapp/myParameterKey"
+     * @param unit
+     *        the unit of the returned duration.
+     * @param defaultValue
+     *        the value if no connector returns a value (in the given unit).
+     * @return the duration for the given key in the given unit.
+     * @see ExtendedSettings4jInstance#getDuration(String, TimeUnit, long)
+     */
+    public static long getDuration(final String key, final TimeUnit unit, final long defaultValue) {
+        return getExtendedSettings().getDuration(key, unit, defaultValue);
+    }
+
+    /**
+     * return the enum-Value for the given key. The parsed value is cached as long as the String-Value doesn't change.
+     *
+     * @param <E>
+     *        the enum type.
+     * @param key
+     *        the Key for the configuration-property. e.g.: "com/mycompany/myapp/myParameterKey"
+     * @param enumType
+     *        the enum class.
+     * @param defaultValue
+     *        the value if no connector returns a value.
+     * @return the enum constant with the name of the String-Value.
+     * @see ExtendedSettings4jInstance#getEnum(String, Class, Enum)
+     */
+    public static <E extends Enum<E>> E getEnum(final String key, final Class<E> enumType, final E defaultValue) {
+        return getExtendedSettings().getEnum(key, enumType, defaultValue);
+    }
+
+    /**
+     * return the comma separated String-Value for the given key as unmodifiable List. The parsed value is cached as long as the String-Value
+     * doesn't change.
+     *
+     * @param key
+     *        the Key for the configuration-property. e.g.: "com/mycompany/myapp/myParameterKey"
+     * @param defaultValue
+     *        the value if no connector returns a value.
+     * @return the unmodifiable List of the trimmed elements.
+     * @see ExtendedSettings4jInstance#getList(String, List)
+     */
+    public static List<String> getList(final String key, final List<String> defaultValue) {
+        return getExtendedSettings().getList(key, defaultValue);
+    }
+
+    /**
+     * Return a {@link SettingHandle} for the given key. The handle holds the resolved String-Value, so hot code paths with constant keys don't
+     * need to walk through the connector chain on every call.
+     * <p>
+     * The handle belongs to the current {@link Settings4jInstance}. {@link Settings4jRepository#resetConfiguration()} keeps this instance and
+     * invalidates the handle, so the next {@link SettingHandle#get()} resolves the value from the new configuration.
+     * </p>
+     *
+     * @param key
+     *        the Key for the configuration-property. e.g.: "com/mycompany/myapp/myParameterKey"
+     * @return the {@link SettingHandle} for the given key.
+     * @see ExtendedSettings4jInstance#handle(String)
+     */
+    public static SettingHandle<String> handle(final String key) {
+        return getExtendedSettings().handle(key);
+    }
+
     /**
      * Get the {@link Settings4jRepository} where this Settings-Object is stored.
      *
@@ -143,6 +365,19 @@ public final class Settings4j {
         return SettingsManager.getSettings();
     }
 
+    /**
+     * @return the current Settings4jInstance as {@link ExtendedSettings4jInstance}.
+     * @throws UnsupportedOperationException if the configured {@link Settings4jFactory} creates an instance without this interface.
+     */
+    private static ExtendedSettings4jInstance getExtendedSettings() {
+        final Settings4jInstance settings = getSettings();
+        if (settings instanceof ExtendedSettings4jInstance) {
+            return (ExtendedSettings4jInstance) settings;
+        }
+        throw new UnsupportedOperationException(String.format("The Settings4jInstance %s doesn't implement %s.", settings.getClass().getName(),
+            ExtendedSettings4jInstance.class.getName()));
+    }
+
     /**
      * Return a List off {@link Connector} who can be used with this {@link Settings4j} instance.
      *
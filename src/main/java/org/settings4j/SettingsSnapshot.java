@@ -0,0 +1,133 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable point-in-time view of the String-Values of some keys.
+ * <p>
+ * A snapshot will be created by {@link ExtendedSettings4jInstance#snapshot(Collection)}. All values are resolved once while the snapshot is created, so a
+ * request or a batch job which reads many settings sees consistent values even if the configuration changes in the meantime. Lookups on the
+ * snapshot never call a connector.
+ * </p>
+ * <p>
+ * The values are held in a compact open-addressing hash table (two parallel arrays with linear probing), so a lookup costs one hash probe
+ * without any allocation.
+ * </p>
+ *
+ * @author Harald.Brabenetz
+ */
+public final class SettingsSnapshot {
+
+    private final String[] keys;
+    private final String[] values;
+    private final int mask;
+    private final int size;
+
+    /**
+     * @param values the resolved values (key = unmapped key). Keys with a null value are ignored.
+     */
+    public SettingsSnapshot(final Map<String, String> values) {
+        super();
+        int capacity = 2;
+        // load factor is at most 0.5 to keep the probe sequences short.
+        while (capacity < values.size() * 2) {
+            capacity <<= 1;
+        }
+        this.keys = new String[capacity];
+        this.values = new String[capacity];
+        this.mask = capacity - 1;
+
+        int count = 0;
+        for (final Map.Entry<String, String> entry : values.entrySet()) {
+            if (entry.getKey() != null && entry.getValue() != null) {
+                final int index = indexOf(entry.getKey());
+                if (this.keys[index] == null) {
+                    count++;
+                }
+                this.keys[index] = entry.getKey();
+                this.values[index] = entry.getValue();
+            }
+        }
+        this.size = count;
+    }
+
+    /**
+     * return the String-Value for the given key.
+     *
+     * @param key the Key for the configuration-property. e.g.: "com/mycompany/myapp/myParameterKey"
+     * @return the String-Value at the time the snapshot was created or null if the key has no value or is not part of the snapshot.
+     */
+    public String getString(final String key) {
+        return this.values[indexOf(key)];
+    }
+
+    /**
+     * @param key the Key for the configuration-property.
+     * @return true if the key has a value in this snapshot.
+     */
+    public boolean containsKey(final String key) {
+        return this.keys[indexOf(key)] != null;
+    }
+
+    /**
+     * @return the number of keys with a value in this snapshot.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return a new Map with all keys and values of this snapshot.
+     */
+    public Map<String, String> toMap() {
+        final Map<String, String> result = new LinkedHashMap<String, String>();
+        for (int i = 0; i < this.keys.length; i++) {
+            if (this.keys[i] != null) {
+                result.put(this.keys[i], this.values[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param key the key.
+     * @return the slot of the given key or the empty slot where the key would be stored.
+     */
+    private int indexOf(final String key) {
+        int hash = key.hashCode();
+        // spread the higher bits (same as java.util.HashMap)
+        hash ^= (hash >>> 20) ^ (hash >>> 12);
+        hash ^= (hash >>> 7) ^ (hash >>> 4);
+        int index = hash & this.mask;
+        while (this.keys[index] != null && !this.keys[index].equals(key)) {
+            index = (index + 1) & this.mask;
+        }
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return "SettingsSnapshot" + toMap();
+    }
+}
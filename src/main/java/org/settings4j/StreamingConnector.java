@@ -0,0 +1,43 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j;
+
+import java.io.InputStream;
+
+/**
+ * Optional extension of a {@link Connector} which can stream a content without reading it into a byte[].
+ * <p>
+ * {@link ExtendedSettings4jInstance#openContent(String)} uses it to process large resources (e.g. XML files) with constant memory. For connectors which
+ * doesn't implement this interface the byte[] of {@link Connector#getContent(String)} will be streamed (see
+ * {@link org.settings4j.util.ContentStreamUtil}).
+ * </p>
+ *
+ * @author Harald.Brabenetz
+ */
+public interface StreamingConnector extends Connector {
+
+    /**
+     * Open the content for the given key. The caller must close the returned stream.
+     *
+     * @param key the Key for the configuration-property. e.g.: "com/mycompany/myapp/myParameterKey"
+     * @return a new {@link InputStream} of the content or null if nothing where found.
+     */
+    InputStream openContent(String key);
+}
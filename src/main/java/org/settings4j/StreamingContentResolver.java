@@ -0,0 +1,41 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j;
+
+import java.io.InputStream;
+
+/**
+ * Optional interface for {@link ContentResolver}s which can stream a content without reading it into a byte[] (e.g. from a File).
+ * <p>
+ * Use {@link org.settings4j.util.ContentStreamUtil#openContent(ContentResolver, String)} to call it for any ContentResolver.
+ * </p>
+ *
+ * @author Harald.Brabenetz
+ */
+public interface StreamingContentResolver extends ContentResolver {
+
+    /**
+     * Open the content for the given key. The caller must close the returned stream.
+     *
+     * @param key the Key for the content.
+     * @return a new {@link InputStream} of the content or null if nothing where found.
+     */
+    InputStream openContent(String key);
+}
@@ -0,0 +1,44 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j.cache;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Loads the values of a {@link ValueCache} which are not cached yet.
+ *
+ * @param <V> the type of the values.
+ * @author Harald.Brabenetz
+ */
+public interface CacheLoader<V> {
+
+    /**
+     * @param key the key to load.
+     * @return the value or null if there is no value for the given key.
+     */
+    V load(String key);
+
+    /**
+     * @param keys the keys to load.
+     * @return the found values. Keys without a value are not contained.
+     */
+    Map<String, V> loadAll(Collection<String> keys);
+}
@@ -0,0 +1,230 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Snapshot of the String- and byte[]-Values of a cached connector, which can be stored in a local file to warm up the cache after a restart.
+ * <p>
+ * Binary format: the magic number "S4JC", the format version, the number of entries, then per entry the type (0 = String, 1 = byte[]), the key
+ * and the value (each as length and UTF-8 or raw bytes) and at the end the CRC32 checksum of all previous bytes. A file with a wrong magic number,
+ * version or checksum will be rejected completely.
+ * </p>
+ * <p>
+ * "Not found" results are not stored.
+ * </p>
+ * <p>
+ * The values are stored in plaintext, including secrets like passwords which were resolved from JNDI or system properties. So the file can be
+ * read and written by its owner only (see {@link #write(File)}). Keep it in a private folder of the user who runs the application.
+ * </p>
+ *
+ * @author Harald.Brabenetz
+ */
+public final class CacheSnapshot {
+
+    /** General Logger for this Class. */
+    private static final org.slf4j.Logger LOG = org.slf4j.LoggerFactory.getLogger(CacheSnapshot.class);
+
+    private static final int MAGIC = 0x53344A43;
+    private static final int VERSION = 1;
+    private static final byte TYPE_STRING = 0;
+    private static final byte TYPE_CONTENT = 1;
+    private static final String CHARSET = "UTF-8";
+
+    private final Map<String, String> strings;
+    private final Map<String, byte[]> contents;
+
+    /**
+     * @param strings the String-Values.
+     * @param contents the byte[]-Values.
+     */
+    public CacheSnapshot(final Map<String, String> strings, final Map<String, byte[]> contents) {
+        super();
+        this.strings = Collections.unmodifiableMap(new LinkedHashMap<String, String>(strings));
+        this.contents = Collections.unmodifiableMap(new LinkedHashMap<String, byte[]>(contents));
+    }
+
+    public Map<String, String> getStrings() {
+        return this.strings;
+    }
+
+    public Map<String, byte[]> getContents() {
+        return this.contents;
+    }
+
+    /**
+     * Write this snapshot into the given file. The file is written into a temporary file first and then renamed, so a crash while writing
+     * never leaves a half written snapshot. The temporary file is restricted to the owner before any value is written.
+     *
+     * @param file the snapshot file.
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(final File file) throws IOException {
+        final File parent = file.getAbsoluteFile().getParentFile();
+        FileUtils.forceMkdir(parent);
+        final File tempFile = new File(parent, file.getName() + ".tmp");
+        if (tempFile.exists()) {
+            FileUtils.forceDelete(tempFile);
+        }
+        if (!tempFile.createNewFile()) {
+            throw new IOException("Cannot create " + tempFile);
+        }
+        restrictToOwner(tempFile);
+        final CRC32 checksum = new CRC32();
+        FileOutputStream fileOut = null;
+        DataOutputStream out = null;
+        try {
+            fileOut = new FileOutputStream(tempFile);
+            out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(fileOut), checksum));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(countValues(this.strings) + countValues(this.contents));
+            for (final Map.Entry<String, String> entry : this.strings.entrySet()) {
+                if (entry.getValue() != null) {
+                    writeEntry(out, TYPE_STRING, entry.getKey(), entry.getValue().getBytes(CHARSET));
+                }
+            }
+            for (final Map.Entry<String, byte[]> entry : this.contents.entrySet()) {
+                if (entry.getValue() != null) {
+                    writeEntry(out, TYPE_CONTENT, entry.getKey(), entry.getValue());
+                }
+            }
+            // the checksum itself is not part of the checksum.
+            out.flush();
+            final DataOutputStream trailer = new DataOutputStream(fileOut);
+            trailer.writeLong(checksum.getValue());
+            trailer.flush();
+        } finally {
+            IOUtils.closeQuietly(out);
+            IOUtils.closeQuietly(fileOut);
+        }
+        if (file.exists()) {
+            FileUtils.forceDelete(file);
+        }
+        if (!tempFile.renameTo(file)) {
+            throw new IOException("Cannot rename " + tempFile + " to " + file);
+        }
+    }
+
+    /**
+     * Read a snapshot from the given file.
+     *
+     * @param file the snapshot file.
+     * @return the snapshot.
+     * @throws IOException if the file cannot be read or is corrupt (wrong format or checksum).
+     */
+    public static CacheSnapshot read(final File file) throws IOException {
+        final Map<String, String> strings = new LinkedHashMap<String, String>();
+        final Map<String, byte[]> contents = new LinkedHashMap<String, byte[]>();
+        final CRC32 checksum = new CRC32();
+        final long fileLength = file.length();
+        BufferedInputStream fileIn = null;
+        DataInputStream in = null;
+        try {
+            fileIn = new BufferedInputStream(new FileInputStream(file));
+            in = new DataInputStream(new CheckedInputStream(fileIn, checksum));
+            if (in.readInt() != MAGIC) {
+                throw new IOException("The file " + file + " is not a settings4j cache snapshot.");
+            }
+            final int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("The cache snapshot " + file + " has the unsupported version " + version + ".");
+            }
+            final int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                final byte type = in.readByte();
+                final String key = new String(readBytes(in, fileLength), CHARSET);
+                final byte[] value = readBytes(in, fileLength);
+                if (type == TYPE_STRING) {
+                    strings.put(key, new String(value, CHARSET));
+                } else if (type == TYPE_CONTENT) {
+                    contents.put(key, value);
+                } else {
+                    throw new IOException("The cache snapshot " + file + " is corrupt: unknown entry type " + type + ".");
+                }
+            }
+            final long expectedChecksum = checksum.getValue();
+            if (new DataInputStream(fileIn).readLong() != expectedChecksum) {
+                throw new IOException("The cache snapshot " + file + " is corrupt: wrong checksum.");
+            }
+        } finally {
+            IOUtils.closeQuietly(in);
+            IOUtils.closeQuietly(fileIn);
+        }
+        return new CacheSnapshot(strings, contents);
+    }
+
+    /**
+     * Java 6 has no POSIX file permissions: remove the read and write permissions of everybody, then grant them to the owner only.
+     */
+    private static void restrictToOwner(final File file) {
+        final boolean restricted = file.setReadable(false, false) && file.setWritable(false, false) //
+            && file.setReadable(true, true) && file.setWritable(true, true);
+        if (!restricted) {
+            LOG.warn("Cannot restrict the cache snapshot {} to its owner. Other users may read the cached values.", file);
+        }
+    }
+
+    private static int countValues(final Map<String, ?> values) {
+        int count = 0;
+        for (final Object value : values.values()) {
+            if (value != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void writeEntry(final DataOutputStream out, final byte type, final String key, final byte[] value) throws IOException {
+        out.writeByte(type);
+        final byte[] keyBytes = key.getBytes(CHARSET);
+        out.writeInt(keyBytes.length);
+        out.write(keyBytes);
+        out.writeInt(value.length);
+        out.write(value);
+    }
+
+    private static byte[] readBytes(final DataInputStream in, final long maxLength) throws IOException {
+        final int length = in.readInt();
+        if (length < 0 || length > maxLength) {
+            throw new IOException("Corrupt cache snapshot: invalid length " + length + ".");
+        }
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j.cache;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics of one {@link ValueCache}: hits, misses, loads, load time and evictions.
+ * <p>
+ * The counters are not a consistent snapshot: concurrent lookups can be counted between two getter calls.
+ * </p>
+ *
+ * @author Harald.Brabenetz
+ */
+public class CacheStats implements CacheStatsMBean {
+
+    /** Maximum number of entries of {@link #dump(String)}. */
+    private static final int MAX_DUMP_ENTRIES = 1000;
+
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+    private final ValueCache<?> cache;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong loadCount = new AtomicLong();
+    private final AtomicLong loadFailureCount = new AtomicLong();
+    private final AtomicLong totalLoadNanos = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    /**
+     * @param cache the cache for the current size, weight and entries.
+     */
+    CacheStats(final ValueCache<?> cache) {
+        super();
+        this.cache = cache;
+    }
+
+    void recordHits(final int count) {
+        this.hitCount.addAndGet(count);
+    }
+
+    void recordMisses(final int count) {
+        this.missCount.addAndGet(count);
+    }
+
+    void recordLoad(final long nanos) {
+        this.loadCount.incrementAndGet();
+        this.totalLoadNanos.addAndGet(nanos);
+    }
+
+    void recordLoadFailure(final long nanos) {
+        recordLoad(nanos);
+        this.loadFailureCount.incrementAndGet();
+    }
+
+    void recordEviction() {
+        this.evictionCount.incrementAndGet();
+    }
+
+    @Override
+    public long getHitCount() {
+        return this.hitCount.get();
+    }
+
+    @Override
+    public long getMissCount() {
+        return this.missCount.get();
+    }
+
+    @Override
+    public double getHitRate() {
+        final long hits = this.hitCount.get();
+        final long requests = hits + this.missCount.get();
+        if (requests == 0L) {
+            return 1.0;
+        }
+        return (double) hits / requests;
+    }
+
+    @Override
+    public long getLoadCount() {
+        return this.loadCount.get();
+    }
+
+    @Override
+    public long getLoadFailureCount() {
+        return this.loadFailureCount.get();
+    }
+
+    @Override
+    public long getTotalLoadTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(this.totalLoadNanos.get());
+    }
+
+    @Override
+    public long getAverageLoadMicros() {
+        final long loads = this.loadCount.get();
+        if (loads == 0L) {
+            return 0L;
+        }
+        return TimeUnit.NANOSECONDS.toMicros(this.totalLoadNanos.get() / loads);
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return this.evictionCount.get();
+    }
+
+    @Override
+    public long getSize() {
+        return this.cache.size();
+    }
+
+    @Override
+    public long getWeight() {
+        return this.cache.getWeight();
+    }
+
+    @Override
+    public String dump(final String prefix) {
+        final Map<String, ?> entries = this.cache.getEntries(prefix);
+        final StringBuilder result = new StringBuilder();
+        int count = 0;
+        for (final Map.Entry<String, ?> entry : entries.entrySet()) {
+            if (count++ == MAX_DUMP_ENTRIES) {
+                result.append("... (").append(entries.size() - MAX_DUMP_ENTRIES).append(" more entries)").append(LINE_SEPARATOR);
+                break;
+            }
+            result.append(entry.getKey()).append(" = ").append(toDumpString(entry.getValue())).append(LINE_SEPARATOR);
+        }
+        return result.toString();
+    }
+
+    private static String toDumpString(final Object value) {
+        if (value == null) {
+            return "(not found)";
+        }
+        if (value instanceof byte[]) {
+            return "byte[" + ((byte[]) value).length + "]";
+        }
+        return String.valueOf(value);
+    }
+
+    @Override
+    public void reset() {
+        this.hitCount.set(0L);
+        this.missCount.set(0L);
+        this.loadCount.set(0L);
+        this.loadFailureCount.set(0L);
+        this.totalLoadNanos.set(0L);
+        this.evictionCount.set(0L);
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats [hitCount=" + getHitCount() + ", missCount=" + getMissCount() + ", loadCount=" + getLoadCount() + ", loadFailureCount="
+            + getLoadFailureCount() + ", totalLoadTimeMillis=" + getTotalLoadTimeMillis() + ", evictionCount=" + getEvictionCount() + ", size="
+            + getSize() + ", weight=" + getWeight() + "]";
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j.cache;
+
+/**
+ * JMX management interface of {@link CacheStats}.
+ *
+ * @author Harald.Brabenetz
+ */
+public interface CacheStatsMBean {
+
+    /**
+     * @return the number of lookups which were answered from the cache.
+     */
+    long getHitCount();
+
+    /**
+     * @return the number of lookups which were not in the cache.
+     */
+    long getMissCount();
+
+    /**
+     * @return the rate of hits to all lookups (0.0 - 1.0).
+     */
+    double getHitRate();
+
+    /**
+     * @return the number of calls to the connector (single, bulk and background refresh loads).
+     */
+    long getLoadCount();
+
+    /**
+     * @return the number of calls to the connector which threw an exception.
+     */
+    long getLoadFailureCount();
+
+    /**
+     * @return the sum of the time of all calls to the connector in milliseconds.
+     */
+    long getTotalLoadTimeMillis();
+
+    /**
+     * @return the mean time of the calls to the connector in microseconds.
+     */
+    long getAverageLoadMicros();
+
+    /**
+     * @return the number of entries which were evicted because of the size limits.
+     */
+    long getEvictionCount();
+
+    /**
+     * @return the current number of entries (including cached "not found" results).
+     */
+    long getSize();
+
+    /**
+     * @return the current sum of the weights of all entries.
+     */
+    long getWeight();
+
+    /**
+     * Dump the cached entries.
+     *
+     * @param prefix only entries with keys which start with this prefix. An empty prefix dumps all entries.
+     * @return one line per entry, sorted by key.
+     */
+    String dump(String prefix);
+
+    /**
+     * Reset all counters. The cached entries are not changed.
+     */
+    void reset();
+}
@@ -0,0 +1,201 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j.cache;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Content-addressed store for byte[]-Values, which keeps identical payloads only once in the heap.
+ * <p>
+ * The same file is often read by several connectors (e.g. with a shared UnionContentResolver), cached as byte[] and decoded again as String.
+ * {@link #intern(byte[])} returns one canonical array for all equal payloads (addressed by the hash of the content) and
+ * {@link #decode(byte[], Charset)} memoizes the decoded String per payload and charset.
+ * </p>
+ * <p>
+ * The payloads are weakly referenced: a payload (and its decoded Strings) will be removed from the store as soon as nobody else (e.g. a cache)
+ * holds the canonical array anymore. The canonical arrays are shared, so they must not be modified and must not be returned to callers outside
+ * of settings4j.
+ * </p>
+ * <p>
+ * There is no global instance: each connector has its own store, and the {@link org.settings4j.config.DOMConfigurator} shares one store between
+ * the connectors of one configuration. So the payloads of different settings instances (e.g. webapps) are never mixed.
+ * </p>
+ *
+ * @author Harald.Brabenetz
+ */
+public class ContentStore {
+
+    private final ConcurrentMap<ContentKey, Payload> payloads = new ConcurrentHashMap<ContentKey, Payload>();
+    private final ReferenceQueue<byte[]> collectedPayloads = new ReferenceQueue<byte[]>();
+
+    /**
+     * @param content the content (can be null).
+     * @return the canonical array with the same content (the given array if the content is new).
+     */
+    public byte[] intern(final byte[] content) {
+        if (content == null) {
+            return null;
+        }
+        return internPayload(content).canonicalContent;
+    }
+
+    /**
+     * Decode the given content. The decoded String is memoized, so all connectors which read the same payload with the same charset share one
+     * String instance.
+     *
+     * @param content the content (can be null).
+     * @param charset the charset of the content.
+     * @return the decoded String.
+     */
+    public String decode(final byte[] content, final Charset charset) {
+        if (content == null) {
+            return null;
+        }
+        final PayloadReference payload = internPayload(content);
+        String decoded = payload.decodedStrings.get(charset);
+        if (decoded == null) {
+            decoded = new String(payload.canonicalContent, charset);
+            final String existing = payload.decodedStrings.putIfAbsent(charset, decoded);
+            if (existing != null) {
+                decoded = existing;
+            }
+        }
+        return decoded;
+    }
+
+    /**
+     * @return the number of distinct payloads in the store (including already collected payloads, which are not yet removed).
+     */
+    public int size() {
+        expungeCollectedPayloads();
+        return this.payloads.size();
+    }
+
+    private PayloadReference internPayload(final byte[] content) {
+        expungeCollectedPayloads();
+        final int hash = Arrays.hashCode(content);
+        final ContentKey lookupKey = new ContentKey(hash, content);
+        while (true) {
+            final Payload existing = this.payloads.get(lookupKey);
+            if (existing != null) {
+                final byte[] canonicalContent = existing.get();
+                if (canonicalContent != null) {
+                    return new PayloadReference(canonicalContent, existing.decodedStrings);
+                }
+                // collected, but not yet expunged.
+                this.payloads.remove(existing.key, existing);
+                continue;
+            }
+            final Payload payload = new Payload(hash, content, this.collectedPayloads);
+            if (this.payloads.putIfAbsent(payload.key, payload) == null) {
+                return new PayloadReference(content, payload.decodedStrings);
+            }
+        }
+    }
+
+    private void expungeCollectedPayloads() {
+        Reference<? extends byte[]> reference = this.collectedPayloads.poll();
+        while (reference != null) {
+            final Payload payload = (Payload) reference;
+            this.payloads.remove(payload.key, payload);
+            reference = this.collectedPayloads.poll();
+        }
+    }
+
+    /**
+     * A payload with a strong reference to the canonical array, so it cannot be collected while it is used.
+     */
+    private static final class PayloadReference {
+
+        private final byte[] canonicalContent;
+        private final ConcurrentMap<Charset, String> decodedStrings;
+
+        PayloadReference(final byte[] canonicalContent, final ConcurrentMap<Charset, String> decodedStrings) {
+            super();
+            this.canonicalContent = canonicalContent;
+            this.decodedStrings = decodedStrings;
+        }
+    }
+
+    /**
+     * The entry of the store: a weak reference to the canonical array and the memoized decoded Strings.
+     */
+    private static final class Payload extends WeakReference<byte[]> {
+
+        private final ContentKey key;
+        private final ConcurrentMap<Charset, String> decodedStrings = new ConcurrentHashMap<Charset, String>(2);
+
+        Payload(final int hash, final byte[] content, final ReferenceQueue<byte[]> queue) {
+            super(content, queue);
+            this.key = new ContentKey(hash, this);
+        }
+    }
+
+    /**
+     * The address of a payload: the hash of the content, and for the equality the content itself (a byte[] for lookups or the {@link Payload} of
+     * the stored entries).
+     */
+    private static final class ContentKey {
+
+        private final int hash;
+        private final Object content;
+
+        ContentKey(final int hash, final Object content) {
+            super();
+            this.hash = hash;
+            this.content = content;
+        }
+
+        private byte[] getContent() {
+            if (this.content instanceof Payload) {
+                return ((Payload) this.content).get();
+            }
+            return (byte[]) this.content;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ContentKey)) {
+                return false;
+            }
+            final ContentKey other = (ContentKey) obj;
+            if (this.hash != other.hash) {
+                return false;
+            }
+            final byte[] thisContent = getContent();
+            // collected payloads are only equal to themselves.
+            return thisContent != null && Arrays.equals(thisContent, other.getContent());
+        }
+    }
+}
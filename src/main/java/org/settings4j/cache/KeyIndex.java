@@ -0,0 +1,222 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j.cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Radix tree over the keys of a {@link ValueCache}, to find all keys with a given prefix without a scan of all keys.
+ * <p>
+ * Each node holds the common part of the keys below it, so a chain of keys like "com/mycompany/moduleX/..." needs only one node per branch.
+ * {@link #collect(String, Collection)} costs the length of the prefix plus the size of the matching subtree.
+ * </p>
+ * <p>
+ * This class is not thread safe. The {@link ValueCache} uses it only under its lock.
+ * </p>
+ *
+ * @author Harald.Brabenetz
+ */
+final class KeyIndex {
+
+    private final RadixNode root = new RadixNode("", false);
+    private int size;
+
+    /**
+     * @param key the key to add.
+     * @return true if the key was not yet contained.
+     */
+    boolean add(final String key) {
+        RadixNode node = this.root;
+        int pos = 0;
+        while (pos < key.length()) {
+            final char firstChar = key.charAt(pos);
+            final RadixNode child = node.getChild(firstChar);
+            if (child == null) {
+                node.putChild(new RadixNode(key.substring(pos), true));
+                this.size++;
+                return true;
+            }
+            final int common = commonPrefixLength(child.label, key, pos);
+            if (common < child.label.length()) {
+                // split the edge: the common part gets its own node.
+                final RadixNode split = new RadixNode(child.label.substring(0, common), false);
+                child.label = child.label.substring(common);
+                split.putChild(child);
+                node.putChild(split);
+                node = split;
+            } else {
+                node = child;
+            }
+            pos += common;
+        }
+        if (node.terminal) {
+            return false;
+        }
+        node.terminal = true;
+        this.size++;
+        return true;
+    }
+
+    /**
+     * @param key the key to remove.
+     * @return true if the key was contained.
+     */
+    boolean remove(final String key) {
+        RadixNode parent = null;
+        RadixNode node = this.root;
+        int pos = 0;
+        while (pos < key.length()) {
+            final RadixNode child = node.getChild(key.charAt(pos));
+            if (child == null || !key.startsWith(child.label, pos)) {
+                return false;
+            }
+            parent = node;
+            node = child;
+            pos += child.label.length();
+        }
+        if (!node.terminal) {
+            return false;
+        }
+        node.terminal = false;
+        this.size--;
+
+        // keep the tree compressed.
+        if (parent != null) {
+            if (node.children == null || node.children.isEmpty()) {
+                parent.children.remove(Character.valueOf(node.label.charAt(0)));
+                mergeWithSingleChild(parent);
+            } else {
+                mergeWithSingleChild(node);
+            }
+        }
+        return true;
+    }
+
+    private void mergeWithSingleChild(final RadixNode node) {
+        if (node == this.root || node.terminal || node.children == null || node.children.size() != 1) {
+            return;
+        }
+        final RadixNode child = node.children.values().iterator().next();
+        node.label = node.label + child.label;
+        node.terminal = child.terminal;
+        node.children = child.children;
+    }
+
+    /**
+     * Add all keys which start with the given prefix to the result.
+     *
+     * @param prefix the prefix. An empty prefix collects all keys.
+     * @param result the collection for the found keys.
+     */
+    void collect(final String prefix, final Collection<String> result) {
+        RadixNode node = this.root;
+        int pos = 0;
+        while (pos < prefix.length()) {
+            final RadixNode child = node.getChild(prefix.charAt(pos));
+            if (child == null) {
+                return;
+            }
+            final int remaining = prefix.length() - pos;
+            if (child.label.length() >= remaining) {
+                // the prefix ends within (or at the end of) this edge.
+                if (child.label.startsWith(prefix.substring(pos))) {
+                    collectAll(child, new StringBuilder(prefix.substring(0, pos)).append(child.label), result);
+                }
+                return;
+            }
+            if (!prefix.startsWith(child.label, pos)) {
+                return;
+            }
+            node = child;
+            pos += child.label.length();
+        }
+        collectAll(node, new StringBuilder(prefix), result);
+    }
+
+    private static void collectAll(final RadixNode node, final StringBuilder path, final Collection<String> result) {
+        if (node.terminal) {
+            result.add(path.toString());
+        }
+        if (node.children != null) {
+            final int length = path.length();
+            for (final RadixNode child : node.children.values()) {
+                path.append(child.label);
+                collectAll(child, path, result);
+                path.setLength(length);
+            }
+        }
+    }
+
+    /**
+     * @return the number of keys.
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Remove all keys.
+     */
+    void clear() {
+        this.root.children = null;
+        this.size = 0;
+    }
+
+    private static int commonPrefixLength(final String label, final String key, final int offset) {
+        final int maxLength = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < maxLength && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * One node of the radix tree. The children are indexed by the first char of their label.
+     */
+    private static final class RadixNode {
+
+        private String label;
+        private boolean terminal;
+        private Map<Character, RadixNode> children;
+
+        RadixNode(final String label, final boolean terminal) {
+            super();
+            this.label = label;
+            this.terminal = terminal;
+        }
+
+        RadixNode getChild(final char firstChar) {
+            if (this.children == null) {
+                return null;
+            }
+            return this.children.get(Character.valueOf(firstChar));
+        }
+
+        void putChild(final RadixNode child) {
+            if (this.children == null) {
+                this.children = new HashMap<Character, RadixNode>();
+            }
+            this.children.put(Character.valueOf(child.label.charAt(0)), child);
+        }
+    }
+}
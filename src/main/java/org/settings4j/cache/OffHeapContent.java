@@ -0,0 +1,68 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j.cache;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A byte[]-Value which is stored outside of the Java heap in a direct {@link ByteBuffer} (see {@link OffHeapStore}).
+ *
+ * @author Harald.Brabenetz
+ */
+public final class OffHeapContent {
+
+    private final ByteBuffer buffer;
+
+    /**
+     * @param buffer the read-only direct buffer with the content from position 0 to the limit.
+     */
+    OffHeapContent(final ByteBuffer buffer) {
+        super();
+        this.buffer = buffer;
+    }
+
+    /**
+     * @return the number of bytes.
+     */
+    public int length() {
+        return this.buffer.limit();
+    }
+
+    /**
+     * @return a new read-only view of the content, without a copy.
+     */
+    public ByteBuffer asReadOnlyBuffer() {
+        return this.buffer.duplicate();
+    }
+
+    /**
+     * @return a copy of the content on the heap.
+     */
+    public byte[] toByteArray() {
+        final byte[] result = new byte[length()];
+        this.buffer.duplicate().get(result);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "off-heap byte[" + length() + "]";
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j.cache;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stores large byte[]-Values outside of the Java heap, so they don't fill the old generation and don't lengthen full GCs.
+ * <p>
+ * Values with at least {@link #setThreshold(int)} bytes will be copied into a direct {@link ByteBuffer} ({@link OffHeapContent}), as long as the
+ * sum of all stored values stays below {@link #setCapacity(long)}. Smaller values (or if the capacity is exhausted) stay on the heap. The store
+ * must be notified with {@link #release(Object)} if a value is not used by the cache anymore (see {@link RemovalListener}).
+ * </p>
+ * <p>
+ * The memory of a released value will be freed by the garbage collector, as soon as no caller holds the {@link OffHeapContent} anymore. So the
+ * used capacity counts only the values in the cache.
+ * </p>
+ *
+ * @author Harald.Brabenetz
+ */
+public class OffHeapStore implements RemovalListener<Object> {
+
+    /** Default minimum size of off-heap values: 64 KB. */
+    public static final int DEFAULT_THRESHOLD = 64 * 1024;
+
+    /** General Logger for this Class. */
+    private static final org.slf4j.Logger LOG = org.slf4j.LoggerFactory.getLogger(OffHeapStore.class);
+
+    private final AtomicLong usedCapacity = new AtomicLong();
+    private volatile int threshold = DEFAULT_THRESHOLD;
+    private volatile long capacity;
+
+    /**
+     * Store the given content off-heap if it is large enough and the capacity isn't exhausted.
+     *
+     * @param content the content (can be null).
+     * @return an {@link OffHeapContent} or the given content itself.
+     */
+    public Object store(final byte[] content) {
+        if (content == null || this.capacity == 0L || content.length < this.threshold || !reserve(content.length)) {
+            return content;
+        }
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(content.length);
+        buffer.put(content);
+        buffer.flip();
+        return new OffHeapContent(buffer.asReadOnlyBuffer());
+    }
+
+    private boolean reserve(final int length) {
+        while (true) {
+            final long used = this.usedCapacity.get();
+            if (used + length > this.capacity) {
+                LOG.debug("The off-heap capacity of {} bytes is exhausted. The content of {} bytes stays on the heap.", this.capacity, length);
+                return false;
+            }
+            if (this.usedCapacity.compareAndSet(used, used + length)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Release the capacity of the given value, if it is an {@link OffHeapContent}.
+     *
+     * @param value a value returned by {@link #store(byte[])}.
+     */
+    public void release(final Object value) {
+        if (value instanceof OffHeapContent) {
+            this.usedCapacity.addAndGet(-((OffHeapContent) value).length());
+        }
+    }
+
+    @Override
+    public void onRemoval(final String key, final Object value) {
+        release(value);
+    }
+
+    /**
+     * @param value a value returned by {@link #store(byte[])}.
+     * @return the value as byte[] (a copy for {@link OffHeapContent}s).
+     */
+    public static byte[] toByteArray(final Object value) {
+        if (value instanceof OffHeapContent) {
+            return ((OffHeapContent) value).toByteArray();
+        }
+        return (byte[]) value;
+    }
+
+    /**
+     * @param value a value returned by {@link #store(byte[])}.
+     * @return the value as read-only {@link ByteBuffer} (without a copy) or null.
+     */
+    public static ByteBuffer toByteBuffer(final Object value) {
+        if (value instanceof OffHeapContent) {
+            return ((OffHeapContent) value).asReadOnlyBuffer();
+        }
+        if (value == null) {
+            return null;
+        }
+        return ByteBuffer.wrap((byte[]) value).asReadOnlyBuffer();
+    }
+
+    public int getThreshold() {
+        return this.threshold;
+    }
+
+    /**
+     * @param threshold the minimum size in bytes of values which will be stored off-heap.
+     */
+    public void setThreshold(final int threshold) {
+        this.threshold = Math.max(1, threshold);
+    }
+
+    public long getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * @param capacity the maximum sum of the sizes in bytes of all off-heap values. 0 disables the off-heap storage.
+     */
+    public void setCapacity(final long capacity) {
+        this.capacity = Math.max(0L, capacity);
+    }
+
+    /**
+     * @return the sum of the sizes in bytes of all off-heap values in the cache.
+     */
+    public long getUsedCapacity() {
+        return this.usedCapacity.get();
+    }
+}
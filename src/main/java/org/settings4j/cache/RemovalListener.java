@@ -0,0 +1,38 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j.cache;
+
+/**
+ * Will be notified if a value leaves a {@link ValueCache} (removed, replaced, expired or evicted) or isn't accepted by it (e.g. too heavy).
+ * <p>
+ * The listener is called under the lock of the cache, so it must be fast and must not call the cache.
+ * </p>
+ *
+ * @param <V> the type of the values.
+ * @author Harald.Brabenetz
+ */
+public interface RemovalListener<V> {
+
+    /**
+     * @param key the key of the value.
+     * @param value the value (can be null for cached "not found" results).
+     */
+    void onRemoval(String key, V value);
+}
@@ -0,0 +1,915 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.lang3.StringUtils;
+import org.settings4j.Filter;
+import org.settings4j.util.DaemonThreadFactory;
+
+/**
+ * Bounded cache for the values of one lookup type of a connector (see {@link org.settings4j.connector.CachedConnectorWrapper}).
+ * <p>
+ * Also null values ("not found") are cached. The cache can be bounded by the number of entries ({@link #setMaxEntries(long)}) and by the sum of the
+ * weights of the values ({@link #setMaxWeight(long)}, see {@link Weigher}). A limit of 0 means unbounded.
+ * </p>
+ * <p>
+ * A cache hit is one lookup in a {@link ConcurrentHashMap} without any lock: the map contains one node per cached key, also for null values, so
+ * no additional containsKey is needed. The hit only sets the reference bit of the node (like the CLOCK algorithm). All modifications and the
+ * eviction are done under one lock.
+ * </p>
+ * <p>
+ * Eviction uses a segmented policy, which is scan resistant: new entries go into the probation segment. An entry which was hit since it was
+ * written will be promoted into the protected segment (at most {@value #PROTECTED_PERCENT}% of the limits) when the eviction reaches it. Evicted
+ * are the oldest entries of the probation segment without reference bit first, so many keys which are only read once (e.g. a client which probes
+ * dynamic keys) cannot flush the frequently used entries.
+ * </p>
+ * <p>
+ * Optionally the entries expire a fixed time after they were written ({@link #setExpireAfterWrite(long)}, with a separate time for null values
+ * {@link #setNegativeExpireAfterWrite(long)}). With {@link #setRefreshAfterWrite(long)} an entry which is older than the refresh time will be
+ * reloaded in the background (see {@link #setRefreshExecutor(Executor)}) while the callers still get the old value. So no caller pays the reload
+ * latency.
+ * </p>
+ * <p>
+ * All keys are indexed in a radix tree, so {@link #removeByPrefix(String)} costs only the size of the removed subtree.
+ * </p>
+ * <p>
+ * Concurrent misses of the same key are loaded only once (single-flight): the first thread loads the value, all other threads wait for the result
+ * of this load. This also applies to the keys of bulk lookups ({@link #getAll(Collection, CacheLoader)}). A key which is removed (or put) while
+ * it is loaded, e.g. because of a change notification, will not be cached with the possibly outdated loaded value.
+ * </p>
+ *
+ * @param <V> the type of the values.
+ * @author Harald.Brabenetz
+ */
+public class ValueCache<V> {
+
+    /** Share of the limits which can be used by the protected segment. */
+    private static final int PROTECTED_PERCENT = 80;
+
+    private static final int PERCENT = 100;
+
+    /** General Logger for this Class. */
+    private static final org.slf4j.Logger LOG = org.slf4j.LoggerFactory.getLogger(ValueCache.class);
+
+    /** Maximum number of threads of the default refresh executor. */
+    private static final int DEFAULT_REFRESH_THREADS = 4;
+
+    /** Maximum number of queued refreshes of the default refresh executor. */
+    private static final int DEFAULT_REFRESH_QUEUE_SIZE = 1000;
+
+    /** Keep-alive of idle threads of the default refresh executor in seconds. */
+    private static final long DEFAULT_REFRESH_KEEP_ALIVE = 60L;
+
+    private static final Executor DEFAULT_REFRESH_EXECUTOR = createDefaultRefreshExecutor();
+
+    private final Weigher<? super V> weigher;
+    private final CacheStats stats = new CacheStats(this);
+    private final ConcurrentMap<String, Node<V>> nodes = new ConcurrentHashMap<String, Node<V>>();
+    // keys which are currently loaded: concurrent misses wait for the same future.
+    private final ConcurrentMap<String, LoadingFuture<V>> loadingKeys = new ConcurrentHashMap<String, LoadingFuture<V>>();
+
+    // the lock for all modifications. The fields below are guarded by this lock.
+    private final Object lock = new Object();
+    // circular lists with a sentinel node: sentinel.next is the oldest entry.
+    private final Node<V> probationSegment = new Node<V>(null, null, 0L, 0L, false);
+    private final Node<V> protectedSegment = new Node<V>(null, null, 0L, 0L, false);
+    private final KeyIndex keyIndex = new KeyIndex();
+    private long entries;
+    private long weight;
+    private long protectedEntries;
+    private long protectedWeight;
+
+    // configuration: read without lock by the hit path.
+    private volatile long maxEntries;
+    private volatile long maxWeight;
+    private volatile long expireAfterWriteNanos;
+    private volatile long negativeExpireAfterWriteNanos;
+    private volatile long refreshAfterWriteNanos;
+    private volatile Executor refreshExecutor = DEFAULT_REFRESH_EXECUTOR;
+    private volatile RemovalListener<? super V> removalListener;
+
+    /**
+     * @param weigher the {@link Weigher} for the values.
+     */
+    public ValueCache(final Weigher<? super V> weigher) {
+        super();
+        this.weigher = weigher;
+    }
+
+    /**
+     * Return the cached value or load it with the given loader.
+     *
+     * @param key the key.
+     * @param loader the loader for a missing value.
+     * @return the value or null if the loader returned null.
+     */
+    public V get(final String key, final CacheLoader<V> loader) {
+        final Node<V> node = getNode(key);
+        if (node == null) {
+            this.stats.recordMisses(1);
+            return load(key, loader);
+        }
+        this.stats.recordHits(1);
+        if (startRefresh(node)) {
+            // the old value will be returned until the refresh is done.
+            refresh(node, loader);
+        }
+        return node.value;
+    }
+
+    /**
+     * Return the cached value without loading it. Other than {@link #get(String, CacheLoader)} a cached null value can't be distinguished from a
+     * missing entry, and a due refresh is not started.
+     *
+     * @param key the key.
+     * @return the cached value or null if the key is not cached.
+     */
+    public V getIfPresent(final String key) {
+        final Node<V> node = getNode(key);
+        if (node == null) {
+            this.stats.recordMisses(1);
+            return null;
+        }
+        this.stats.recordHits(1);
+        return node.value;
+    }
+
+    /**
+     * Return the cached values and load all missing values with one call of the given loader.
+     *
+     * @param keys the keys.
+     * @param loader the loader for the missing values.
+     * @return the found values in the order of the given keys. Keys without a value are not contained.
+     */
+    public Map<String, V> getAll(final Collection<String> keys, final CacheLoader<V> loader) {
+        final Map<String, V> foundValues = new HashMap<String, V>();
+        final List<String> missingKeys = new ArrayList<String>();
+        for (final String key : keys) {
+            final Node<V> node = getNode(key);
+            if (node == null) {
+                missingKeys.add(key);
+            } else {
+                if (startRefresh(node)) {
+                    refresh(node, loader);
+                }
+                foundValues.put(key, node.value);
+            }
+        }
+        this.stats.recordHits(foundValues.size());
+        if (!missingKeys.isEmpty()) {
+            this.stats.recordMisses(missingKeys.size());
+            foundValues.putAll(loadAll(missingKeys, loader));
+        }
+
+        final Map<String, V> result = new LinkedHashMap<String, V>();
+        for (final String key : keys) {
+            final V value = foundValues.get(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The lock-free hit path.
+     *
+     * @return the node of the given key or null if there is no node or the node is expired (an expired node will be removed).
+     */
+    private Node<V> getNode(final String key) {
+        final Node<V> node = this.nodes.get(key);
+        if (node == null) {
+            return null;
+        }
+        if (isExpired(node)) {
+            removeNode(node);
+            return null;
+        }
+        if (!node.referenced) {
+            // avoids a write to a shared cache line on every hit of a hot key.
+            node.referenced = true;
+        }
+        return node;
+    }
+
+    private boolean isExpired(final Node<V> node) {
+        final long expireNanos;
+        if (node.value == null && this.negativeExpireAfterWriteNanos > 0) {
+            expireNanos = this.negativeExpireAfterWriteNanos;
+        } else {
+            expireNanos = this.expireAfterWriteNanos;
+        }
+        return expireNanos > 0 && System.nanoTime() - node.writeTime >= expireNanos;
+    }
+
+    private V load(final String key, final CacheLoader<V> loader) {
+        final LoadingFuture<V> future = new LoadingFuture<V>();
+        final LoadingFuture<V> inFlight = this.loadingKeys.putIfAbsent(key, future);
+        if (inFlight != null) {
+            return inFlight.await();
+        }
+        try {
+            // another thread could have finished the load between the miss and putIfAbsent.
+            final Node<V> node = getNode(key);
+            final V value;
+            if (node == null) {
+                value = loadValue(key, loader);
+                putNode(key, value, false, true, future);
+            } else {
+                value = node.value;
+            }
+            future.complete(value);
+            return value;
+        } catch (final RuntimeException e) {
+            future.fail(e);
+            throw e;
+        } catch (final Error e) {
+            future.fail(e);
+            throw e;
+        } finally {
+            this.loadingKeys.remove(key, future);
+        }
+    }
+
+    /**
+     * Loads the given keys with one call of the loader. Keys which are already loaded by another thread are not loaded again, but the result of
+     * the other thread will be used.
+     *
+     * @return all given keys with the loaded values (null if not found).
+     */
+    private Map<String, V> loadAll(final List<String> keys, final CacheLoader<V> loader) {
+        final Map<String, LoadingFuture<V>> ownFutures = new LinkedHashMap<String, LoadingFuture<V>>();
+        final Map<String, LoadingFuture<V>> otherFutures = new HashMap<String, LoadingFuture<V>>();
+        for (final String key : keys) {
+            final LoadingFuture<V> future = new LoadingFuture<V>();
+            final LoadingFuture<V> inFlight = this.loadingKeys.putIfAbsent(key, future);
+            if (inFlight == null) {
+                ownFutures.put(key, future);
+            } else {
+                otherFutures.put(key, inFlight);
+            }
+        }
+
+        final Map<String, V> result = new HashMap<String, V>();
+        if (!ownFutures.isEmpty()) {
+            try {
+                final Map<String, V> loadedValues = loadValues(new ArrayList<String>(ownFutures.keySet()), loader);
+                for (final Map.Entry<String, LoadingFuture<V>> entry : ownFutures.entrySet()) {
+                    final V value = loadedValues.get(entry.getKey());
+                    putNode(entry.getKey(), value, false, true, entry.getValue());
+                    entry.getValue().complete(value);
+                    result.put(entry.getKey(), value);
+                }
+            } catch (final RuntimeException e) {
+                failAll(ownFutures.values(), e);
+                throw e;
+            } catch (final Error e) {
+                failAll(ownFutures.values(), e);
+                throw e;
+            } finally {
+                for (final Map.Entry<String, LoadingFuture<V>> entry : ownFutures.entrySet()) {
+                    this.loadingKeys.remove(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        for (final Map.Entry<String, LoadingFuture<V>> entry : otherFutures.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().await());
+        }
+        return result;
+    }
+
+    private V loadValue(final String key, final CacheLoader<V> loader) {
+        final long start = System.nanoTime();
+        try {
+            final V value = loader.load(key);
+            this.stats.recordLoad(System.nanoTime() - start);
+            return value;
+        } catch (final RuntimeException e) {
+            this.stats.recordLoadFailure(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    private Map<String, V> loadValues(final List<String> keys, final CacheLoader<V> loader) {
+        final long start = System.nanoTime();
+        try {
+            final Map<String, V> values = loader.loadAll(keys);
+            this.stats.recordLoad(System.nanoTime() - start);
+            return values;
+        } catch (final RuntimeException e) {
+            this.stats.recordLoadFailure(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    private static <V> void failAll(final Collection<LoadingFuture<V>> futures, final Throwable cause) {
+        for (final LoadingFuture<V> future : futures) {
+            // already completed futures are not changed.
+            future.fail(cause);
+        }
+    }
+
+    /**
+     * Put a value into the cache and evict other entries if a limit is exceeded. A value which is heavier than the maximum weight will not be
+     * cached.
+     *
+     * @param key the key.
+     * @param value the value or null for "not found".
+     */
+    public void put(final String key, final V value) {
+        putNode(key, value, false, true, null);
+    }
+
+    /**
+     * Put a value (e.g. from a {@link CacheSnapshot}) into the cache, which will be served immediately but refreshed in the background with the
+     * first read (see {@link #setRefreshExecutor(Executor)}). Existing entries are not replaced.
+     *
+     * @param key the key.
+     * @param value the possibly outdated value.
+     */
+    public void preload(final String key, final V value) {
+        putNode(key, value, true, false, null);
+    }
+
+    /**
+     * @param loading the future of the load of the value, or null if the value was not loaded by this cache.
+     */
+    private void putNode(final String key, final V value, final boolean revalidate, final boolean replaceExisting, final LoadingFuture<V> loading) {
+        final long valueWeight = this.weigher.weigh(key, value);
+        synchronized (this.lock) {
+            if (loading != null && loading.invalidated) {
+                // the key was removed or put while loading: the loaded value may be outdated.
+                notifyRemoval(key, value);
+                return;
+            }
+            if (loading == null && replaceExisting) {
+                invalidateLoading(key);
+            }
+            final Node<V> oldNode = this.nodes.get(key);
+            if (oldNode != null && !replaceExisting) {
+                notifyRemoval(key, value);
+                return;
+            }
+            if (this.maxWeight > 0 && valueWeight > this.maxWeight) {
+                if (oldNode != null) {
+                    this.nodes.remove(key);
+                    unlink(oldNode);
+                }
+                notifyRemoval(key, value);
+                return;
+            }
+            final Node<V> node = new Node<V>(key, value, valueWeight, System.nanoTime(), revalidate);
+            if (oldNode == null) {
+                link(node, this.probationSegment);
+            } else {
+                replace(oldNode, node);
+            }
+            this.nodes.put(key, node);
+            evict();
+        }
+    }
+
+    /**
+     * @param key the key to remove.
+     */
+    public void remove(final String key) {
+        synchronized (this.lock) {
+            invalidateLoading(key);
+            final Node<V> node = this.nodes.remove(key);
+            if (node != null) {
+                unlink(node);
+            }
+        }
+    }
+
+    /**
+     * Remove all entries with the given key prefix. This costs only the number of matching entries, not a scan of all entries.
+     *
+     * @param prefix the prefix of the keys, e.g. "com/mycompany/moduleX/".
+     * @return the number of removed entries.
+     */
+    public int removeByPrefix(final String prefix) {
+        final List<String> keys = new ArrayList<String>();
+        synchronized (this.lock) {
+            for (final Map.Entry<String, LoadingFuture<V>> entry : this.loadingKeys.entrySet()) {
+                if (entry.getKey().startsWith(prefix)) {
+                    entry.getValue().invalidated = true;
+                }
+            }
+            this.keyIndex.collect(prefix, keys);
+            for (final String key : keys) {
+                unlink(this.nodes.remove(key));
+            }
+        }
+        return keys.size();
+    }
+
+    /**
+     * Remove all entries with keys which are valid for the given filter (see {@link Filter#isValid(String)}).
+     *
+     * @param filter the filter of the keys to remove.
+     * @return the number of removed entries.
+     */
+    public int removeMatching(final Filter filter) {
+        int count = 0;
+        synchronized (this.lock) {
+            for (final Map.Entry<String, LoadingFuture<V>> entry : this.loadingKeys.entrySet()) {
+                if (filter.isValid(entry.getKey())) {
+                    entry.getValue().invalidated = true;
+                }
+            }
+            final List<String> keys = new ArrayList<String>();
+            this.keyIndex.collect("", keys);
+            for (final String key : keys) {
+                if (filter.isValid(key)) {
+                    unlink(this.nodes.remove(key));
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Must be called under the lock: a running load of the given key must not cache its value.
+     */
+    private void invalidateLoading(final String key) {
+        final LoadingFuture<V> future = this.loadingKeys.get(key);
+        if (future != null) {
+            future.invalidated = true;
+        }
+    }
+
+    private void removeNode(final Node<V> node) {
+        synchronized (this.lock) {
+            if (this.nodes.remove(node.key, node)) {
+                unlink(node);
+            }
+        }
+    }
+
+    /**
+     * Remove all entries.
+     */
+    public void clear() {
+        synchronized (this.lock) {
+            for (final LoadingFuture<V> future : this.loadingKeys.values()) {
+                future.invalidated = true;
+            }
+            for (final Node<V> node : this.nodes.values()) {
+                notifyRemoval(node.key, node.value);
+            }
+            this.nodes.clear();
+            this.keyIndex.clear();
+            this.probationSegment.prev = this.probationSegment;
+            this.probationSegment.next = this.probationSegment;
+            this.protectedSegment.prev = this.protectedSegment;
+            this.protectedSegment.next = this.protectedSegment;
+            this.entries = 0L;
+            this.weight = 0L;
+            this.protectedEntries = 0L;
+            this.protectedWeight = 0L;
+        }
+    }
+
+    /**
+     * Return the cached entries with the given key prefix. Expired entries are not contained.
+     *
+     * @param prefix the prefix of the keys. An empty (or null) prefix returns all entries.
+     * @return the entries sorted by key (the value of a cached "not found" result is null).
+     */
+    public SortedMap<String, V> getEntries(final String prefix) {
+        final List<String> keys = new ArrayList<String>();
+        synchronized (this.lock) {
+            this.keyIndex.collect(StringUtils.defaultString(prefix), keys);
+        }
+        final SortedMap<String, V> result = new TreeMap<String, V>();
+        for (final String key : keys) {
+            final Node<V> node = this.nodes.get(key);
+            if (node != null && !isExpired(node)) {
+                result.put(key, node.value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the statistics of this cache.
+     */
+    public CacheStats getStats() {
+        return this.stats;
+    }
+
+    /**
+     * @return the number of cached entries (including cached null values).
+     */
+    public long size() {
+        synchronized (this.lock) {
+            return this.entries;
+        }
+    }
+
+    /**
+     * @return the sum of the weights of all cached values.
+     */
+    public long getWeight() {
+        synchronized (this.lock) {
+            return this.weight;
+        }
+    }
+
+    public long getMaxEntries() {
+        return this.maxEntries;
+    }
+
+    /**
+     * @param maxEntries the maximum number of entries. 0 means unbounded.
+     */
+    public void setMaxEntries(final long maxEntries) {
+        synchronized (this.lock) {
+            this.maxEntries = Math.max(0L, maxEntries);
+            evict();
+        }
+    }
+
+    public long getMaxWeight() {
+        return this.maxWeight;
+    }
+
+    /**
+     * @param maxWeight the maximum sum of the weights of all values. 0 means unbounded.
+     */
+    public void setMaxWeight(final long maxWeight) {
+        synchronized (this.lock) {
+            this.maxWeight = Math.max(0L, maxWeight);
+            evict();
+        }
+    }
+
+    /**
+     * @param expireAfterWriteMillis entries expire this time after they were written. 0 means never.
+     */
+    public void setExpireAfterWrite(final long expireAfterWriteMillis) {
+        this.expireAfterWriteNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, expireAfterWriteMillis));
+    }
+
+    public long getExpireAfterWrite() {
+        return TimeUnit.NANOSECONDS.toMillis(this.expireAfterWriteNanos);
+    }
+
+    /**
+     * @param negativeExpireAfterWriteMillis null values ("not found") expire this time after they were written. 0 means the same as
+     *        {@link #setExpireAfterWrite(long)}.
+     */
+    public void setNegativeExpireAfterWrite(final long negativeExpireAfterWriteMillis) {
+        this.negativeExpireAfterWriteNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, negativeExpireAfterWriteMillis));
+    }
+
+    public long getNegativeExpireAfterWrite() {
+        return TimeUnit.NANOSECONDS.toMillis(this.negativeExpireAfterWriteNanos);
+    }
+
+    /**
+     * @param refreshAfterWriteMillis entries which are older than this time will be reloaded in the background with the next read. 0 means never.
+     */
+    public void setRefreshAfterWrite(final long refreshAfterWriteMillis) {
+        this.refreshAfterWriteNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, refreshAfterWriteMillis));
+    }
+
+    public long getRefreshAfterWrite() {
+        return TimeUnit.NANOSECONDS.toMillis(this.refreshAfterWriteNanos);
+    }
+
+    /**
+     * Set the executor for the background refreshes (see {@link #setRefreshAfterWrite(long)}). By default a shared pool of at most
+     * {@value #DEFAULT_REFRESH_THREADS} daemon threads will be used.
+     *
+     * @param refreshExecutor the executor for the background refreshes.
+     */
+    public void setRefreshExecutor(final Executor refreshExecutor) {
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    /**
+     * @return true if the given node must be refreshed by the calling thread.
+     */
+    private boolean startRefresh(final Node<V> node) {
+        final long refreshNanos = this.refreshAfterWriteNanos;
+        final boolean refreshNeeded = node.revalidate || refreshNanos > 0 && System.nanoTime() - node.writeTime >= refreshNanos;
+        return refreshNeeded && node.refreshing.compareAndSet(false, true);
+    }
+
+    private void refresh(final Node<V> node, final CacheLoader<V> loader) {
+        try {
+            this.refreshExecutor.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    reload(node, loader);
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            LOG.debug("The refresh of the key '{}' was rejected. It will be retried with the next read.", node.key);
+            node.refreshing.set(false);
+        }
+    }
+
+    private void reload(final Node<V> node, final CacheLoader<V> loader) {
+        final V value;
+        try {
+            value = loadValue(node.key, loader);
+        } catch (final RuntimeException e) {
+            LOG.warn("Cannot refresh the cached value of the key '" + node.key + "'. The old value will be used.", e);
+            node.refreshing.set(false);
+            return;
+        }
+        final long valueWeight = this.weigher.weigh(node.key, value);
+        synchronized (this.lock) {
+            // only replace the value if the node wasn't removed or replaced in the meantime.
+            if (this.nodes.get(node.key) != node) {
+                notifyRemoval(node.key, value);
+                return;
+            }
+            if (this.maxWeight > 0 && valueWeight > this.maxWeight) {
+                this.nodes.remove(node.key);
+                unlink(node);
+                notifyRemoval(node.key, value);
+                return;
+            }
+            final Node<V> newNode = new Node<V>(node.key, value, valueWeight, System.nanoTime(), false);
+            newNode.referenced = node.referenced;
+            replace(node, newNode);
+            this.nodes.put(node.key, newNode);
+            evict();
+        }
+    }
+
+    private static Executor createDefaultRefreshExecutor() {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(DEFAULT_REFRESH_THREADS, DEFAULT_REFRESH_THREADS, DEFAULT_REFRESH_KEEP_ALIVE,
+            TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(DEFAULT_REFRESH_QUEUE_SIZE), new DaemonThreadFactory("settings4j-cache-refresh-"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Set a listener which will be notified if a value leaves the cache or isn't accepted by it.
+     *
+     * @param removalListener the listener or null.
+     */
+    public void setRemovalListener(final RemovalListener<? super V> removalListener) {
+        this.removalListener = removalListener;
+    }
+
+    private void notifyRemoval(final String key, final V value) {
+        final RemovalListener<? super V> listener = this.removalListener;
+        if (listener != null) {
+            listener.onRemoval(key, value);
+        }
+    }
+
+    /*
+     * Eviction (all methods must be called with the lock held):
+     */
+
+    private void evict() {
+        while (isOverLimit()) {
+            final Node<V> victim = findVictim();
+            this.nodes.remove(victim.key, victim);
+            unlink(victim);
+            this.stats.recordEviction();
+        }
+    }
+
+    private boolean isOverLimit() {
+        return this.maxEntries > 0 && this.entries > this.maxEntries || this.maxWeight > 0 && this.weight > this.maxWeight;
+    }
+
+    /**
+     * Second chance for referenced nodes: a referenced probation node will be promoted into the protected segment, a referenced protected node
+     * moves to the end of the protected segment. Both lose their reference bit.
+     */
+    private Node<V> findVictim() {
+        // concurrent hits can set reference bits while we scan. So the scan is limited.
+        long maxScans = 2 * this.entries + 1;
+        while (maxScans-- > 0) {
+            if (this.probationSegment.next != this.probationSegment) {
+                final Node<V> candidate = this.probationSegment.next;
+                if (!candidate.referenced) {
+                    return candidate;
+                }
+                candidate.referenced = false;
+                promote(candidate);
+            } else {
+                final Node<V> candidate = this.protectedSegment.next;
+                if (!candidate.referenced) {
+                    return candidate;
+                }
+                candidate.referenced = false;
+                candidate.unlinkFromList();
+                candidate.linkBefore(this.protectedSegment);
+            }
+        }
+        if (this.probationSegment.next != this.probationSegment) {
+            return this.probationSegment.next;
+        }
+        return this.protectedSegment.next;
+    }
+
+    private void promote(final Node<V> node) {
+        node.unlinkFromList();
+        node.isProtected = true;
+        this.protectedEntries++;
+        this.protectedWeight += node.weight;
+        node.linkBefore(this.protectedSegment);
+
+        // demote the oldest protected entries if the protected segment is full.
+        while (this.protectedSegment.next != node && isProtectedSegmentFull()) {
+            final Node<V> demoted = this.protectedSegment.next;
+            demoted.unlinkFromList();
+            demoted.isProtected = false;
+            this.protectedEntries--;
+            this.protectedWeight -= demoted.weight;
+            demoted.linkBefore(this.probationSegment);
+        }
+    }
+
+    private boolean isProtectedSegmentFull() {
+        return this.maxEntries > 0 && this.protectedEntries * PERCENT > this.maxEntries * PROTECTED_PERCENT
+            || this.maxWeight > 0 && this.protectedWeight * PERCENT > this.maxWeight * PROTECTED_PERCENT;
+    }
+
+    private void link(final Node<V> node, final Node<V> segment) {
+        node.linkBefore(segment);
+        this.keyIndex.add(node.key);
+        this.entries++;
+        this.weight += node.weight;
+    }
+
+    private void unlink(final Node<V> node) {
+        node.unlinkFromList();
+        notifyRemoval(node.key, node.value);
+        this.keyIndex.remove(node.key);
+        this.entries--;
+        this.weight -= node.weight;
+        if (node.isProtected) {
+            this.protectedEntries--;
+            this.protectedWeight -= node.weight;
+        }
+    }
+
+    /**
+     * The new node takes the position (and segment) of the old node.
+     */
+    private void replace(final Node<V> oldNode, final Node<V> newNode) {
+        notifyRemoval(oldNode.key, oldNode.value);
+        newNode.isProtected = oldNode.isProtected;
+        newNode.prev = oldNode.prev;
+        newNode.next = oldNode.next;
+        oldNode.prev.next = newNode;
+        oldNode.next.prev = newNode;
+        oldNode.prev = oldNode;
+        oldNode.next = oldNode;
+        this.weight += newNode.weight - oldNode.weight;
+        if (newNode.isProtected) {
+            this.protectedWeight += newNode.weight - oldNode.weight;
+        }
+    }
+
+    /**
+     * The result of one load, which is shared by all threads with a miss of the same key. Completed exactly once by the loading thread with
+     * {@link #complete(Object)} or {@link #fail(Throwable)}.
+     */
+    private static final class LoadingFuture<V> {
+
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        // guarded by the lock of the cache: true if the key was removed or put while loading.
+        private boolean invalidated;
+
+        // written before the latch is released.
+        private volatile V value;
+        private volatile Throwable failure;
+
+        void complete(final V loadedValue) {
+            this.value = loadedValue;
+            this.done.countDown();
+        }
+
+        void fail(final Throwable cause) {
+            this.failure = cause;
+            this.done.countDown();
+        }
+
+        /**
+         * Wait (uninterruptibly) for the result of the loading thread.
+         *
+         * @return the loaded value.
+         */
+        V await() {
+            boolean interrupted = false;
+            try {
+                while (true) {
+                    try {
+                        this.done.await();
+                        break;
+                    } catch (final InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            final Throwable cause = this.failure;
+            if (cause == null) {
+                return this.value;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * One cache entry. The value of a node never changes: a new value is a new node. Also used as sentinel of the segment lists.
+     */
+    private static final class Node<V> {
+
+        private final String key;
+        private final V value;
+        private final long weight;
+        private final long writeTime;
+        // true for preloaded values, which must be refreshed with the first read.
+        private final boolean revalidate;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        // set by the lock-free hit path, cleared by the eviction.
+        private volatile boolean referenced;
+        // guarded by the lock of the cache.
+        private boolean isProtected;
+        private Node<V> prev = this;
+        private Node<V> next = this;
+
+        Node(final String key, final V value, final long weight, final long writeTime, final boolean revalidate) {
+            super();
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.writeTime = writeTime;
+            this.revalidate = revalidate;
+        }
+
+        void linkBefore(final Node<V> sentinel) {
+            this.next = sentinel;
+            this.prev = sentinel.prev;
+            sentinel.prev.next = this;
+            sentinel.prev = this;
+        }
+
+        void unlinkFromList() {
+            this.prev.next = this.next;
+            this.next.prev = this.prev;
+            this.prev = this;
+            this.next = this;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j.cache;
+
+/**
+ * Calculates the weight of a cached value for the maximum weight of a {@link ValueCache}.
+ *
+ * @param <V> the type of the values.
+ * @author Harald.Brabenetz
+ */
+public interface Weigher<V> {
+
+    /**
+     * @param key the key of the value.
+     * @param value the value (can be null for cached "not found" results).
+     * @return the weight (e.g. the number of bytes). Must not be negative.
+     */
+    long weigh(String key, V value);
+}
@@ -0,0 +1,78 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j.cache;
+
+/**
+ * The default {@link Weigher}s of settings4j. The weights are approximate numbers of bytes of the values.
+ *
+ * @author Harald.Brabenetz
+ */
+public final class Weighers {
+
+    /** byte[]-Values weigh their length. */
+    public static final Weigher<byte[]> BYTE_ARRAY = new Weigher<byte[]>() {
+
+        @Override
+        public long weigh(final String key, final byte[] value) {
+            if (value == null) {
+                return 0L;
+            }
+            return value.length;
+        }
+    };
+
+    /** byte[]-Values weigh their length. {@link OffHeapContent}s weigh nothing on the heap (they are bounded by the {@link OffHeapStore}). */
+    public static final Weigher<Object> CONTENT = new Weigher<Object>() {
+
+        @Override
+        public long weigh(final String key, final Object value) {
+            if (value instanceof byte[]) {
+                return ((byte[]) value).length;
+            }
+            return 0L;
+        }
+    };
+
+    /** String-Values weigh two bytes per char. */
+    public static final Weigher<String> STRING = new Weigher<String>() {
+
+        @Override
+        public long weigh(final String key, final String value) {
+            if (value == null) {
+                return 0L;
+            }
+            return 2L * value.length();
+        }
+    };
+
+    /** The size of other Objects is unknown. Such caches can only be bounded by the number of entries. */
+    public static final Weigher<Object> ZERO = new Weigher<Object>() {
+
+        @Override
+        public long weigh(final String key, final Object value) {
+            return 0L;
+        }
+    };
+
+    /** Hide Constructor (Utility-Pattern). */
+    private Weighers() {
+        super();
+    }
+}
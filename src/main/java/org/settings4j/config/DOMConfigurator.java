@@ -43,13 +43,18 @@ import org.settings4j.Filter;
 import org.settings4j.ObjectResolver;
 import org.settings4j.Settings4jInstance;
 import org.settings4j.Settings4jRepository;
+import org.settings4j.cache.ContentStore;
 import org.settings4j.connector.CachedConnectorWrapper;
+import org.settings4j.connector.ClasspathConnector;
+import org.settings4j.connector.FSConnector;
 import org.settings4j.connector.FilteredConnectorWrapper;
+import org.settings4j.connector.MetricsConnectorWrapper;
 import org.settings4j.contentresolver.ClasspathContentResolver;
 import org.settings4j.contentresolver.FilteredContentResolverWrapper;
 import org.settings4j.objectresolver.AbstractObjectResolver;
 import org.settings4j.objectresolver.FilteredObjectResolverWrapper;
 import org.settings4j.settings.DefaultFilter;
+import org.settings4j.settings.DefaultSettings;
 import org.settings4j.util.ELConnectorWrapper;
 import org.settings4j.util.ExpressionLanguageUtil;
 import org.w3c.dom.Document;
@@ -108,6 +113,32 @@ public class DOMConfigurator {
 
     private static final String CACHED_ATTR = "cached";
 
+    private static final String CACHE_MAX_ENTRIES_ATTR = "cache-max-entries";
+
+    private static final String CACHE_MAX_WEIGHT_ATTR = "cache-max-weight";
+
+    private static final String CACHE_EXPIRE_AFTER_WRITE_ATTR = "cache-expire-after-write";
+
+    private static final String CACHE_NEGATIVE_EXPIRE_AFTER_WRITE_ATTR = "cache-negative-expire-after-write";
+
+    private static final String CACHE_REFRESH_AFTER_WRITE_ATTR = "cache-refresh-after-write";
+
+    private static final String CACHE_OFF_HEAP_CAPACITY_ATTR = "cache-off-heap-capacity";
+
+    private static final String CACHE_OFF_HEAP_THRESHOLD_ATTR = "cache-off-heap-threshold";
+
+    private static final String CACHE_SNAPSHOT_FILE_ATTR = "cache-snapshot-file";
+
+    private static final String CACHE_SNAPSHOT_INTERVAL_ATTR = "cache-snapshot-interval";
+
+    private static final String METRICS_ATTR = "metrics";
+
+    private static final String RESOLUTION_PLAN_ATTR = "resolution-plan";
+
+    private static final String PARALLEL_PROBING_ATTR = "parallel-probing";
+
+    private static final String TIMEOUT_ATTR = "timeout";
+
     private static final String VALUE_ATTR = "value";
 
     private static final String REF_ATTR = "ref";
@@ -125,6 +156,9 @@ public class DOMConfigurator {
 
     private final Map<String, Object> expressionAttributes = new HashMap<String, Object>();
 
+    /** Deduplicates the contents of all connectors of this configuration. */
+    private final ContentStore contentStore = new ContentStore();
+
     /**
      * Configure the given Settings4jRepository with an XMl-configuration (see settings4j.dtd).
      *
@@ -255,6 +289,28 @@ public class DOMConfigurator {
         // settings configuration needs to be atomic
         synchronized (root) {
             parseChildrenOfSettingsElement(element, root);
+
+            final Boolean isCached = (Boolean) subst(element.getAttribute(CACHED_ATTR), null, Boolean.class);
+            final Boolean isResolutionPlan = (Boolean) subst(element.getAttribute(RESOLUTION_PLAN_ATTR), null, Boolean.class);
+            final Boolean isParallelProbing = (Boolean) subst(element.getAttribute(PARALLEL_PROBING_ATTR), null, Boolean.class);
+            if (root instanceof DefaultSettings) {
+                ((DefaultSettings) root).setCached(BooleanUtils.isTrue(isCached));
+                ((DefaultSettings) root).setResolutionPlanEnabled(BooleanUtils.isTrue(isResolutionPlan));
+                ((DefaultSettings) root).setParallelProbing(BooleanUtils.isTrue(isParallelProbing));
+            } else if (BooleanUtils.isTrue(isCached) || BooleanUtils.isTrue(isResolutionPlan) || BooleanUtils.isTrue(isParallelProbing)) {
+                LOG.warn("Only DefaultSettings can use the attributes cached=\"true\", resolution-plan=\"true\" and parallel-probing=\"true\" ");
+            }
+        }
+    }
+
+    private void parseConnectorTimeout(final Element connectorElement, final Connector connector, final Settings4jInstance settings) {
+        final Long timeout = (Long) subst(connectorElement.getAttribute(TIMEOUT_ATTR), null, Long.class);
+        if (timeout != null) {
+            if (settings instanceof DefaultSettings) {
+                ((DefaultSettings) settings).setConnectorTimeout(connector.getName(), timeout.longValue());
+            } else {
+                LOG.warn("Only DefaultSettings can use the attribute timeout=\"{}\" of the connector '{}'", timeout, connector.getName());
+            }
         }
     }
 
@@ -337,6 +393,11 @@ public class DOMConfigurator {
         }
 
         connector.setName(connectorName);
+        if (connector instanceof FSConnector) {
+            ((FSConnector) connector).setContentStore(this.contentStore);
+        } else if (connector instanceof ClasspathConnector) {
+            ((ClasspathConnector) connector).setContentStore(this.contentStore);
+        }
 
         final Connector[] subConnectors = getConnectors(connectorElement);
         for (final Connector subConnector : subConnectors) {
@@ -384,19 +445,68 @@ public class DOMConfigurator {
 
             final Boolean cached = (Boolean) subst(connectorElement.getAttribute(CACHED_ATTR), subConnectors, Boolean.class);
             if (cached != null && cached.booleanValue()) {
-                connector = new CachedConnectorWrapper(connector);
+                connector = parseCachedConnectorWrapper(connectorElement, connector, subConnectors);
             }
 
             if (filter != null) {
                 connector = new FilteredConnectorWrapper(connector, filter);
             }
 
+            final Boolean metrics = (Boolean) subst(connectorElement.getAttribute(METRICS_ATTR), subConnectors, Boolean.class);
+            if (metrics != null && metrics.booleanValue()) {
+                connector = new MetricsConnectorWrapper(connector);
+            }
+
             // initial the connector
             connector.init();
         }
         return connector;
     }
 
+    private CachedConnectorWrapper parseCachedConnectorWrapper(final Element connectorElement, final Connector connector,
+        final Connector[] subConnectors) {
+        final CachedConnectorWrapper cachedConnector = new CachedConnectorWrapper(connector);
+        cachedConnector.setContentStore(this.contentStore);
+        final Long maxEntries = (Long) subst(connectorElement.getAttribute(CACHE_MAX_ENTRIES_ATTR), subConnectors, Long.class);
+        if (maxEntries != null) {
+            cachedConnector.setMaxEntries(maxEntries.longValue());
+        }
+        final Long maxWeight = (Long) subst(connectorElement.getAttribute(CACHE_MAX_WEIGHT_ATTR), subConnectors, Long.class);
+        if (maxWeight != null) {
+            cachedConnector.setMaxWeight(maxWeight.longValue());
+        }
+        final Long expireAfterWrite = (Long) subst(connectorElement.getAttribute(CACHE_EXPIRE_AFTER_WRITE_ATTR), subConnectors, Long.class);
+        if (expireAfterWrite != null) {
+            cachedConnector.setExpireAfterWrite(expireAfterWrite.longValue());
+        }
+        final Long negativeExpireAfterWrite = (Long) subst(connectorElement.getAttribute(CACHE_NEGATIVE_EXPIRE_AFTER_WRITE_ATTR), subConnectors,
+            Long.class);
+        if (negativeExpireAfterWrite != null) {
+            cachedConnector.setNegativeExpireAfterWrite(negativeExpireAfterWrite.longValue());
+        }
+        final Long refreshAfterWrite = (Long) subst(connectorElement.getAttribute(CACHE_REFRESH_AFTER_WRITE_ATTR), subConnectors, Long.class);
+        if (refreshAfterWrite != null) {
+            cachedConnector.setRefreshAfterWrite(refreshAfterWrite.longValue());
+        }
+        final Long offHeapCapacity = (Long) subst(connectorElement.getAttribute(CACHE_OFF_HEAP_CAPACITY_ATTR), subConnectors, Long.class);
+        if (offHeapCapacity != null) {
+            cachedConnector.setOffHeapCapacity(offHeapCapacity.longValue());
+        }
+        final Long offHeapThreshold = (Long) subst(connectorElement.getAttribute(CACHE_OFF_HEAP_THRESHOLD_ATTR), subConnectors, Long.class);
+        if (offHeapThreshold != null) {
+            cachedConnector.setOffHeapThreshold((int) Math.min(Integer.MAX_VALUE, offHeapThreshold.longValue()));
+        }
+        final String snapshotFile = subst(connectorElement.getAttribute(CACHE_SNAPSHOT_FILE_ATTR), subConnectors);
+        if (StringUtils.isNotEmpty(snapshotFile)) {
+            cachedConnector.setSnapshotFile(snapshotFile);
+        }
+        final Long snapshotInterval = (Long) subst(connectorElement.getAttribute(CACHE_SNAPSHOT_INTERVAL_ATTR), subConnectors, Long.class);
+        if (snapshotInterval != null) {
+            cachedConnector.setSnapshotInterval(snapshotInterval.longValue());
+        }
+        return cachedConnector;
+    }
+
     /**
      * Only logs out unrecognized Elements.
      *
@@ -479,6 +589,7 @@ public class DOMConfigurator {
             if (connector != null) {
                 this.connectorBag.put(connector.getName(), connector);
                 settings.addConnector(connector);
+                parseConnectorTimeout(currentElement, connector, settings);
             }
         }
 
@@ -929,8 +1040,12 @@ public class DOMConfigurator {
         // else
         if (clazz.equals(String.class)) {
             return value.trim();
-        } else if (clazz.equals(Boolean.class)) {
+        } else if (clazz.equals(Boolean.class) || clazz.equals(Boolean.TYPE)) {
             return BooleanUtils.toBooleanObject(value.trim());
+        } else if (clazz.equals(Long.class) || clazz.equals(Long.TYPE)) {
+            return Long.valueOf(value.trim());
+        } else if (clazz.equals(Integer.class) || clazz.equals(Integer.TYPE)) {
+            return Integer.valueOf(value.trim());
         } else {
             throw new UnsupportedOperationException("The following Type is not supported now: " + clazz + "; found value: " + value);
         }
@@ -19,6 +19,7 @@
  */
 package org.settings4j.connector;
 
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -26,6 +27,8 @@ import java.util.List;
 import org.settings4j.Connector;
 import org.settings4j.ContentResolver;
 import org.settings4j.ObjectResolver;
+import org.settings4j.StreamingConnector;
+import org.settings4j.util.ContentStreamUtil;
 
 /**
  * Basic Connector implementations like getter and Setter of contentResolver, objectResolver.
@@ -33,7 +36,7 @@ import org.settings4j.ObjectResolver;
  * @author Harald.Brabenetz
  *
  */
-public abstract class AbstractConnector implements Connector {
+public abstract class AbstractConnector implements StreamingConnector {
 
     private String name;
     private ContentResolver contentResolver;
@@ -77,6 +80,14 @@ public abstract class AbstractConnector implements Connector {
         this.name = name;
     }
 
+    /**
+     * Streams the byte[] of {@link #getContent(String)} by default. Overwrite this methode if the content can be read without a byte[].
+     */
+    @Override
+    public InputStream openContent(final String key) {
+        return ContentStreamUtil.toInputStream(getContent(key));
+    }
+
     @Override
     public void init() {
         // Overwrite this methode if you want do something after all properties are set.
@@ -19,15 +19,28 @@
  */
 package org.settings4j.connector;
 
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.settings4j.BulkConnector;
+import org.settings4j.util.ContentStreamUtil;
+
 /**
  * Basic Implementation of {@link org.settings4j.Connector}s which are Property-String-related.
  * <p>
  * Only #getString(String) must be implemented. Example implementations are {@link PropertyFileConnector} or {@link SystemPropertyConnector}.
  * </p>
+ * <p>
+ * The {@link BulkConnector} methods resolve every key with the single-key methods ({@link #getString(String)}, {@link #getContent(String)} and
+ * {@link #getObject(String)}), so overwritten single-key methods are also used by the bulk lookups. Implementations which can read many keys at
+ * once should overwrite the bulk methods.
+ * </p>
  *
  * @author Harald.Brabenetz
  */
-public abstract class AbstractPropertyConnector extends AbstractConnector {
+public abstract class AbstractPropertyConnector extends AbstractConnector implements BulkConnector {
 
     @Override
     // SuppressWarnings PMD.ReturnEmptyArrayRatherThanNull: returning null for this byte-Arrays is OK.
@@ -42,6 +55,16 @@ public abstract class AbstractPropertyConnector extends AbstractConnector {
 
     }
 
+    @Override
+    public InputStream openContent(final String key) {
+        final String path = getString(key);
+        if (path != null && getContentResolver() != null) {
+            return ContentStreamUtil.openContent(getContentResolver(), path);
+        }
+        // else
+        return null;
+    }
+
     @Override
     public Object getObject(final String key) {
         final String path = getString(key);
@@ -52,4 +75,40 @@ public abstract class AbstractPropertyConnector extends AbstractConnector {
         return null;
 
     }
+
+    @Override
+    public Map<String, String> getStrings(final Collection<String> keys) {
+        final Map<String, String> result = new LinkedHashMap<String, String>();
+        for (final String key : keys) {
+            final String value = getString(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, byte[]> getContents(final Collection<String> keys) {
+        final Map<String, byte[]> result = new LinkedHashMap<String, byte[]>();
+        for (final String key : keys) {
+            final byte[] value = getContent(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Object> getObjects(final Collection<String> keys) {
+        final Map<String, Object> result = new LinkedHashMap<String, Object>();
+        for (final String key : keys) {
+            final Object value = getObject(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
 }
@@ -19,31 +19,177 @@
  */
 package org.settings4j.connector;
 
-import java.util.Collections;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
 
 import org.apache.commons.lang3.Validate;
+import org.settings4j.BufferedConnector;
+import org.settings4j.BulkConnector;
+import org.settings4j.ChangeListener;
+import org.settings4j.ChangeNotifier;
 import org.settings4j.Connector;
 import org.settings4j.ContentResolver;
+import org.settings4j.DisposableConnector;
+import org.settings4j.Filter;
 import org.settings4j.ObjectResolver;
+import org.settings4j.StreamingConnector;
+import org.settings4j.cache.CacheLoader;
+import org.settings4j.cache.CacheSnapshot;
+import org.settings4j.cache.CacheStats;
+import org.settings4j.cache.ContentStore;
+import org.settings4j.cache.OffHeapStore;
+import org.settings4j.cache.ValueCache;
+import org.settings4j.cache.Weighers;
+import org.settings4j.metrics.ConnectorMetrics;
+import org.settings4j.metrics.MBeanRegistrations;
+import org.settings4j.util.BulkConnectorUtil;
+import org.settings4j.util.ContentStreamUtil;
+import org.settings4j.util.DaemonThreadFactory;
 
 /**
  * Wrap a Connector and caches all Values.
  * <p>
  * This wrapper will be used if you add in your settings4j.xml the cached="true" Attribute to the Connector TAG.
  * </p>
+ * <p>
+ * The String-, byte[]- and Object-Values are cached in three separate {@link ValueCache}s. Each of them can be bounded by the number of entries
+ * (cache-max-entries="..." Attribute) and by the weight of the values (cache-max-weight="..." Attribute; byte[] weigh their length, Strings two
+ * bytes per char and Objects nothing). By default the caches are unbounded.
+ * </p>
+ * <p>
+ * Optionally the cached values expire (cache-expire-after-write="..." Attribute, and cache-negative-expire-after-write="..." for "not found"
+ * results) or will be reloaded in the background (cache-refresh-after-write="..." Attribute) while the callers still get the old value. All times
+ * are milliseconds. By default the values never expire.
+ * </p>
+ * <p>
+ * Concurrent misses of the same key call the target connector only once. The other threads wait for the result.
+ * </p>
+ * <p>
+ * Equal byte[]-Values of all cached connectors of one configuration (e.g. the same file read by several connectors) are stored only once (see
+ * {@link ContentStore} and {@link #setContentStore(ContentStore)}). {@link #getContent(String)} returns a copy, so callers never get the shared
+ * array.
+ * </p>
+ * <p>
+ * Large byte[]-Values (e.g. XML bean definitions, certificates or templates) can be stored off-heap in direct buffers, so they don't fill the
+ * old generation (cache-off-heap-capacity="..." and cache-off-heap-threshold="..." Attributes, see {@link OffHeapStore}). They will be copied
+ * into a byte[] with every {@link #getContent(String)}, but {@link #getContentBuffer(String)} returns a read-only view without a copy.
+ * </p>
+ * <p>
+ * With the cache-snapshot-file="..." Attribute the String- and byte[]-Values will be written into a local file (see {@link CacheSnapshot}) on
+ * shutdown and optionally every cache-snapshot-interval="..." milliseconds. With {@link #init()} the values of this file will be preloaded, so
+ * the cache is warm after a restart. Preloaded values are served immediately and refreshed in the background with the first read. The snapshot is
+ * only written for connectors with this Attribute. <b>Warning:</b> the file contains all cached values in plaintext (also passwords); it is
+ * restricted to the owner, but should only be configured for connectors whose values may be stored on the local disk.
+ * </p>
+ * <p>
+ * If the wrapped connector is a {@link ChangeNotifier} (e.g. a {@link FSConnector} with a watchInterval), changed keys will be cleared from the
+ * caches automatically.
+ * </p>
+ * <p>
+ * The statistics of each cache (hits, misses, loads, load time, evictions, size and weight, see {@link CacheStats}) are available with
+ * {@link #getStringCacheStats()} etc. and will be published with {@link #init()} as JMX MBeans with the ObjectName
+ * <code>org.settings4j:type=CacheStats,connector=&lt;connectorName&gt;,instance=&lt;id&gt;,cache=String|Content|Object</code>. The instance id
+ * (a counter) makes the names unique, so cached connectors with the same name (e.g. in different webapps of one JVM) never replace each other's
+ * MBeans, and only the MBeans published by this instance will be unregistered.
+ * </p>
+ * <p>
+ * {@link #destroy()} (called by {@link org.settings4j.settings.DefaultSettings#removeAllConnectors()}, e.g. on reconfiguration) unregisters the
+ * MBeans, writes the snapshot a last time, stops the snapshot writer and clears the caches.
+ * </p>
  *
  * @author Harald.Brabenetz
  */
-public class CachedConnectorWrapper implements Connector {
+public class CachedConnectorWrapper implements BulkConnector, StreamingConnector, BufferedConnector, ChangeNotifier, DisposableConnector {
+
+    /** General Logger for this Class. */
+    private static final org.slf4j.Logger LOG = org.slf4j.LoggerFactory.getLogger(CachedConnectorWrapper.class);
+
+    /** The active snapshot writers by the absolute path of the snapshot file. A new configuration replaces the writer of the same file. */
+    private static final ConcurrentMap<String, SnapshotWriter> SNAPSHOT_WRITERS = new ConcurrentHashMap<String, SnapshotWriter>();
+
+    private static final ScheduledExecutorService SNAPSHOT_SCHEDULER = new ScheduledThreadPoolExecutor(1, new DaemonThreadFactory(
+        "settings4j-cache-snapshot-"));
+
+    private static final AtomicLong INSTANCE_COUNTER = new AtomicLong();
 
     private final Connector targetConnector;
 
-    private final Map<String, String> cachedStrings = Collections.synchronizedMap(new HashMap<String, String>());
-    private final Map<String, byte[]> cachedContents = Collections.synchronizedMap(new HashMap<String, byte[]>());
-    private final Map<String, Object> cachedObjects = Collections.synchronizedMap(new HashMap<String, Object>());
+    private final ValueCache<String> cachedStrings = new ValueCache<String>(Weighers.STRING);
+    // byte[] or OffHeapContent values (see OffHeapStore).
+    private final ValueCache<Object> cachedContents = new ValueCache<Object>(Weighers.CONTENT);
+    private final ValueCache<Object> cachedObjects = new ValueCache<Object>(Weighers.ZERO);
+
+    private final OffHeapStore offHeapStore = new OffHeapStore();
+
+    private ContentStore contentStore = new ContentStore();
+
+    private final String instanceId = String.valueOf(INSTANCE_COUNTER.incrementAndGet());
+    private final MBeanRegistrations registrations = new MBeanRegistrations();
 
+    private String snapshotFile;
+    private long snapshotInterval;
+    private SnapshotWriter snapshotWriter;
+
+    private final CacheLoader<String> stringLoader = new CacheLoader<String>() {
+
+        @Override
+        public String load(final String key) {
+            return CachedConnectorWrapper.this.targetConnector.getString(key);
+        }
+
+        @Override
+        public Map<String, String> loadAll(final Collection<String> keys) {
+            return BulkConnectorUtil.getStrings(CachedConnectorWrapper.this.targetConnector, keys);
+        }
+    };
+
+    private final CacheLoader<Object> contentLoader = new CacheLoader<Object>() {
+
+        @Override
+        public Object load(final String key) {
+            return storeContent(CachedConnectorWrapper.this.targetConnector.getContent(key));
+        }
+
+        @Override
+        public Map<String, Object> loadAll(final Collection<String> keys) {
+            final Map<String, byte[]> contents = BulkConnectorUtil.getContents(CachedConnectorWrapper.this.targetConnector, keys);
+            final Map<String, Object> result = new HashMap<String, Object>();
+            for (final Map.Entry<String, byte[]> entry : contents.entrySet()) {
+                result.put(entry.getKey(), storeContent(entry.getValue()));
+            }
+            return result;
+        }
+    };
+
+    private final CacheLoader<Object> objectLoader = new CacheLoader<Object>() {
+
+        @Override
+        public Object load(final String key) {
+            return CachedConnectorWrapper.this.targetConnector.getObject(key);
+        }
+
+        @Override
+        public Map<String, Object> loadAll(final Collection<String> keys) {
+            return BulkConnectorUtil.getObjects(CachedConnectorWrapper.this.targetConnector, keys);
+        }
+    };
 
     /**
      * @param targetConnector The connector to wrap.
@@ -52,41 +198,98 @@ public class CachedConnectorWrapper implements Connector {
         super();
         Validate.notNull(targetConnector, "CachedConnectorWrapper needs a Connector Object");
         this.targetConnector = targetConnector;
+        this.cachedContents.setRemovalListener(this.offHeapStore);
+        if (targetConnector instanceof ChangeNotifier) {
+            // registered first, so the listeners of the layers above will read the new value.
+            ((ChangeNotifier) targetConnector).addChangeListener(new ChangeListener() {
+
+                @Override
+                public void valueChanged(final String key) {
+                    clearCachedValue(key);
+                }
+            });
+        }
     }
 
     @Override
     public byte[] getContent(final String key) {
-        if (this.cachedContents.containsKey(key)) {
-            return this.cachedContents.get(key);
-        }
+        return copyContent(this.cachedContents.get(key, this.contentLoader));
+    }
 
-        final byte[] result = this.targetConnector.getContent(key);
-        this.cachedContents.put(key, result);
-        return result;
+    /**
+     * Return the content as read-only {@link ByteBuffer}. Other than {@link #getContent(String)}, off-heap contents are not copied.
+     *
+     * @param key the Key for the content.
+     * @return the content or null if not found.
+     */
+    @Override
+    public ByteBuffer getContentBuffer(final String key) {
+        return OffHeapStore.toByteBuffer(this.cachedContents.get(key, this.contentLoader));
+    }
+
+    /**
+     * Streams the cached content (see {@link #getContentBuffer(String)}). The content will be loaded into the cache if it is not cached yet.
+     */
+    @Override
+    public InputStream openContent(final String key) {
+        return ContentStreamUtil.toInputStream(getContentBuffer(key));
     }
 
     @Override
     public Object getObject(final String key) {
-        if (this.cachedObjects.containsKey(key)) {
-            return this.cachedObjects.get(key);
-        }
-
-        final Object result = this.targetConnector.getObject(key);
-        this.cachedObjects.put(key, result);
-        return result;
+        return this.cachedObjects.get(key, this.objectLoader);
     }
 
     @Override
     public String getString(final String key) {
-        if (this.cachedStrings.containsKey(key)) {
-            return this.cachedStrings.get(key);
+        return this.cachedStrings.get(key, this.stringLoader);
+    }
+
+    @Override
+    public Map<String, byte[]> getContents(final Collection<String> keys) {
+        final Map<String, Object> contents = this.cachedContents.getAll(keys, this.contentLoader);
+        final Map<String, byte[]> result = new LinkedHashMap<String, byte[]>();
+        for (final Map.Entry<String, Object> entry : contents.entrySet()) {
+            result.put(entry.getKey(), copyContent(entry.getValue()));
         }
+        return result;
+    }
 
-        final String result = this.targetConnector.getString(key);
-        this.cachedStrings.put(key, result);
+    /**
+     * @return the value for the content cache: deduplicated (see {@link ContentStore}) or off-heap (see {@link OffHeapStore}).
+     */
+    private Object storeContent(final byte[] content) {
+        return this.offHeapStore.store(this.contentStore.intern(content));
+    }
+
+    /**
+     * @return a new byte[] of the cached value, so the caller can't modify the deduplicated array of the cache.
+     */
+    private static byte[] copyContent(final Object value) {
+        if (value instanceof byte[]) {
+            return ((byte[]) value).clone();
+        }
+        return OffHeapStore.toByteArray(value);
+    }
+
+    private static Map<String, byte[]> toByteArrays(final Map<String, Object> contents) {
+        final Map<String, byte[]> result = new LinkedHashMap<String, byte[]>();
+        for (final Map.Entry<String, Object> entry : contents.entrySet()) {
+            result.put(entry.getKey(), OffHeapStore.toByteArray(entry.getValue()));
+        }
         return result;
     }
 
+    @Override
+    public Map<String, Object> getObjects(final Collection<String> keys) {
+        return this.cachedObjects.getAll(keys, this.objectLoader);
+    }
+
+    @Override
+    public Map<String, String> getStrings(final Collection<String> keys) {
+        return this.cachedStrings.getAll(keys, this.stringLoader);
+    }
+
     /**
      * @param key the key to clear from all caches.
      */
@@ -96,10 +299,355 @@ public class CachedConnectorWrapper implements Connector {
         this.cachedObjects.remove(key);
     }
 
+    /**
+     * Clear all keys of a subtree (e.g. "com/mycompany/moduleX/") from all caches. This costs only the size of the subtree, not a scan of all
+     * cached keys.
+     *
+     * @param prefix the prefix of the keys to clear.
+     */
+    public void clearCachedPrefix(final String prefix) {
+        this.cachedStrings.removeByPrefix(prefix);
+        this.cachedContents.removeByPrefix(prefix);
+        this.cachedObjects.removeByPrefix(prefix);
+    }
+
+    /**
+     * Clear all keys which are valid for the given filter (see {@link Filter#isValid(String)}) from all caches.
+     *
+     * @param filter the filter of the keys to clear, e.g. a {@link org.settings4j.settings.DefaultFilter} with include patterns.
+     */
+    public void clearCachedMatching(final Filter filter) {
+        this.cachedStrings.removeMatching(filter);
+        this.cachedContents.removeMatching(filter);
+        this.cachedObjects.removeMatching(filter);
+    }
+
+    /**
+     * Set the maximum number of entries of each cache (String-, byte[]- and Object-Values).
+     * <p>
+     * This will be set, if you add the cache-max-entries="..." attribute to the Connector TAG in your settings4j.xml
+     * </p>
+     *
+     * @param maxEntries the maximum number of entries per cache. 0 means unbounded.
+     */
+    public void setMaxEntries(final long maxEntries) {
+        this.cachedStrings.setMaxEntries(maxEntries);
+        this.cachedContents.setMaxEntries(maxEntries);
+        this.cachedObjects.setMaxEntries(maxEntries);
+    }
+
+    /**
+     * @return the maximum number of entries of each cache. 0 means unbounded.
+     */
+    public long getMaxEntries() {
+        return this.cachedStrings.getMaxEntries();
+    }
+
+    /**
+     * Set the maximum weight (approximate bytes) of each cache (String-, byte[]- and Object-Values).
+     * <p>
+     * This will be set, if you add the cache-max-weight="..." attribute to the Connector TAG in your settings4j.xml
+     * </p>
+     *
+     * @param maxWeight the maximum weight per cache. 0 means unbounded.
+     */
+    public void setMaxWeight(final long maxWeight) {
+        this.cachedStrings.setMaxWeight(maxWeight);
+        this.cachedContents.setMaxWeight(maxWeight);
+        this.cachedObjects.setMaxWeight(maxWeight);
+    }
+
+    /**
+     * @return the maximum weight of each cache. 0 means unbounded.
+     */
+    public long getMaxWeight() {
+        return this.cachedStrings.getMaxWeight();
+    }
+
+    /**
+     * Set the time after which a cached value expires.
+     * <p>
+     * This will be set, if you add the cache-expire-after-write="..." attribute to the Connector TAG in your settings4j.xml
+     * </p>
+     *
+     * @param expireAfterWriteMillis the time in milliseconds. 0 means never.
+     */
+    public void setExpireAfterWrite(final long expireAfterWriteMillis) {
+        this.cachedStrings.setExpireAfterWrite(expireAfterWriteMillis);
+        this.cachedContents.setExpireAfterWrite(expireAfterWriteMillis);
+        this.cachedObjects.setExpireAfterWrite(expireAfterWriteMillis);
+    }
+
+    /**
+     * @return the time in milliseconds after which a cached value expires. 0 means never.
+     */
+    public long getExpireAfterWrite() {
+        return this.cachedStrings.getExpireAfterWrite();
+    }
+
+    /**
+     * Set the time after which a cached "not found" result expires. Usually shorter than {@link #setExpireAfterWrite(long)}.
+     * <p>
+     * This will be set, if you add the cache-negative-expire-after-write="..." attribute to the Connector TAG in your settings4j.xml
+     * </p>
+     *
+     * @param negativeExpireAfterWriteMillis the time in milliseconds. 0 means the same as {@link #setExpireAfterWrite(long)}.
+     */
+    public void setNegativeExpireAfterWrite(final long negativeExpireAfterWriteMillis) {
+        this.cachedStrings.setNegativeExpireAfterWrite(negativeExpireAfterWriteMillis);
+        this.cachedContents.setNegativeExpireAfterWrite(negativeExpireAfterWriteMillis);
+        this.cachedObjects.setNegativeExpireAfterWrite(negativeExpireAfterWriteMillis);
+    }
+
+    /**
+     * @return the time in milliseconds after which a cached "not found" result expires.
+     */
+    public long getNegativeExpireAfterWrite() {
+        return this.cachedStrings.getNegativeExpireAfterWrite();
+    }
+
+    /**
+     * Set the time after which a cached value will be reloaded in the background with the next read.
+     * <p>
+     * This will be set, if you add the cache-refresh-after-write="..." attribute to the Connector TAG in your settings4j.xml
+     * </p>
+     *
+     * @param refreshAfterWriteMillis the time in milliseconds. 0 means never.
+     */
+    public void setRefreshAfterWrite(final long refreshAfterWriteMillis) {
+        this.cachedStrings.setRefreshAfterWrite(refreshAfterWriteMillis);
+        this.cachedContents.setRefreshAfterWrite(refreshAfterWriteMillis);
+        this.cachedObjects.setRefreshAfterWrite(refreshAfterWriteMillis);
+    }
+
+    /**
+     * @return the time in milliseconds after which a cached value will be reloaded in the background. 0 means never.
+     */
+    public long getRefreshAfterWrite() {
+        return this.cachedStrings.getRefreshAfterWrite();
+    }
+
+    /**
+     * @param refreshExecutor the executor for the background refreshes (see {@link ValueCache#setRefreshExecutor(Executor)}).
+     */
+    public void setRefreshExecutor(final Executor refreshExecutor) {
+        this.cachedStrings.setRefreshExecutor(refreshExecutor);
+        this.cachedContents.setRefreshExecutor(refreshExecutor);
+        this.cachedObjects.setRefreshExecutor(refreshExecutor);
+    }
+
+    /**
+     * Set the store which deduplicates the byte[]-Values. The {@link org.settings4j.config.DOMConfigurator} shares one store between all
+     * connectors of one configuration. By default each cached connector has its own store.
+     *
+     * @param contentStore the {@link ContentStore}.
+     */
+    public void setContentStore(final ContentStore contentStore) {
+        this.contentStore = contentStore;
+    }
+
+    /**
+     * Set the minimum size of byte[]-Values which will be stored off-heap (see {@link OffHeapStore}).
+     * <p>
+     * This will be set, if you add the cache-off-heap-threshold="..." attribute to the Connector TAG in your settings4j.xml
+     * </p>
+     *
+     * @param threshold the minimum size in bytes. Default is {@value OffHeapStore#DEFAULT_THRESHOLD}.
+     */
+    public void setOffHeapThreshold(final int threshold) {
+        this.offHeapStore.setThreshold(threshold);
+    }
+
+    /**
+     * Set the maximum sum of the sizes of all off-heap byte[]-Values (see {@link OffHeapStore}).
+     * <p>
+     * This will be set, if you add the cache-off-heap-capacity="..." attribute to the Connector TAG in your settings4j.xml
+     * </p>
+     *
+     * @param capacity the capacity in bytes. 0 (the default) stores all values on the heap.
+     */
+    public void setOffHeapCapacity(final long capacity) {
+        this.offHeapStore.setCapacity(capacity);
+    }
+
+    /**
+     * @return the {@link OffHeapStore} of the byte[]-Values (e.g. for the used capacity).
+     */
+    public OffHeapStore getOffHeapStore() {
+        return this.offHeapStore;
+    }
+
+    /**
+     * Set the file for the persistent cache snapshot.
+     * <p>
+     * This will be set, if you add the cache-snapshot-file="..." attribute to the Connector TAG in your settings4j.xml
+     * </p>
+     * <p>
+     * <b>Warning:</b> all cached String- and byte[]-Values (also secrets like passwords) will be written in plaintext into this file. The file
+     * can be read by its owner only (see {@link CacheSnapshot}).
+     * </p>
+     *
+     * @param snapshotFile the path of the snapshot file. null (the default) means no snapshot.
+     */
+    public void setSnapshotFile(final String snapshotFile) {
+        this.snapshotFile = snapshotFile;
+    }
+
+    public String getSnapshotFile() {
+        return this.snapshotFile;
+    }
+
+    /**
+     * Set the interval in which the snapshot file will be written additionally to the shutdown.
+     * <p>
+     * This will be set, if you add the cache-snapshot-interval="..." attribute to the Connector TAG in your settings4j.xml
+     * </p>
+     *
+     * @param snapshotIntervalMillis the interval in milliseconds. 0 means only on shutdown.
+     */
+    public void setSnapshotInterval(final long snapshotIntervalMillis) {
+        this.snapshotInterval = Math.max(0L, snapshotIntervalMillis);
+    }
+
+    public long getSnapshotInterval() {
+        return this.snapshotInterval;
+    }
+
+    /**
+     * Preload the values of the snapshot file into the caches. The values will be refreshed in the background with the first read. A missing
+     * or corrupt snapshot file will be ignored.
+     */
+    public void loadSnapshot() {
+        if (this.snapshotFile == null) {
+            return;
+        }
+        final File file = new File(this.snapshotFile);
+        if (!file.exists()) {
+            LOG.debug("The cache snapshot {} doesn't exist (yet).", file);
+            return;
+        }
+        try {
+            final CacheSnapshot snapshot = CacheSnapshot.read(file);
+            for (final Map.Entry<String, String> entry : snapshot.getStrings().entrySet()) {
+                this.cachedStrings.preload(entry.getKey(), entry.getValue());
+            }
+            for (final Map.Entry<String, byte[]> entry : snapshot.getContents().entrySet()) {
+                this.cachedContents.preload(entry.getKey(), storeContent(entry.getValue()));
+            }
+            LOG.info("Preloaded {} values of connector '{}' from the cache snapshot {}.", snapshot.getStrings().size() + snapshot.getContents().size(),
+                getName(), file);
+        } catch (final IOException e) {
+            LOG.warn("Cannot read the cache snapshot {}. The cache starts empty: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Write the String- and byte[]-Values into the snapshot file.
+     */
+    public void saveSnapshot() {
+        if (this.snapshotFile == null) {
+            return;
+        }
+        final CacheSnapshot snapshot = new CacheSnapshot(this.cachedStrings.getEntries(""), toByteArrays(this.cachedContents.getEntries("")));
+        try {
+            snapshot.write(new File(this.snapshotFile));
+        } catch (final IOException e) {
+            LOG.warn("Cannot write the cache snapshot " + this.snapshotFile, e);
+        }
+    }
+
+    private void startSnapshotWriter() {
+        if (this.snapshotFile == null) {
+            return;
+        }
+        final SnapshotWriter writer = new SnapshotWriter(this);
+        final SnapshotWriter oldWriter = SNAPSHOT_WRITERS.put(new File(this.snapshotFile).getAbsolutePath(), writer);
+        if (oldWriter != null) {
+            oldWriter.stop();
+        }
+        writer.start(this.snapshotInterval);
+        this.snapshotWriter = writer;
+    }
+
+    private void stopSnapshotWriter() {
+        final SnapshotWriter writer = this.snapshotWriter;
+        if (writer == null) {
+            return;
+        }
+        this.snapshotWriter = null;
+        // the writer may already be replaced by a cached connector of a newer configuration.
+        if (SNAPSHOT_WRITERS.remove(new File(this.snapshotFile).getAbsolutePath(), writer)) {
+            saveSnapshot();
+        }
+        writer.stop();
+    }
+
+    /**
+     * @return the statistics of the cache of the String-Values.
+     */
+    public CacheStats getStringCacheStats() {
+        return this.cachedStrings.getStats();
+    }
+
+    /**
+     * @return the statistics of the cache of the byte[]-Values.
+     */
+    public CacheStats getContentCacheStats() {
+        return this.cachedContents.getStats();
+    }
+
+    /**
+     * @return the statistics of the cache of the Object-Values.
+     */
+    public CacheStats getObjectCacheStats() {
+        return this.cachedObjects.getStats();
+    }
+
+    /**
+     * @param cacheType String, Content or Object.
+     * @return the ObjectName of the statistics MBean for the given cache.
+     * @throws JMException if the connector name is not valid.
+     */
+    public ObjectName createObjectName(final String cacheType) throws JMException {
+        return new ObjectName(ConnectorMetrics.JMX_DOMAIN + ":type=CacheStats,connector=" + ObjectName.quote(getName()) + ",instance=" + this.instanceId
+            + ",cache=" + cacheType);
+    }
+
+    private void registerMBeans() {
+        if (getName() == null || !this.registrations.isEmpty()) {
+            return;
+        }
+        registerMBean("String", getStringCacheStats());
+        registerMBean("Content", getContentCacheStats());
+        registerMBean("Object", getObjectCacheStats());
+    }
+
+    private void registerMBean(final String cacheType, final CacheStats stats) {
+        try {
+            this.registrations.register(stats, createObjectName(cacheType));
+        } catch (final JMException e) {
+            LOG.warn("Cannot register the cache statistics of connector '{}': {}", getName(), e.getMessage());
+        }
+    }
+
+    /**
+     * Remove the statistics MBeans which were published by {@link #init()} from the platform MBeanServer.
+     */
+    public void unregisterMBeans() {
+        this.registrations.unregisterAll();
+    }
+
     /*
      * Delegating Methodes:
      */
 
+    @Override
+    public void addChangeListener(final ChangeListener listener) {
+        if (this.targetConnector instanceof ChangeNotifier) {
+            ((ChangeNotifier) this.targetConnector).addChangeListener(listener);
+        }
+    }
+
     @Override
     public void addConnector(final Connector connector) {
         this.targetConnector.addConnector(connector);
@@ -118,6 +666,25 @@ public class CachedConnectorWrapper implements Connector {
     @Override
     public void init() {
         this.targetConnector.init();
+        registerMBeans();
+        loadSnapshot();
+        startSnapshotWriter();
+    }
+
+    /**
+     * Unregister the MBeans, stop the snapshot writer, clear the caches and destroy the wrapped connector (if it is a
+     * {@link DisposableConnector}).
+     */
+    @Override
+    public void destroy() {
+        unregisterMBeans();
+        stopSnapshotWriter();
+        this.cachedStrings.clear();
+        this.cachedContents.clear();
+        this.cachedObjects.clear();
+        if (this.targetConnector instanceof DisposableConnector) {
+            ((DisposableConnector) this.targetConnector).destroy();
+        }
     }
 
     @Override
@@ -128,6 +695,49 @@ public class CachedConnectorWrapper implements Connector {
     @Override
     public void setName(final String name) {
         this.targetConnector.setName(name);
+        // move already published MBeans to the new name.
+        if (!this.registrations.isEmpty()) {
+            unregisterMBeans();
+            registerMBeans();
+        }
     }
 
+    /**
+     * Writes the snapshot of one {@link CachedConnectorWrapper} on shutdown and periodically.
+     */
+    private static final class SnapshotWriter implements Runnable {
+
+        private final CachedConnectorWrapper cachedConnector;
+        private final Thread shutdownHook;
+        private volatile ScheduledFuture<?> periodicTask;
+
+        SnapshotWriter(final CachedConnectorWrapper cachedConnector) {
+            super();
+            this.cachedConnector = cachedConnector;
+            this.shutdownHook = new Thread(this, "settings4j-cache-snapshot-shutdown");
+        }
+
+        void start(final long intervalMillis) {
+            Runtime.getRuntime().addShutdownHook(this.shutdownHook);
+            if (intervalMillis > 0) {
+                this.periodicTask = SNAPSHOT_SCHEDULER.scheduleWithFixedDelay(this, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        void stop() {
+            if (this.periodicTask != null) {
+                this.periodicTask.cancel(false);
+            }
+            try {
+                Runtime.getRuntime().removeShutdownHook(this.shutdownHook);
+            } catch (final IllegalStateException e) {
+                LOG.debug("The JVM is already shutting down: {}", e.getMessage());
+            }
+        }
+
+        @Override
+        public void run() {
+            this.cachedConnector.saveSnapshot();
+        }
+    }
 }
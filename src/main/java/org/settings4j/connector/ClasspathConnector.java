@@ -19,10 +19,12 @@
  */
 package org.settings4j.connector;
 
+import java.io.InputStream;
 import java.nio.charset.Charset;
 
 import org.apache.commons.io.Charsets;
 import org.settings4j.ContentResolver;
+import org.settings4j.cache.ContentStore;
 import org.settings4j.contentresolver.ClasspathContentResolver;
 import org.settings4j.contentresolver.UnionContentResolver;
 
@@ -39,6 +41,7 @@ public class ClasspathConnector extends AbstractConnector {
     private final ClasspathContentResolver classpathContentResolver;
     private UnionContentResolver unionContentResolver;
     private Charset charset = Charsets.UTF_8;
+    private ContentStore contentStore = new ContentStore();
 
     /** Default Constructor (e.g. use in settings4j.xml). */
     public ClasspathConnector() {
@@ -62,6 +65,11 @@ public class ClasspathConnector extends AbstractConnector {
         return this.classpathContentResolver.getContent(key);
     }
 
+    @Override
+    public InputStream openContent(final String key) {
+        return this.classpathContentResolver.openContent(key);
+    }
+
     @Override
     public Object getObject(final String key) {
         if (getObjectResolver() != null) {
@@ -76,11 +84,22 @@ public class ClasspathConnector extends AbstractConnector {
     public String getString(final String key) {
         final byte[] content = getContent(key);
         if (content != null) {
-            return new String(this.classpathContentResolver.getContent(key), this.charset);
+            return this.contentStore.decode(content, this.charset);
         }
         return null;
     }
 
+    public ContentStore getContentStore() {
+        return this.contentStore;
+    }
+
+    /**
+     * @param contentStore the store which deduplicates the decoded Strings (e.g. shared by all connectors of one configuration).
+     */
+    public void setContentStore(final ContentStore contentStore) {
+        this.contentStore = contentStore;
+    }
+
     public String getCharset() {
         return this.charset.name();
     }
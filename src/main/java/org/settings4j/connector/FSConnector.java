@@ -21,24 +21,36 @@ package org.settings4j.connector;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 
 import org.apache.commons.io.Charsets;
+import org.settings4j.BufferedConnector;
+import org.settings4j.ChangeListener;
+import org.settings4j.ChangeNotifier;
 import org.settings4j.ContentResolver;
+import org.settings4j.DisposableConnector;
+import org.settings4j.cache.ContentStore;
 import org.settings4j.contentresolver.FSContentResolver;
 import org.settings4j.contentresolver.UnionContentResolver;
 
 /**
  * The FileSystem implementation of an {@link org.settings4j.Connector}.
+ * <p>
+ * {@link #destroy()} (called by {@link org.settings4j.settings.DefaultSettings#removeAllConnectors()}, e.g. on reconfiguration) stops the
+ * watcher and releases the memory mappings and the index (see {@link FSContentResolver#destroy()}).
+ * </p>
  *
  * @author Harald.Brabenetz
  */
-public class FSConnector extends AbstractConnector {
+public class FSConnector extends AbstractConnector implements BufferedConnector, ChangeNotifier, DisposableConnector {
 
     private final FSContentResolver fsContentResolver;
     private UnionContentResolver unionContentResolver;
     private Charset charset = Charsets.UTF_8;
+    private ContentStore contentStore = new ContentStore();
 
     /** Default Constructor (e.g. use in settings4j.xml). */
     public FSConnector() {
@@ -62,6 +74,89 @@ public class FSConnector extends AbstractConnector {
         return this.fsContentResolver.getContent(key);
     }
 
+    @Override
+    public InputStream openContent(final String key) {
+        return this.fsContentResolver.openContent(key);
+    }
+
+    /**
+     * Return the content as read-only {@link ByteBuffer}. Large files will be memory-mapped without a copy into the heap.
+     *
+     * @param key the Key for the content.
+     * @return the content or null if not found.
+     * @see FSContentResolver#getContentBuffer(String)
+     */
+    @Override
+    public ByteBuffer getContentBuffer(final String key) {
+        return this.fsContentResolver.getContentBuffer(key);
+    }
+
+    public boolean isIndexEnabled() {
+        return this.fsContentResolver.isIndexEnabled();
+    }
+
+    /**
+     * Delegate the indexEnabled to the {@link FSContentResolver#setIndexEnabled(boolean)}.
+     *
+     * @param indexEnabled true to answer lookups of missing files from an in-memory index of the root folder.
+     */
+    public void setIndexEnabled(final boolean indexEnabled) {
+        this.fsContentResolver.setIndexEnabled(indexEnabled);
+    }
+
+    public long getIndexRefreshInterval() {
+        return this.fsContentResolver.getIndexRefreshInterval();
+    }
+
+    /**
+     * Delegate the indexRefreshInterval to the {@link FSContentResolver#setIndexRefreshInterval(long)}.
+     *
+     * @param indexRefreshIntervalMillis the maximum age of the index in milliseconds.
+     */
+    public void setIndexRefreshInterval(final long indexRefreshIntervalMillis) {
+        this.fsContentResolver.setIndexRefreshInterval(indexRefreshIntervalMillis);
+    }
+
+    public boolean isStatCacheEnabled() {
+        return this.fsContentResolver.isStatCacheEnabled();
+    }
+
+    /**
+     * Delegate the statCacheEnabled to the {@link FSContentResolver#setStatCacheEnabled(boolean)}.
+     *
+     * @param statCacheEnabled true to cache the contents until the last modification time or the length of the file changes.
+     */
+    public void setStatCacheEnabled(final boolean statCacheEnabled) {
+        this.fsContentResolver.setStatCacheEnabled(statCacheEnabled);
+    }
+
+    public long getStatCacheInterval() {
+        return this.fsContentResolver.getStatCacheInterval();
+    }
+
+    /**
+     * Delegate the statCacheInterval to the {@link FSContentResolver#setStatCacheInterval(long)}.
+     *
+     * @param statCacheIntervalMillis the minimum time in milliseconds between two checks of the same file.
+     */
+    public void setStatCacheInterval(final long statCacheIntervalMillis) {
+        this.fsContentResolver.setStatCacheInterval(statCacheIntervalMillis);
+    }
+
+    public int getMappingThreshold() {
+        return this.fsContentResolver.getMappingThreshold();
+    }
+
+    /**
+     * Delegate the mappingThreshold to the {@link FSContentResolver#setMappingThreshold(int)}. Mapped files must be replaced, not rewritten in
+     * place.
+     *
+     * @param mappingThreshold the minimum size in bytes of files which {@link #getContentBuffer(String)} returns memory-mapped.
+     */
+    public void setMappingThreshold(final int mappingThreshold) {
+        this.fsContentResolver.setMappingThreshold(mappingThreshold);
+    }
+
     @Override
     public Object getObject(final String key) {
         if (getObjectResolver() != null) {
@@ -75,7 +170,7 @@ public class FSConnector extends AbstractConnector {
     public String getString(final String key) {
         final byte[] content = getContent(key);
         if (content != null) {
-            return new String(this.fsContentResolver.getContent(key), this.charset);
+            return this.contentStore.decode(content, this.charset);
         }
         // else
         return null;
@@ -103,6 +198,17 @@ public class FSConnector extends AbstractConnector {
         }
     }
 
+    public ContentStore getContentStore() {
+        return this.contentStore;
+    }
+
+    /**
+     * @param contentStore the store which deduplicates the decoded Strings (e.g. shared by all connectors of one configuration).
+     */
+    public void setContentStore(final ContentStore contentStore) {
+        this.contentStore = contentStore;
+    }
+
     public String getCharset() {
         return this.charset.name();
     }
@@ -125,6 +231,29 @@ public class FSConnector extends AbstractConnector {
         this.fsContentResolver.setRootFolderPath(rootFolderPath);
     }
 
+    /**
+     * Delegate the watchInterval to the {@link FSContentResolver#setWatchInterval(long)}.
+     *
+     * @param watchIntervalMillis the interval in milliseconds in which the root folder will be checked for changes. 0 disables the watching.
+     */
+    public void setWatchInterval(final long watchIntervalMillis) {
+        this.fsContentResolver.setWatchInterval(watchIntervalMillis);
+    }
+
+    public long getWatchInterval() {
+        return this.fsContentResolver.getWatchInterval();
+    }
+
+    @Override
+    public void addChangeListener(final ChangeListener listener) {
+        this.fsContentResolver.addChangeListener(listener);
+    }
+
+    @Override
+    public void destroy() {
+        this.fsContentResolver.destroy();
+    }
+
     @Override
     public void setContentResolver(final ContentResolver contentResolver) {
         this.unionContentResolver = new UnionContentResolver(this.fsContentResolver);
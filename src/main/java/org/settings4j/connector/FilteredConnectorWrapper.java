@@ -19,18 +19,34 @@
  */
 package org.settings4j.connector;
 
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
 import org.apache.commons.lang3.Validate;
+import org.settings4j.BufferedConnector;
+import org.settings4j.BulkConnector;
+import org.settings4j.ChangeListener;
+import org.settings4j.ChangeNotifier;
 import org.settings4j.Connector;
 import org.settings4j.ContentResolver;
+import org.settings4j.DisposableConnector;
 import org.settings4j.Filter;
 import org.settings4j.ObjectResolver;
+import org.settings4j.StreamingConnector;
+import org.settings4j.util.BulkConnectorUtil;
+import org.settings4j.util.ContentBufferUtil;
+import org.settings4j.util.ContentStreamUtil;
 
 /**
  * Wrapper to add a {@link Filter} which is used before the given {@link Connector} is called.
  *
  * @author Harald.Brabenetz
  */
-public class FilteredConnectorWrapper implements Connector {
+public class FilteredConnectorWrapper implements BulkConnector, StreamingConnector, BufferedConnector, ChangeNotifier, DisposableConnector {
 
     private final Connector targetConnector;
     private final Filter filter;
@@ -60,6 +76,22 @@ public class FilteredConnectorWrapper implements Connector {
         return this.targetConnector.getContent(key);
     }
 
+    @Override
+    public InputStream openContent(final String key) {
+        if (!this.filter.isValid(key)) {
+            return null;
+        }
+        return ContentStreamUtil.openContent(this.targetConnector, key);
+    }
+
+    @Override
+    public ByteBuffer getContentBuffer(final String key) {
+        if (!this.filter.isValid(key)) {
+            return null;
+        }
+        return ContentBufferUtil.getContentBuffer(this.targetConnector, key);
+    }
+
     @Override
     public String getName() {
         return this.targetConnector.getName();
@@ -81,11 +113,63 @@ public class FilteredConnectorWrapper implements Connector {
         return this.targetConnector.getString(key);
     }
 
+    @Override
+    public Map<String, byte[]> getContents(final Collection<String> keys) {
+        return BulkConnectorUtil.getContents(this.targetConnector, filterKeys(keys));
+    }
+
+    @Override
+    public Map<String, Object> getObjects(final Collection<String> keys) {
+        return BulkConnectorUtil.getObjects(this.targetConnector, filterKeys(keys));
+    }
+
+    @Override
+    public Map<String, String> getStrings(final Collection<String> keys) {
+        return BulkConnectorUtil.getStrings(this.targetConnector, filterKeys(keys));
+    }
+
+    private List<String> filterKeys(final Collection<String> keys) {
+        final List<String> validKeys = new ArrayList<String>(keys.size());
+        for (final String key : keys) {
+            if (this.filter.isValid(key)) {
+                validKeys.add(key);
+            }
+        }
+        return validKeys;
+    }
+
     @Override
     public void init() {
         this.targetConnector.init();
     }
 
+    @Override
+    public void destroy() {
+        if (this.targetConnector instanceof DisposableConnector) {
+            ((DisposableConnector) this.targetConnector).destroy();
+        }
+    }
+
+    /**
+     * Pass the listener to the wrapped connector (if it is a {@link ChangeNotifier}). Only keys which are valid for the filter will be reported.
+     *
+     * @param listener the listener.
+     */
+    @Override
+    public void addChangeListener(final ChangeListener listener) {
+        if (this.targetConnector instanceof ChangeNotifier) {
+            ((ChangeNotifier) this.targetConnector).addChangeListener(new ChangeListener() {
+
+                @Override
+                public void valueChanged(final String key) {
+                    if (FilteredConnectorWrapper.this.filter.isValid(key)) {
+                        listener.valueChanged(key);
+                    }
+                }
+            });
+        }
+    }
+
     @Override
     public void setContentResolver(final ContentResolver contentResolver) {
         this.targetConnector.setContentResolver(contentResolver);
@@ -19,6 +19,10 @@
  */
 package org.settings4j.connector;
 
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Properties;
 
 import javax.naming.Context;
@@ -30,7 +34,9 @@ import javax.naming.NoInitialContextException;
 import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
+import org.settings4j.BulkConnector;
 import org.settings4j.Constants;
+import org.settings4j.util.ContentStreamUtil;
 
 /**
  * The JNDI Context implementation of an {@link org.settings4j.Connector}.
@@ -86,10 +92,14 @@ import org.settings4j.Constants;
  * If the getObject() JNDI lookup returns a String it will try to get an Object from the ObjectResolvers (assuming the String is as FileSystemPath or ClassPath
  * which can be resolved to an Object).
  * </p>
+ * <h4>getStrings(), getContents(), getObjects()</h4>
+ * <p>
+ * The bulk methods of {@link BulkConnector} lookup all keys within one JNDI context.
+ * </p>
  *
  * @author Harald.Brabenetz
  */
-public class JNDIConnector extends AbstractConnector {
+public class JNDIConnector extends AbstractConnector implements BulkConnector {
 
     /** General Logger for this Class. */
     private static final org.slf4j.Logger LOG = org.slf4j.LoggerFactory.getLogger(JNDIConnector.class);
@@ -105,11 +115,73 @@ public class JNDIConnector extends AbstractConnector {
     private Boolean isJNDIAvailable;
 
     @Override
-    // SuppressWarnings PMD.ReturnEmptyArrayRatherThanNull: returning null for this byte-Arrays is OK.
-    @SuppressWarnings("PMD.ReturnEmptyArrayRatherThanNull")
     public byte[] getContent(final String key) {
+        Validate.notNull(key);
+        return toContent(key, lookupInContext(key));
+    }
+
+    @Override
+    public InputStream openContent(final String key) {
         Validate.notNull(key);
         final Object obj = lookupInContext(key);
+        if (obj instanceof String && getContentResolver() != null) {
+            // obj could be a Path.
+            final InputStream content = ContentStreamUtil.openContent(getContentResolver(), (String) obj);
+            if (content != null) {
+                return content;
+            }
+        }
+        return ContentStreamUtil.toInputStream(toContent(key, obj));
+    }
+
+    @Override
+    public Object getObject(final String key) {
+        Validate.notNull(key);
+        return toObject(lookupInContext(key));
+    }
+
+    @Override
+    public String getString(final String key) {
+        Validate.notNull(key);
+        return toString(key, lookupInContext(key));
+    }
+
+    @Override
+    public Map<String, byte[]> getContents(final Collection<String> keys) {
+        final Map<String, byte[]> result = new LinkedHashMap<String, byte[]>();
+        for (final Map.Entry<String, Object> entry : lookupInContext(keys).entrySet()) {
+            final byte[] value = toContent(entry.getKey(), entry.getValue());
+            if (value != null) {
+                result.put(entry.getKey(), value);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Object> getObjects(final Collection<String> keys) {
+        final Map<String, Object> result = new LinkedHashMap<String, Object>();
+        for (final Map.Entry<String, Object> entry : lookupInContext(keys).entrySet()) {
+            result.put(entry.getKey(), toObject(entry.getValue()));
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, String> getStrings(final Collection<String> keys) {
+        final Map<String, String> result = new LinkedHashMap<String, String>();
+        for (final Map.Entry<String, Object> entry : lookupInContext(keys).entrySet()) {
+            final String value = toString(entry.getKey(), entry.getValue());
+            if (value != null) {
+                result.put(entry.getKey(), value);
+            }
+        }
+        return result;
+    }
+
+    // SuppressWarnings PMD.ReturnEmptyArrayRatherThanNull: returning null for this byte-Arrays is OK.
+    @SuppressWarnings("PMD.ReturnEmptyArrayRatherThanNull")
+    private byte[] toContent(final String key, final Object obj) {
         if (obj == null) {
             return null;
         }
@@ -131,11 +203,7 @@ public class JNDIConnector extends AbstractConnector {
         return null;
     }
 
-    @Override
-    public Object getObject(final String key) {
-        Validate.notNull(key);
-        final Object obj = lookupInContext(key);
-
+    private Object toObject(final Object obj) {
         // if obj is a String and an Object resolver is available
         // obj could be a Path to a XML who can be converted to an Object.
         if (obj instanceof String && getObjectResolver() != null) {
@@ -148,10 +216,7 @@ public class JNDIConnector extends AbstractConnector {
         return obj;
     }
 
-    @Override
-    public String getString(final String key) {
-        Validate.notNull(key);
-        final Object obj = lookupInContext(key);
+    private String toString(final String key, final Object obj) {
         try {
             return (String) obj;
         } catch (final ClassCastException e) {
@@ -259,6 +324,57 @@ public class JNDIConnector extends AbstractConnector {
         return result;
     }
 
+    /**
+     * Lookup all keys within one {@link InitialContext}.
+     *
+     * @param keys the keys to lookup.
+     * @return the found Objects (key = the given key). Keys without a value are not contained.
+     */
+    private Map<String, Object> lookupInContext(final Collection<String> keys) {
+        final Map<String, Object> result = new LinkedHashMap<String, Object>();
+        if (!isJNDIAvailable()) {
+            return result;
+        }
+        InitialContext ctx = null;
+        try {
+            ctx = getJNDIContext();
+            for (final String key : keys) {
+                Validate.notNull(key);
+                final Object value = lookupInContext(ctx, key);
+                if (value != null) {
+                    result.put(key, value);
+                }
+            }
+        } catch (final NoInitialContextException e) {
+            logInfoButExceptionDebug(String.format("Maybe no JNDI-Context available. %s", e.getMessage()), e);
+        } catch (final NamingException e) {
+            logInfoButExceptionDebug(String.format("cannot create JNDI-Context. %s", e.getMessage()), e);
+        } finally {
+            closeQuietly(ctx);
+        }
+        return result;
+    }
+
+    private Object lookupInContext(final InitialContext ctx, final String key) throws NoInitialContextException {
+        final String normalizedKey = normalizeKey(key, true);
+        try {
+            return ctx.lookup(normalizedKey);
+        } catch (final NoInitialContextException e) {
+            throw e;
+        } catch (final NamingException e) {
+            LOG.debug("cannot lookup key: {} ({})", key, normalizedKey, e);
+        }
+        final String normalizedKeyWithoutPrefix = normalizeKey(key, false);
+        try {
+            return ctx.lookup(normalizedKeyWithoutPrefix);
+        } catch (final NoInitialContextException e) {
+            throw e;
+        } catch (final NamingException e) {
+            LOG.debug("cannot lookup key: {} ({})", key, normalizedKeyWithoutPrefix, e);
+        }
+        return null;
+    }
+
     /**
      * Calls {@link InitialContext#close()} with null-checks and Exception handling: log exception with log level info.
      * 
@@ -0,0 +1,258 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j.connector;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+import org.settings4j.BufferedConnector;
+import org.settings4j.BulkConnector;
+import org.settings4j.ChangeListener;
+import org.settings4j.ChangeNotifier;
+import org.settings4j.Connector;
+import org.settings4j.ContentResolver;
+import org.settings4j.DisposableConnector;
+import org.settings4j.ObjectResolver;
+import org.settings4j.StreamingConnector;
+import org.settings4j.metrics.ConnectorMetrics;
+import org.settings4j.metrics.LookupMetrics;
+import org.settings4j.util.BulkConnectorUtil;
+import org.settings4j.util.ContentBufferUtil;
+import org.settings4j.util.ContentStreamUtil;
+
+/**
+ * Wrap a Connector and measures the hits, misses and latencies of all lookups.
+ * <p>
+ * This wrapper will be used if you add in your settings4j.xml the metrics="true" Attribute to the Connector TAG. The metrics will be published as
+ * JMX MBeans with {@link #init()} (see {@link ConnectorMetrics}). Connectors without this Attribute are not wrapped, so they have no overhead.
+ * </p>
+ * <p>
+ * A bulk lookup (e.g. {@link #getStrings(Collection)}) is recorded as one latency, but every key counts as hit or miss. {@link #openContent(String)}
+ * is recorded as content lookup, but only the time to open the stream is measured.
+ * </p>
+ *
+ * @author Harald.Brabenetz
+ */
+public class MetricsConnectorWrapper implements BulkConnector, StreamingConnector, BufferedConnector, ChangeNotifier, DisposableConnector {
+
+    private final Connector targetConnector;
+
+    private final ConnectorMetrics metrics;
+
+    /**
+     * @param targetConnector The connector to wrap.
+     */
+    public MetricsConnectorWrapper(final Connector targetConnector) {
+        super();
+        Validate.notNull(targetConnector, "MetricsConnectorWrapper needs a Connector Object");
+        this.targetConnector = targetConnector;
+        this.metrics = new ConnectorMetrics(targetConnector.getName());
+    }
+
+    /**
+     * @return the metrics of the wrapped connector.
+     */
+    public ConnectorMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    @Override
+    public byte[] getContent(final String key) {
+        final LookupMetrics lookupMetrics = this.metrics.getContentMetrics();
+        final long start = System.nanoTime();
+        try {
+            final byte[] result = this.targetConnector.getContent(key);
+            record(lookupMetrics, start, result);
+            return result;
+        } catch (final RuntimeException e) {
+            lookupMetrics.recordError(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public InputStream openContent(final String key) {
+        final LookupMetrics lookupMetrics = this.metrics.getContentMetrics();
+        final long start = System.nanoTime();
+        try {
+            final InputStream result = ContentStreamUtil.openContent(this.targetConnector, key);
+            record(lookupMetrics, start, result);
+            return result;
+        } catch (final RuntimeException e) {
+            lookupMetrics.recordError(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public ByteBuffer getContentBuffer(final String key) {
+        final LookupMetrics lookupMetrics = this.metrics.getContentMetrics();
+        final long start = System.nanoTime();
+        try {
+            final ByteBuffer result = ContentBufferUtil.getContentBuffer(this.targetConnector, key);
+            record(lookupMetrics, start, result);
+            return result;
+        } catch (final RuntimeException e) {
+            lookupMetrics.recordError(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Object getObject(final String key) {
+        final LookupMetrics lookupMetrics = this.metrics.getObjectMetrics();
+        final long start = System.nanoTime();
+        try {
+            final Object result = this.targetConnector.getObject(key);
+            record(lookupMetrics, start, result);
+            return result;
+        } catch (final RuntimeException e) {
+            lookupMetrics.recordError(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public String getString(final String key) {
+        final LookupMetrics lookupMetrics = this.metrics.getStringMetrics();
+        final long start = System.nanoTime();
+        try {
+            final String result = this.targetConnector.getString(key);
+            record(lookupMetrics, start, result);
+            return result;
+        } catch (final RuntimeException e) {
+            lookupMetrics.recordError(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Map<String, byte[]> getContents(final Collection<String> keys) {
+        final LookupMetrics lookupMetrics = this.metrics.getContentMetrics();
+        final long start = System.nanoTime();
+        try {
+            final Map<String, byte[]> result = BulkConnectorUtil.getContents(this.targetConnector, keys);
+            recordBulk(lookupMetrics, start, keys.size(), result.size());
+            return result;
+        } catch (final RuntimeException e) {
+            lookupMetrics.recordError(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Map<String, Object> getObjects(final Collection<String> keys) {
+        final LookupMetrics lookupMetrics = this.metrics.getObjectMetrics();
+        final long start = System.nanoTime();
+        try {
+            final Map<String, Object> result = BulkConnectorUtil.getObjects(this.targetConnector, keys);
+            recordBulk(lookupMetrics, start, keys.size(), result.size());
+            return result;
+        } catch (final RuntimeException e) {
+            lookupMetrics.recordError(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Map<String, String> getStrings(final Collection<String> keys) {
+        final LookupMetrics lookupMetrics = this.metrics.getStringMetrics();
+        final long start = System.nanoTime();
+        try {
+            final Map<String, String> result = BulkConnectorUtil.getStrings(this.targetConnector, keys);
+            recordBulk(lookupMetrics, start, keys.size(), result.size());
+            return result;
+        } catch (final RuntimeException e) {
+            lookupMetrics.recordError(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    private static void record(final LookupMetrics lookupMetrics, final long start, final Object result) {
+        final long nanos = System.nanoTime() - start;
+        if (result == null) {
+            lookupMetrics.record(nanos, 0, 1);
+        } else {
+            lookupMetrics.record(nanos, 1, 0);
+        }
+    }
+
+    private static void recordBulk(final LookupMetrics lookupMetrics, final long start, final int keyCount, final int foundCount) {
+        lookupMetrics.record(System.nanoTime() - start, foundCount, keyCount - foundCount);
+    }
+
+    /*
+     * Delegating Methodes:
+     */
+
+    @Override
+    public void addChangeListener(final ChangeListener listener) {
+        if (this.targetConnector instanceof ChangeNotifier) {
+            ((ChangeNotifier) this.targetConnector).addChangeListener(listener);
+        }
+    }
+
+    @Override
+    public void addConnector(final Connector connector) {
+        this.targetConnector.addConnector(connector);
+    }
+
+    @Override
+    public void setContentResolver(final ContentResolver contentResolver) {
+        this.targetConnector.setContentResolver(contentResolver);
+    }
+
+    @Override
+    public void setObjectResolver(final ObjectResolver objectResolver) {
+        this.targetConnector.setObjectResolver(objectResolver);
+    }
+
+    @Override
+    public void init() {
+        this.targetConnector.init();
+        this.metrics.registerMBeans();
+    }
+
+    /**
+     * Unregister the MBeans of the metrics and destroy the wrapped connector (if it is a {@link DisposableConnector}).
+     */
+    @Override
+    public void destroy() {
+        this.metrics.unregisterMBeans();
+        if (this.targetConnector instanceof DisposableConnector) {
+            ((DisposableConnector) this.targetConnector).destroy();
+        }
+    }
+
+    @Override
+    public String getName() {
+        return this.targetConnector.getName();
+    }
+
+    @Override
+    public void setName(final String name) {
+        this.targetConnector.setName(name);
+        // keeps the counters and moves already published MBeans to the new name.
+        this.metrics.setConnectorName(name);
+    }
+}
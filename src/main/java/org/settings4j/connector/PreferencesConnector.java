@@ -82,8 +82,6 @@ public class PreferencesConnector extends AbstractPropertyConnector {
         return value;
     }
 
-
-
     private String getPath(final String keyPath) {
         String path = null;
         final int endOfPath = keyPath.lastIndexOf('/');
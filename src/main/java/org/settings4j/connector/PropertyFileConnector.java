@@ -23,6 +23,9 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
@@ -124,6 +127,19 @@ public class PropertyFileConnector extends AbstractPropertyConnector {
         return this.property.getProperty(key, null);
     }
 
+    @Override
+    public Map<String, String> getStrings(final Collection<String> keys) {
+        final Properties currentProperty = this.property;
+        final Map<String, String> result = new LinkedHashMap<String, String>();
+        for (final String key : keys) {
+            final String value = currentProperty.getProperty(key, null);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
     public void setProperty(final Properties property) {
         this.property = property;
     }
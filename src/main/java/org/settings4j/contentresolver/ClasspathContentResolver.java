@@ -25,6 +25,7 @@ import java.net.URL;
 
 import org.apache.commons.io.IOUtils;
 import org.settings4j.ContentResolver;
+import org.settings4j.StreamingContentResolver;
 
 /**
  * {@link ContentResolver} implementation to read content from the Classpath.
@@ -37,7 +38,7 @@ import org.settings4j.ContentResolver;
  *
  * @author Harald.Brabenetz
  */
-public class ClasspathContentResolver implements ContentResolver {
+public class ClasspathContentResolver implements StreamingContentResolver {
 
     /** General Logger for this Class. */
     private static final org.slf4j.Logger LOG = org.slf4j.LoggerFactory.getLogger(ClasspathContentResolver.class);
@@ -70,6 +71,11 @@ public class ClasspathContentResolver implements ContentResolver {
         }
     }
 
+    @Override
+    public InputStream openContent(final String key) {
+        return getClassLoader().getResourceAsStream(normalizeKey(key));
+    }
+
     /**
      * Method to get onlx the URL for the given Key.
      *
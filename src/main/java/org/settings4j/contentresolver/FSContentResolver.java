@@ -19,11 +19,37 @@
  */
 package org.settings4j.contentresolver;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOUtils;
+import org.settings4j.BufferedContentResolver;
+import org.settings4j.ChangeListener;
+import org.settings4j.ChangeNotifier;
 import org.settings4j.ContentResolver;
+import org.settings4j.StreamingContentResolver;
+import org.settings4j.cache.CacheLoader;
+import org.settings4j.cache.ValueCache;
+import org.settings4j.cache.Weigher;
+import org.settings4j.cache.Weighers;
 
 /**
  * {@link ContentResolver} implementation to read content from the File System.
@@ -35,10 +61,38 @@ import org.settings4j.ContentResolver;
  * Absolute Unix paths starts with <b>"/"</b>.<br>
  * Other Paths are relative and uses the {@link #getRootFolder()} as root. Which is per default <code>new File(".")</code>.<br>
  * </p>
+ * <p>
+ * Optionally the root folder can be watched for changes (see {@link #setWatchInterval(long)}). While watching, the relative paths are read only
+ * once and then served from a bounded in-memory cache (10000 files, 64 MB), until the watcher detects a change of the
+ * file. Changes are pushed to all {@link ChangeListener}s (e.g. the caches of the layers above).
+ * </p>
+ * <p>
+ * Without a watcher the contents can optionally be cached together with the last modification time and the length of the file (see
+ * {@link #setStatCacheEnabled(boolean)}). Every lookup reads only these attributes (at most once per {@link #setStatCacheInterval(long)}
+ * milliseconds per file) and the file will be read again only if they have changed. This cache is bounded like the watched contents.
+ * </p>
+ * <p>
+ * Optionally the relative paths of all files below the root folder are kept in an index (see {@link #setIndexEnabled(boolean)}), so lookups
+ * of missing files are answered without a call to the file system. The index is updated with every change reported by the watcher or
+ * {@link #setContent(String, byte[])}, and rebuilt after {@link #setIndexRefreshInterval(long)} milliseconds. Without a watcher and without a
+ * refresh interval the index is ignored, because files created by other processes would never be found. The index is built and rebuilt by the
+ * scheduler thread of the watcher; lookups never wait for it, but ask the file system until the index is ready. The keys must match the case of the
+ * file names.
+ * </p>
+ * <p>
+ * {@link #getContentBuffer(String)} returns files with at least {@link #setMappingThreshold(int)} bytes as memory-mapped read-only buffers
+ * without a copy into the heap. The mappings are kept per FSContentResolver and will be renewed if the last modification time or the length
+ * of the file changes. They are dropped if the file is changed with {@link #setContent(String, byte[])}, reported as changed by the watcher, or
+ * found deleted. Mapped files must be replaced (e.g. written to a temporary file and renamed) rather than rewritten in place: a buffer which was
+ * already returned keeps the old mapping, and rewriting the mapped file in place changes (or truncates) the bytes under its readers.
+ * </p>
+ * <p>
+ * {@link #destroy()} stops the watcher and releases all cached data.
+ * </p>
  *
  * @author Harald.Brabenetz
  */
-public class FSContentResolver implements ContentResolver {
+public class FSContentResolver implements BufferedContentResolver, StreamingContentResolver, ChangeNotifier {
 
     /** General Logger for this Class. */
     private static final org.slf4j.Logger LOG = org.slf4j.LoggerFactory.getLogger(FSContentResolver.class);
@@ -46,8 +100,69 @@ public class FSContentResolver implements ContentResolver {
     /** Pseudo URL prefix for loading from the class path: "classpath:". */
     public static final String FILE_URL_PREFIX = "file:";
 
+    /** Default minimum size of memory-mapped files: 256 KB. */
+    public static final int DEFAULT_MAPPING_THRESHOLD = 256 * 1024;
+
+    /** Maximum number of mappings in {@link #mappedContents}. Further files will be mapped with every call. */
+    private static final int MAX_MAPPED_FILES = 256;
+
+    /** Maximum number of files in {@link #watchedContents} (also missing files) and in {@link #statCachedContents}. */
+    private static final long MAX_CACHED_FILES = 10000L;
+
+    /** Maximum sum of the sizes of the files in {@link #watchedContents} and in {@link #statCachedContents}: 64 MB each. */
+    private static final long MAX_CACHED_WEIGHT = 64L * 1024L * 1024L;
+
+    /** {@link StatCachedContent}s weigh the length of their content. */
+    private static final Weigher<StatCachedContent> STAT_CACHED_CONTENT_WEIGHER = new Weigher<StatCachedContent>() {
+
+        @Override
+        public long weigh(final String key, final StatCachedContent value) {
+            if (value == null) {
+                return 0L;
+            }
+            return value.content.length;
+        }
+    };
+
     private File rootFolder;
 
+    private volatile int mappingThreshold = DEFAULT_MAPPING_THRESHOLD;
+    // absolute path -> memory-mapped file.
+    private final ConcurrentMap<String, MappedContent> mappedContents = new ConcurrentHashMap<String, MappedContent>();
+    private long watchInterval;
+    private volatile FSWatcher watcher;
+    // relative normalized path -> content (null if not found). Only used while the root folder is watched.
+    private final ValueCache<byte[]> watchedContents = createBoundedCache(Weighers.BYTE_ARRAY);
+    private final CacheLoader<byte[]> watchedContentLoader = new CacheLoader<byte[]>() {
+
+        @Override
+        public byte[] load(final String path) {
+            return getContent(new File(getRootFolder(), path));
+        }
+
+        @Override
+        public Map<String, byte[]> loadAll(final Collection<String> paths) {
+            final Map<String, byte[]> result = new HashMap<String, byte[]>();
+            for (final String path : paths) {
+                result.put(path, load(path));
+            }
+            return result;
+        }
+    };
+    // incremented with every change and every drop of the index: an index scan which overlaps one of them must not be published.
+    private final AtomicLong changeCount = new AtomicLong();
+    // true while an index build is scheduled or running.
+    private final AtomicBoolean indexBuilding = new AtomicBoolean();
+    private final List<ChangeListener> changeListeners = new CopyOnWriteArrayList<ChangeListener>();
+    private volatile boolean indexEnabled;
+    private volatile long indexRefreshInterval;
+    private volatile FSIndex index;
+    private volatile boolean unrefreshedIndexWarned;
+    private volatile boolean statCacheEnabled;
+    private volatile long statCacheInterval;
+    // absolute path -> content with the file attributes. Only used if statCacheEnabled and the root folder is not watched.
+    private final ValueCache<StatCachedContent> statCachedContents = createBoundedCache(STAT_CACHED_CONTENT_WEIGHER);
+
     @Override
     public void addContentResolver(final ContentResolver contentResolver) {
         throw new UnsupportedOperationException("FSContentResolver cannot add other ContentResolvers");
@@ -70,6 +185,14 @@ public class FSContentResolver implements ContentResolver {
             }
         }
 
+        if (isNotIndexed(normalizedKey)) {
+            return null;
+        }
+
+        if (this.watcher != null) {
+            return getWatchedContent(normalizedKey);
+        }
+
         final byte[] content = getContent(new File(getRootFolder(), normalizedKey));
         if (content != null) {
             return content;
@@ -77,7 +200,416 @@ public class FSContentResolver implements ContentResolver {
         return null;
     }
 
+    @Override
+    public ByteBuffer getContentBuffer(final String key) {
+        final File file = findFile(key);
+        if (file == null) {
+            return null;
+        }
+        final long length = file.length();
+        if (length < this.mappingThreshold) {
+            final byte[] content = getContent(key);
+            if (content == null) {
+                return null;
+            }
+            return ByteBuffer.wrap(content).asReadOnlyBuffer();
+        }
+        return getMappedBuffer(file, length);
+    }
+
+    /**
+     * Open the file for the given key. If the root folder is watched (see {@link #setWatchInterval(long)}), the content will be served from
+     * memory like {@link #getContent(String)}.
+     */
+    @Override
+    public InputStream openContent(final String key) {
+        if (this.watcher != null) {
+            final byte[] content = getContent(key);
+            if (content == null) {
+                return null;
+            }
+            return new ByteArrayInputStream(content);
+        }
+        final File file = findFile(key);
+        if (file == null) {
+            return null;
+        }
+        try {
+            return new FileInputStream(file);
+        } catch (final FileNotFoundException e) {
+            LOG.info(e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private File findFile(final String key) {
+        String normalizedKey = key;
+        if (normalizedKey.startsWith(FILE_URL_PREFIX)) {
+            normalizedKey = normalizedKey.substring(FILE_URL_PREFIX.length());
+        }
+        if (isUnixRoot(normalizedKey) || isWindowsRoot(normalizedKey)) {
+            final File file = new File(normalizedKey);
+            if (file.isFile()) {
+                return file;
+            }
+            removeMapping(file);
+        }
+        if (isNotIndexed(normalizedKey)) {
+            return null;
+        }
+        final File file = new File(getRootFolder(), normalizedKey);
+        if (file.isFile()) {
+            return file;
+        }
+        removeMapping(file);
+        return null;
+    }
+
+    /**
+     * Drop the mapping of a changed or deleted file. Buffers which were already returned keep the old mapping.
+     */
+    private void removeMapping(final File file) {
+        if (!this.mappedContents.isEmpty()) {
+            this.mappedContents.remove(file.getAbsolutePath());
+        }
+    }
+
+    private ByteBuffer getMappedBuffer(final File file, final long length) {
+        if (length > Integer.MAX_VALUE) {
+            LOG.warn("The file {} is too large to be mapped ({} bytes).", file, length);
+            return null;
+        }
+        final String path = file.getAbsolutePath();
+        final long lastModified = file.lastModified();
+        final MappedContent mappedContent = this.mappedContents.get(path);
+        if (mappedContent != null && mappedContent.lastModified == lastModified && mappedContent.buffer.limit() == length) {
+            return mappedContent.buffer.duplicate();
+        }
+
+        RandomAccessFile randomAccessFile = null;
+        try {
+            randomAccessFile = new RandomAccessFile(file, "r");
+            // the mapping stays valid after the file is closed.
+            final ByteBuffer buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0L, length).asReadOnlyBuffer();
+            if (mappedContent != null || this.mappedContents.size() < MAX_MAPPED_FILES) {
+                this.mappedContents.put(path, new MappedContent(lastModified, buffer));
+            }
+            return buffer.duplicate();
+        } catch (final IOException e) {
+            LOG.info(e.getMessage(), e);
+            return null;
+        } finally {
+            IOUtils.closeQuietly(randomAccessFile);
+        }
+    }
+
+    /**
+     * @return true if the relative path is below the root folder and the index knows that the file doesn't exist.
+     */
+    private boolean isNotIndexed(final String relativePath) {
+        final FSIndex currentIndex = getIndex();
+        if (currentIndex == null) {
+            return false;
+        }
+        final String path = toWatchedPath(relativePath);
+        return path != null && !currentIndex.contains(path);
+    }
+
+    /**
+     * @return the current index, or null if the index is disabled or not (yet) usable. Never blocks: a missing or outdated index will be built by
+     *         the scheduler thread of the {@link FSWatcher}, and the lookups ask the file system until it is ready.
+     */
+    private FSIndex getIndex() {
+        if (!this.indexEnabled) {
+            return null;
+        }
+        if (this.watcher == null && this.indexRefreshInterval == 0L) {
+            // nothing would report files created by other processes: ask the file system.
+            if (!this.unrefreshedIndexWarned) {
+                this.unrefreshedIndexWarned = true;
+                LOG.warn("The index of {} is ignored without a watchInterval or an indexRefreshInterval.", this.rootFolder);
+            }
+            return null;
+        }
+        final FSIndex currentIndex = this.index;
+        if (currentIndex == null || currentIndex.isStale(this.indexRefreshInterval)) {
+            scheduleIndexBuild();
+            return null;
+        }
+        return currentIndex;
+    }
+
+    private void scheduleIndexBuild() {
+        if (!this.indexBuilding.compareAndSet(false, true)) {
+            return;
+        }
+        FSWatcher.execute(new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    buildIndex();
+                } catch (final RuntimeException e) {
+                    LOG.warn("Cannot index the folder " + FSContentResolver.this.rootFolder + ".", e);
+                } finally {
+                    FSContentResolver.this.indexBuilding.set(false);
+                }
+            }
+        });
+    }
+
+    private void buildIndex() {
+        final long changeCountBeforeScan = this.changeCount.get();
+        final FSIndex newIndex = new FSIndex(getRootFolder());
+        if (this.changeCount.get() != changeCountBeforeScan) {
+            // a change which overlapped the scan may be missing: the next lookup schedules a new scan.
+            LOG.debug("The index of {} was changed while scanning. Not used.", this.rootFolder);
+            return;
+        }
+        this.index = newIndex;
+        LOG.debug("Indexed {} files in {}.", newIndex.size(), this.rootFolder);
+    }
+
+    /**
+     * Drop the index. An index build which is still running will not be published.
+     */
+    private void dropIndex() {
+        this.changeCount.incrementAndGet();
+        this.index = null;
+    }
+
+    /**
+     * @return true if the index is enabled and ready for lookups (for tests).
+     */
+    boolean isIndexReady() {
+        final FSIndex currentIndex = this.index;
+        return this.indexEnabled && currentIndex != null && !currentIndex.isStale(this.indexRefreshInterval);
+    }
+
+    private void updateIndex(final String relativePath) {
+        final FSIndex currentIndex = this.index;
+        if (currentIndex != null) {
+            currentIndex.update(relativePath, new File(getRootFolder(), relativePath).isFile());
+        }
+    }
+
+    public boolean isIndexEnabled() {
+        return this.indexEnabled;
+    }
+
+    /**
+     * Keep the relative paths of all files below the root folder in memory, so lookups of missing files don't call the file system. Changes
+     * are only seen if they are reported by the watcher (see {@link #setWatchInterval(long)}), written with {@link #setContent(String, byte[])}
+     * or after the {@link #setIndexRefreshInterval(long)}. The index is only used if the watcher or the refresh interval is set, otherwise every
+     * lookup asks the file system. The index is built in the background (the scan follows symbolic links); until it is ready the lookups ask the
+     * file system as well.
+     *
+     * @param indexEnabled true to index the root folder. Default is false.
+     */
+    public void setIndexEnabled(final boolean indexEnabled) {
+        this.indexEnabled = indexEnabled;
+        dropIndex();
+    }
+
+    public long getIndexRefreshInterval() {
+        return this.indexRefreshInterval;
+    }
+
+    /**
+     * @param indexRefreshIntervalMillis the maximum age of the index in milliseconds. An older index will be built again in the background, the
+     *        lookups ask the file system until it is ready.
+     *        Default is 0: the index is only updated with changes reported by the watcher, and ignored without a watcher.
+     * @see #setIndexEnabled(boolean)
+     */
+    public void setIndexRefreshInterval(final long indexRefreshIntervalMillis) {
+        this.indexRefreshInterval = Math.max(0L, indexRefreshIntervalMillis);
+    }
+
+    public boolean isStatCacheEnabled() {
+        return this.statCacheEnabled;
+    }
+
+    /**
+     * Cache the contents together with the last modification time and the length of the files. The file will be read again only if one of this
+     * attributes has changed. Has no effect while the root folder is watched (see {@link #setWatchInterval(long)}).
+     *
+     * @param statCacheEnabled true to cache the contents. Default is false.
+     */
+    public void setStatCacheEnabled(final boolean statCacheEnabled) {
+        this.statCacheEnabled = statCacheEnabled;
+        if (!statCacheEnabled) {
+            this.statCachedContents.clear();
+        }
+    }
+
+    public long getStatCacheInterval() {
+        return this.statCacheInterval;
+    }
+
+    /**
+     * @param statCacheIntervalMillis the minimum time in milliseconds between two checks of the attributes of the same file. Changes within
+     *        this time are not seen. Default is 0: the attributes are checked with every lookup.
+     * @see #setStatCacheEnabled(boolean)
+     */
+    public void setStatCacheInterval(final long statCacheIntervalMillis) {
+        this.statCacheInterval = Math.max(0L, statCacheIntervalMillis);
+    }
+
+    public int getMappingThreshold() {
+        return this.mappingThreshold;
+    }
+
+    /**
+     * Mapped files must be replaced (written to a temporary file and renamed), not rewritten in place.
+     *
+     * @param mappingThreshold the minimum size in bytes of files which {@link #getContentBuffer(String)} returns memory-mapped. Smaller files
+     *        will be read into a byte[]. Default is {@value #DEFAULT_MAPPING_THRESHOLD}.
+     */
+    public void setMappingThreshold(final int mappingThreshold) {
+        this.mappingThreshold = Math.max(1, mappingThreshold);
+    }
+
+    @SuppressWarnings("PMD.ReturnEmptyArrayRatherThanNull")
+    private byte[] getWatchedContent(final String relativePath) {
+        final String path = toWatchedPath(relativePath);
+        if (path == null) {
+            // outside of the root folder (e.g. "../x"): not watched.
+            return getContent(new File(getRootFolder(), relativePath));
+        }
+        // a read which overlaps a change will not be cached (see ValueCache).
+        final byte[] content = this.watchedContents.get(path, this.watchedContentLoader);
+        if (content == null) {
+            return null;
+        }
+        // the cached array is shared: the caller gets a copy.
+        return content.clone();
+    }
+
+    /**
+     * @return a cache with at most {@value #MAX_CACHED_FILES} files and {@value #MAX_CACHED_WEIGHT} bytes. Larger files will not be cached.
+     */
+    private static <V> ValueCache<V> createBoundedCache(final Weigher<? super V> weigher) {
+        final ValueCache<V> cache = new ValueCache<V>(weigher);
+        cache.setMaxEntries(MAX_CACHED_FILES);
+        cache.setMaxWeight(MAX_CACHED_WEIGHT);
+        return cache;
+    }
+
+    /**
+     * @return the path relative to the root folder like the {@link FSWatcher} reports it, or null if the path is not below the root folder.
+     */
+    private static String toWatchedPath(final String relativePath) {
+        String path = FilenameUtils.normalize(relativePath, true);
+        if (path == null || isWindowsRoot(path)) {
+            return null;
+        }
+        while (path.startsWith("/")) {
+            path = path.substring(1);
+        }
+        return path;
+    }
+
+    /**
+     * Will be called by the {@link FSWatcher} (or after {@link #setContent(String, byte[])}) for every created, modified or deleted file.
+     *
+     * @param relativePath the path relative to the root folder (with '/' as separator).
+     */
+    void fileChanged(final String relativePath) {
+        this.changeCount.incrementAndGet();
+        this.watchedContents.remove(relativePath);
+        removeMapping(new File(getRootFolder(), relativePath));
+        updateIndex(relativePath);
+        LOG.debug("The file {} in {} was changed.", relativePath, this.rootFolder);
+        for (final ChangeListener listener : this.changeListeners) {
+            listener.valueChanged(relativePath);
+        }
+    }
+
+    @Override
+    public void addChangeListener(final ChangeListener listener) {
+        this.changeListeners.add(listener);
+    }
+
+    public long getWatchInterval() {
+        return this.watchInterval;
+    }
+
+    /**
+     * Watch the root folder for changes. The files will be checked for changes in the given interval (the last modification time and the
+     * length).
+     *
+     * @param watchIntervalMillis the interval in milliseconds. 0 (the default) disables the watching.
+     */
+    public synchronized void setWatchInterval(final long watchIntervalMillis) {
+        this.watchInterval = Math.max(0L, watchIntervalMillis);
+        restartWatcher();
+    }
+
+    private synchronized void restartWatcher() {
+        if (this.watcher != null) {
+            this.watcher.stop();
+            this.watcher = null;
+        }
+        this.watchedContents.clear();
+        // changes without a running watcher are unknown to the index.
+        dropIndex();
+        if (this.watchInterval > 0) {
+            final FSWatcher newWatcher = new FSWatcher(getRootFolder(), this);
+            newWatcher.start(this.watchInterval);
+            this.watcher = newWatcher;
+        }
+    }
+
+    /**
+     * Stop the watcher, drop the change listeners and release the cached contents, the memory mappings and the index. Called by
+     * {@link org.settings4j.connector.FSConnector#destroy()}, e.g. on reconfiguration.
+     */
+    public synchronized void destroy() {
+        this.changeListeners.clear();
+        this.watchInterval = 0L;
+        restartWatcher();
+        this.mappedContents.clear();
+        this.statCachedContents.clear();
+    }
+
     private byte[] getContent(final File file) {
+        if (this.statCacheEnabled && this.watcher == null) {
+            return getStatCachedContent(file);
+        }
+        return readContent(file);
+    }
+
+    /**
+     * Return the cached content if the last modification time and the length of the file are unchanged. The attributes will be read at most once
+     * per {@link #getStatCacheInterval()}.
+     */
+    private byte[] getStatCachedContent(final File file) {
+        final String path = file.getAbsolutePath();
+        final StatCachedContent cachedContent = this.statCachedContents.getIfPresent(path);
+        final long now = System.currentTimeMillis();
+        if (cachedContent != null && now - cachedContent.lastChecked < this.statCacheInterval) {
+            // the cached array is shared: the caller gets a copy.
+            return cachedContent.content.clone();
+        }
+
+        final long lastModified = file.lastModified();
+        final long length = file.length();
+        if (cachedContent != null && cachedContent.lastModified == lastModified && cachedContent.length == length) {
+            cachedContent.lastChecked = now;
+            return cachedContent.content.clone();
+        }
+
+        // if the file changes while reading, the stored attributes are older than the content: the next lookup reads it again.
+        final byte[] content = readContent(file);
+        if (content == null || lastModified == 0L) {
+            this.statCachedContents.remove(path);
+        } else {
+            this.statCachedContents.put(path, new StatCachedContent(lastModified, length, content.clone(), now));
+        }
+        return content;
+    }
+
+    private byte[] readContent(final File file) {
         byte[] content = null;
         if (file.exists()) {
             try {
@@ -115,9 +647,20 @@ public class FSContentResolver implements ContentResolver {
         LOG.debug("Store content in: {}", file.getAbsolutePath());
 
         FileUtils.writeByteArrayToFile(file, value);
+        this.statCachedContents.remove(file.getAbsolutePath());
+        removeMapping(file);
+        final String path = toWatchedPath(normalizedKey);
+        if (path != null) {
+            if (this.watcher != null) {
+                // don't wait for the watcher.
+                fileChanged(path);
+            } else {
+                updateIndex(path);
+            }
+        }
     }
 
-    private boolean isWindowsRoot(final String normalizedKey) {
+    private static boolean isWindowsRoot(final String normalizedKey) {
         return normalizedKey.indexOf(':') >= 0;
     }
 
@@ -158,5 +701,43 @@ public class FSContentResolver implements ContentResolver {
         } else {
             this.rootFolder = newRootFolder;
         }
+        dropIndex();
+        if (this.watchInterval > 0) {
+            restartWatcher();
+        }
+    }
+
+    /**
+     * A cached content and the attributes of the file when it was read.
+     */
+    private static final class StatCachedContent {
+
+        private final long lastModified;
+        private final long length;
+        private final byte[] content;
+        private volatile long lastChecked;
+
+        StatCachedContent(final long lastModified, final long length, final byte[] content, final long lastChecked) {
+            super();
+            this.lastModified = lastModified;
+            this.length = length;
+            this.content = content;
+            this.lastChecked = lastChecked;
+        }
+    }
+
+    /**
+     * A memory-mapped file and the last modification time of the file when it was mapped.
+     */
+    private static final class MappedContent {
+
+        private final long lastModified;
+        private final ByteBuffer buffer;
+
+        MappedContent(final long lastModified, final ByteBuffer buffer) {
+            super();
+            this.lastModified = lastModified;
+            this.buffer = buffer;
+        }
     }
 }
@@ -0,0 +1,122 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j.contentresolver;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of the relative paths of all files below a root folder.
+ * <p>
+ * Used by the {@link FSContentResolver} to answer lookups of missing files without a call to the file system. The index is built once with a
+ * full scan (by the scheduler thread of the {@link FSWatcher}) and then kept up to date by {@link #update(String, boolean)} for every reported
+ * change.
+ * </p>
+ * <p>
+ * Symbolic links to folders are followed, but a folder which is already on the current path (a link cycle) is not scanned again.
+ * </p>
+ *
+ * @author Harald.Brabenetz
+ */
+final class FSIndex {
+
+    private final Set<String> paths = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final long createdMillis;
+
+    /**
+     * Scan all files below the given root folder.
+     *
+     * @param rootFolder the root folder.
+     */
+    FSIndex(final File rootFolder) {
+        super();
+        this.createdMillis = System.currentTimeMillis();
+        collectPaths(rootFolder, "", this.paths, new HashSet<String>());
+    }
+
+    /**
+     * @param path the normalized path relative to the root folder (with '/' as separator).
+     * @return true if the file existed with the last scan or was reported as created.
+     */
+    boolean contains(final String path) {
+        return this.paths.contains(path);
+    }
+
+    /**
+     * @param path the normalized path relative to the root folder (with '/' as separator).
+     * @param exists true if the file was created or modified, false if it was deleted.
+     */
+    void update(final String path, final boolean exists) {
+        if (exists) {
+            this.paths.add(path);
+        } else {
+            this.paths.remove(path);
+        }
+    }
+
+    /**
+     * @param refreshIntervalMillis the maximum age of the index in milliseconds. 0 for no maximum age.
+     * @return true if the index must be built again.
+     */
+    boolean isStale(final long refreshIntervalMillis) {
+        return refreshIntervalMillis > 0 && System.currentTimeMillis() - this.createdMillis >= refreshIntervalMillis;
+    }
+
+    int size() {
+        return this.paths.size();
+    }
+
+    /**
+     * @param parentFolders the canonical paths of the folders on the current path, to stop at symbolic link cycles.
+     */
+    private static void collectPaths(final File folder, final String pathPrefix, final Set<String> paths, final Set<String> parentFolders) {
+        final String canonicalPath = toCanonicalPath(folder);
+        if (!parentFolders.add(canonicalPath)) {
+            return;
+        }
+        final File[] files = folder.listFiles();
+        if (files != null) {
+            for (final File file : files) {
+                final String path = pathPrefix + file.getName();
+                if (file.isDirectory()) {
+                    collectPaths(file, path + "/", paths, parentFolders);
+                } else {
+                    paths.add(path);
+                }
+            }
+        }
+        parentFolders.remove(canonicalPath);
+    }
+
+    /**
+     * @return the canonical path of the given folder (with resolved symbolic links), or the absolute path if it cannot be resolved.
+     */
+    static String toCanonicalPath(final File folder) {
+        try {
+            return folder.getCanonicalPath();
+        } catch (final IOException e) {
+            return folder.getAbsolutePath();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j.contentresolver;
+
+import java.io.File;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.settings4j.util.DaemonThreadFactory;
+
+/**
+ * Polls the files below a root folder and reports created, modified and deleted files to the {@link FSContentResolver}.
+ * <p>
+ * java.nio.file.WatchService requires Java 7, so the changes are detected by comparing the last modification time and the length of all files
+ * in a fixed interval. The first scan only records the current state.
+ * </p>
+ * <p>
+ * The watcher references the {@link FSContentResolver} only weakly and stops itself after the resolver was garbage collected (e.g. after a new
+ * configuration).
+ * </p>
+ *
+ * @author Harald.Brabenetz
+ */
+final class FSWatcher implements Runnable {
+
+    /** General Logger for this Class. */
+    private static final org.slf4j.Logger LOG = org.slf4j.LoggerFactory.getLogger(FSWatcher.class);
+
+    private static final ScheduledExecutorService SCHEDULER = new ScheduledThreadPoolExecutor(1, new DaemonThreadFactory("settings4j-fs-watcher-"));
+
+    private final File rootFolder;
+    private final WeakReference<FSContentResolver> contentResolver;
+    // relative path (with '/') -> {lastModified, length}. Only used by the scheduler thread.
+    private Map<String, long[]> fileStates;
+    private volatile ScheduledFuture<?> task;
+
+    /**
+     * @param rootFolder the folder to watch.
+     * @param contentResolver the resolver which will be notified.
+     */
+    FSWatcher(final File rootFolder, final FSContentResolver contentResolver) {
+        super();
+        this.rootFolder = rootFolder;
+        this.contentResolver = new WeakReference<FSContentResolver>(contentResolver);
+    }
+
+    /**
+     * Run a task (e.g. an index build of the {@link FSContentResolver}) in the scheduler thread of the watchers.
+     *
+     * @param task the task.
+     */
+    static void execute(final Runnable task) {
+        SCHEDULER.execute(task);
+    }
+
+    /**
+     * Record the current state of the files and start polling.
+     *
+     * @param intervalMillis the polling interval in milliseconds.
+     */
+    void start(final long intervalMillis) {
+        scan();
+        this.task = SCHEDULER.scheduleWithFixedDelay(this, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop polling.
+     */
+    void stop() {
+        final ScheduledFuture<?> currentTask = this.task;
+        if (currentTask != null) {
+            currentTask.cancel(false);
+        }
+    }
+
+    @Override
+    public void run() {
+        final FSContentResolver resolver = this.contentResolver.get();
+        if (resolver == null) {
+            stop();
+            return;
+        }
+        try {
+            for (final String changedKey : scan()) {
+                resolver.fileChanged(changedKey);
+            }
+        } catch (final RuntimeException e) {
+            // an exception would cancel the periodic task.
+            LOG.warn("Cannot scan the folder " + this.rootFolder + " for changes.", e);
+        }
+    }
+
+    /**
+     * @return the relative paths of all created, modified and deleted files since the last scan.
+     */
+    List<String> scan() {
+        final Map<String, long[]> newStates = new HashMap<String, long[]>();
+        collectFileStates(this.rootFolder, "", newStates, new HashSet<String>());
+        final List<String> changedKeys = new ArrayList<String>();
+        if (this.fileStates != null) {
+            for (final Map.Entry<String, long[]> entry : newStates.entrySet()) {
+                final long[] oldState = this.fileStates.get(entry.getKey());
+                if (oldState == null || oldState[0] != entry.getValue()[0] || oldState[1] != entry.getValue()[1]) {
+                    changedKeys.add(entry.getKey());
+                }
+            }
+            for (final String key : this.fileStates.keySet()) {
+                if (!newStates.containsKey(key)) {
+                    changedKeys.add(key);
+                }
+            }
+        }
+        this.fileStates = newStates;
+        return changedKeys;
+    }
+
+    /**
+     * @param parentFolders the canonical paths of the folders on the current path, to stop at symbolic link cycles (see {@link FSIndex}).
+     */
+    private static void collectFileStates(final File folder, final String pathPrefix, final Map<String, long[]> states,
+        final Set<String> parentFolders) {
+        final String canonicalPath = FSIndex.toCanonicalPath(folder);
+        if (!parentFolders.add(canonicalPath)) {
+            return;
+        }
+        final File[] files = folder.listFiles();
+        if (files != null) {
+            for (final File file : files) {
+                final String path = pathPrefix + file.getName();
+                if (file.isDirectory()) {
+                    collectFileStates(file, path + "/", states, parentFolders);
+                } else {
+                    states.put(path, new long[] {file.lastModified(), file.length() });
+                }
+            }
+        }
+        parentFolders.remove(canonicalPath);
+    }
+}
@@ -19,9 +19,13 @@
  */
 package org.settings4j.contentresolver;
 
+import java.io.InputStream;
+
 import org.apache.commons.lang3.Validate;
 import org.settings4j.ContentResolver;
 import org.settings4j.Filter;
+import org.settings4j.StreamingContentResolver;
+import org.settings4j.util.ContentStreamUtil;
 
 /**
  * Wrapper to add a {@link Filter} which is used before the given {@link ContentResolver} is called.
@@ -29,7 +33,7 @@ import org.settings4j.Filter;
  * @author Harald.Brabenetz
  *
  */
-public class FilteredContentResolverWrapper implements ContentResolver {
+public class FilteredContentResolverWrapper implements StreamingContentResolver {
 
     private final ContentResolver targetContentResolver;
     private final Filter filter;
@@ -59,4 +63,12 @@ public class FilteredContentResolverWrapper implements ContentResolver {
         }
         return this.targetContentResolver.getContent(key);
     }
+
+    @Override
+    public InputStream openContent(final String key) {
+        if (!this.filter.isValid(key)) {
+            return null;
+        }
+        return ContentStreamUtil.openContent(this.targetContentResolver, key);
+    }
 }
@@ -19,8 +19,15 @@
  */
 package org.settings4j.contentresolver;
 
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
 import org.apache.commons.lang3.ArrayUtils;
+import org.settings4j.BufferedContentResolver;
 import org.settings4j.ContentResolver;
+import org.settings4j.StreamingContentResolver;
+import org.settings4j.util.ContentBufferUtil;
+import org.settings4j.util.ContentStreamUtil;
 
 /**
  * The UnionContentResolver can be an container for many other {@link ContentResolver} which will be processed in sequence.
@@ -30,7 +37,7 @@ import org.settings4j.ContentResolver;
  *
  * @author Harald.Brabenetz
  */
-public class UnionContentResolver implements ContentResolver {
+public class UnionContentResolver implements BufferedContentResolver, StreamingContentResolver {
 
     private ContentResolver[] contentResolvers = new ContentResolver[0];
 
@@ -83,6 +90,28 @@ public class UnionContentResolver implements ContentResolver {
         return result;
     }
 
+    @Override
+    public ByteBuffer getContentBuffer(final String key) {
+        for (final ContentResolver contentResolver : this.contentResolvers) {
+            final ByteBuffer result = ContentBufferUtil.getContentBuffer(contentResolver, key);
+            if (result != null) {
+                return result;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public InputStream openContent(final String key) {
+        for (final ContentResolver contentResolver : this.contentResolvers) {
+            final InputStream result = ContentStreamUtil.openContent(contentResolver, key);
+            if (result != null) {
+                return result;
+            }
+        }
+        return null;
+    }
+
     public ContentResolver[] getContentResolvers() {
         return ArrayUtils.clone(this.contentResolvers);
     }
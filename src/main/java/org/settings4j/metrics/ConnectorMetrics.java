@@ -0,0 +1,130 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * The {@link LookupMetrics} of one connector, one for each lookup type.
+ * <p>
+ * The metrics can be published as JMX MBeans with the ObjectName
+ * <code>org.settings4j:type=ConnectorMetrics,connector=&lt;connectorName&gt;,instance=&lt;id&gt;,lookup=String|Content|Object</code>.
+ * The instance id (a counter) makes the names unique, so connectors with the same name (e.g. in different webapps of one JVM) never replace
+ * each other's MBeans. The MBeans must be removed with {@link #unregisterMBeans()} when the connector is no longer used. Metrics without a
+ * connector name are not published.
+ * </p>
+ *
+ * @author Harald.Brabenetz
+ */
+public class ConnectorMetrics {
+
+    /** General Logger for this Class. */
+    private static final org.slf4j.Logger LOG = org.slf4j.LoggerFactory.getLogger(ConnectorMetrics.class);
+
+    /** The JMX domain of all settings4j MBeans. */
+    public static final String JMX_DOMAIN = "org.settings4j";
+
+    private static final AtomicLong INSTANCE_COUNTER = new AtomicLong();
+
+    private volatile String connectorName;
+    private final String instanceId = String.valueOf(INSTANCE_COUNTER.incrementAndGet());
+    private final MBeanRegistrations registrations = new MBeanRegistrations();
+    private final LookupMetrics stringMetrics = new LookupMetrics();
+    private final LookupMetrics contentMetrics = new LookupMetrics();
+    private final LookupMetrics objectMetrics = new LookupMetrics();
+
+    /**
+     * @param connectorName the name of the measured connector.
+     */
+    public ConnectorMetrics(final String connectorName) {
+        super();
+        this.connectorName = connectorName;
+    }
+
+    public String getConnectorName() {
+        return this.connectorName;
+    }
+
+    /**
+     * Rename the metrics. Already published MBeans will be published again with the new name, the counters are kept.
+     *
+     * @param connectorName the new name of the measured connector.
+     */
+    public synchronized void setConnectorName(final String connectorName) {
+        final boolean registered = !this.registrations.isEmpty();
+        unregisterMBeans();
+        this.connectorName = connectorName;
+        if (registered) {
+            registerMBeans();
+        }
+    }
+
+    public LookupMetrics getStringMetrics() {
+        return this.stringMetrics;
+    }
+
+    public LookupMetrics getContentMetrics() {
+        return this.contentMetrics;
+    }
+
+    public LookupMetrics getObjectMetrics() {
+        return this.objectMetrics;
+    }
+
+    /**
+     * Publish the metrics in the platform MBeanServer. Does nothing if the connector has no name or the metrics are already published.
+     */
+    public synchronized void registerMBeans() {
+        if (this.connectorName == null || !this.registrations.isEmpty()) {
+            return;
+        }
+        registerMBean("String", this.stringMetrics);
+        registerMBean("Content", this.contentMetrics);
+        registerMBean("Object", this.objectMetrics);
+    }
+
+    /**
+     * Remove the MBeans which were published by {@link #registerMBeans()} from the platform MBeanServer.
+     */
+    public synchronized void unregisterMBeans() {
+        this.registrations.unregisterAll();
+    }
+
+    private void registerMBean(final String lookupType, final LookupMetrics metrics) {
+        try {
+            this.registrations.register(metrics, createObjectName(lookupType));
+        } catch (final JMException e) {
+            LOG.warn("Cannot register the metrics of connector '{}': {}", this.connectorName, e.getMessage());
+        }
+    }
+
+    /**
+     * @param lookupType String, Content or Object.
+     * @return the ObjectName of the MBean for the given lookup type.
+     * @throws JMException if the connector name is not valid.
+     */
+    public ObjectName createObjectName(final String lookupType) throws JMException {
+        return new ObjectName(JMX_DOMAIN + ":type=ConnectorMetrics,connector=" + ObjectName.quote(this.connectorName) + ",instance=" + this.instanceId
+            + ",lookup=" + lookupType);
+    }
+}
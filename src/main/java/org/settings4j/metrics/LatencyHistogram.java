@@ -0,0 +1,143 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with logarithmic buckets.
+ * <p>
+ * Bucket <code>i</code> counts the latencies between 2<sup>i</sup> and 2<sup>i+1</sup>-1 nanoseconds (bucket 0 also counts 0 nanoseconds). So
+ * recording a value is one {@link Long#numberOfLeadingZeros(long)} and three atomic increments, without any allocation. Percentiles are
+ * estimated with the upper bound of the bucket, which is at most twice the real value.
+ * </p>
+ *
+ * @author Harald.Brabenetz
+ */
+public class LatencyHistogram {
+
+    private static final int BUCKET_COUNT = 64;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * @param nanos the latency in nanoseconds. Negative values are counted as 0.
+     */
+    public void record(final long nanos) {
+        final long value = Math.max(0L, nanos);
+        this.buckets.incrementAndGet(bucketIndex(value));
+        this.count.incrementAndGet();
+        this.totalNanos.addAndGet(value);
+        long currentMax = this.maxNanos.get();
+        while (value > currentMax && !this.maxNanos.compareAndSet(currentMax, value)) {
+            currentMax = this.maxNanos.get();
+        }
+    }
+
+    /**
+     * @return the number of recorded latencies.
+     */
+    public long getCount() {
+        return this.count.get();
+    }
+
+    /**
+     * @return the mean latency in nanoseconds or 0 if nothing was recorded.
+     */
+    public long getMeanNanos() {
+        final long currentCount = this.count.get();
+        if (currentCount == 0) {
+            return 0L;
+        }
+        return this.totalNanos.get() / currentCount;
+    }
+
+    /**
+     * @return the maximum latency in nanoseconds.
+     */
+    public long getMaxNanos() {
+        return this.maxNanos.get();
+    }
+
+    /**
+     * @param percentile the percentile between 0 and 100 (e.g. 99.0).
+     * @return the estimated latency in nanoseconds (the upper bound of the bucket which contains the percentile).
+     */
+    public long getPercentileNanos(final double percentile) {
+        final long[] snapshot = getBuckets();
+        long total = 0;
+        for (final long bucket : snapshot) {
+            total += bucket;
+        }
+        if (total == 0) {
+            return 0L;
+        }
+        final long rank = (long) Math.ceil(total * Math.min(100.0, Math.max(0.0, percentile)) / 100.0);
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank && snapshot[i] > 0) {
+                return Math.min(upperBound(i), getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+
+    /**
+     * @return a copy of the bucket counters.
+     */
+    public long[] getBuckets() {
+        final long[] result = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            result[i] = this.buckets.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Reset all counters.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            this.buckets.set(i, 0L);
+        }
+        this.count.set(0L);
+        this.totalNanos.set(0L);
+        this.maxNanos.set(0L);
+    }
+
+    private static int bucketIndex(final long nanos) {
+        if (nanos == 0) {
+            return 0;
+        }
+        return BUCKET_COUNT - 1 - Long.numberOfLeadingZeros(nanos);
+    }
+
+    private static long upperBound(final int bucketIndex) {
+        if (bucketIndex >= BUCKET_COUNT - 2) {
+            return Long.MAX_VALUE;
+        }
+        return (1L << (bucketIndex + 1)) - 1;
+    }
+}
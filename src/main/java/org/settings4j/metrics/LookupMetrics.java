@@ -0,0 +1,113 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hit, miss and error counters and a {@link LatencyHistogram} for one lookup type (String, Content or Object) of one connector.
+ *
+ * @author Harald.Brabenetz
+ */
+public class LookupMetrics implements LookupMetricsMBean {
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    /**
+     * Record one lookup.
+     *
+     * @param nanos the latency in nanoseconds.
+     * @param hitCount the number of keys with a value.
+     * @param missCount the number of keys without a value.
+     */
+    public void record(final long nanos, final int hitCount, final int missCount) {
+        this.latency.record(nanos);
+        if (hitCount > 0) {
+            this.hits.addAndGet(hitCount);
+        }
+        if (missCount > 0) {
+            this.misses.addAndGet(missCount);
+        }
+    }
+
+    /**
+     * Record one lookup which threw an exception.
+     *
+     * @param nanos the latency in nanoseconds.
+     */
+    public void recordError(final long nanos) {
+        this.latency.record(nanos);
+        this.errors.incrementAndGet();
+    }
+
+    /**
+     * @return the {@link LatencyHistogram} of this lookup type.
+     */
+    public LatencyHistogram getLatency() {
+        return this.latency;
+    }
+
+    @Override
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    @Override
+    public long getMisses() {
+        return this.misses.get();
+    }
+
+    @Override
+    public long getErrors() {
+        return this.errors.get();
+    }
+
+    @Override
+    public long getMeanMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(this.latency.getMeanNanos());
+    }
+
+    @Override
+    public long getP50Micros() {
+        return TimeUnit.NANOSECONDS.toMicros(this.latency.getPercentileNanos(50.0));
+    }
+
+    @Override
+    public long getP99Micros() {
+        return TimeUnit.NANOSECONDS.toMicros(this.latency.getPercentileNanos(99.0));
+    }
+
+    @Override
+    public long getMaxMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(this.latency.getMaxNanos());
+    }
+
+    @Override
+    public void reset() {
+        this.hits.set(0L);
+        this.misses.set(0L);
+        this.errors.set(0L);
+        this.latency.reset();
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j.metrics;
+
+/**
+ * JMX management interface of {@link LookupMetrics}.
+ *
+ * @author Harald.Brabenetz
+ */
+public interface LookupMetricsMBean {
+
+    /**
+     * @return the number of keys for which the connector returned a value.
+     */
+    long getHits();
+
+    /**
+     * @return the number of keys for which the connector returned no value.
+     */
+    long getMisses();
+
+    /**
+     * @return the number of lookups which threw an exception.
+     */
+    long getErrors();
+
+    /**
+     * @return the mean latency of the lookups in microseconds.
+     */
+    long getMeanMicros();
+
+    /**
+     * @return the estimated median latency of the lookups in microseconds.
+     */
+    long getP50Micros();
+
+    /**
+     * @return the estimated 99th percentile latency of the lookups in microseconds.
+     */
+    long getP99Micros();
+
+    /**
+     * @return the maximum latency of the lookups in microseconds.
+     */
+    long getMaxMicros();
+
+    /**
+     * Reset all counters.
+     */
+    void reset();
+}
@@ -0,0 +1,78 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * The MBeans which one owner has registered in the platform MBeanServer.
+ * <p>
+ * Only the remembered names will be unregistered, so an owner never removes the MBeans of another instance, even if it would create the same
+ * ObjectName.
+ * </p>
+ *
+ * @author Harald.Brabenetz
+ */
+public class MBeanRegistrations {
+
+    /** General Logger for this Class. */
+    private static final org.slf4j.Logger LOG = org.slf4j.LoggerFactory.getLogger(MBeanRegistrations.class);
+
+    private final List<ObjectName> registeredNames = new ArrayList<ObjectName>();
+
+    /**
+     * @param mBean the MBean.
+     * @param objectName the name of the MBean.
+     * @throws JMException if the MBean cannot be registered (e.g. the name is already registered).
+     */
+    public synchronized void register(final Object mBean, final ObjectName objectName) throws JMException {
+        ManagementFactory.getPlatformMBeanServer().registerMBean(mBean, objectName);
+        this.registeredNames.add(objectName);
+    }
+
+    /**
+     * @return true if no MBean is registered.
+     */
+    public synchronized boolean isEmpty() {
+        return this.registeredNames.isEmpty();
+    }
+
+    /**
+     * Unregister all MBeans which were registered with {@link #register(Object, ObjectName)}.
+     */
+    public synchronized void unregisterAll() {
+        for (final ObjectName objectName : this.registeredNames) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (final InstanceNotFoundException e) {
+                LOG.debug("The MBean {} was already unregistered.", objectName);
+            } catch (final JMException e) {
+                LOG.warn("Cannot unregister the MBean {}: {}", objectName, e.getMessage());
+            }
+        }
+        this.registeredNames.clear();
+    }
+}
@@ -19,15 +19,17 @@
  */
 package org.settings4j.objectresolver;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.settings4j.ContentResolver;
 import org.settings4j.ObjectResolver;
+import org.settings4j.util.ContentStreamUtil;
 
 /**
  * Basic Connector implementations like getter and Setter of contentResolver, objectResolver.
@@ -64,11 +66,7 @@ public abstract class AbstractObjectResolver implements ObjectResolver {
             return result;
         }
 
-
-        final byte[] content = contentResolver.getContent(key);
-        if (content == null) {
-            return null;
-        }
+        // read the small property-File first: the (possibly large) content will be read only if this ObjectResolver is responsible for it.
         final Properties properties = getObjectProperties(key, contentResolver);
         if (properties == null) {
             return null;
@@ -84,6 +82,10 @@ public abstract class AbstractObjectResolver implements ObjectResolver {
             return null;
         }
 
+        final byte[] content = contentResolver.getContent(key);
+        if (content == null) {
+            return null;
+        }
         result = contentToObject(key, properties, content, contentResolver);
         if (result != null) {
             if (isCacheEnabled(properties)) {
@@ -113,17 +115,19 @@ public abstract class AbstractObjectResolver implements ObjectResolver {
      */
     protected Properties getObjectProperties(final String key, final ContentResolver contentResolver) {
 
-        final byte[] propertyContent = contentResolver.getContent(key + this.propertySuffix);
+        final InputStream propertyContent = ContentStreamUtil.openContent(contentResolver, key + this.propertySuffix);
         if (propertyContent == null) {
             return null;
         }
         // else
         final Properties properties = new Properties();
         try {
-            properties.load(new ByteArrayInputStream(propertyContent));
+            properties.load(propertyContent);
         } catch (final IOException e) {
             LOG.error(e.getMessage(), e);
             return null;
+        } finally {
+            IOUtils.closeQuietly(propertyContent);
         }
         return properties;
 
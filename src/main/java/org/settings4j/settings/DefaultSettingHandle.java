@@ -0,0 +1,97 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j.settings;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.settings4j.SettingHandle;
+
+/**
+ * {@link SettingHandle} implementation of {@link DefaultSettings}.
+ * <p>
+ * The state is either the resolved value (or {@link #NULL_VALUE}) or a {@link Stale} marker. Every invalidation sets a new marker. A resolved value
+ * will only be stored if the marker is still the same as before the lookup, so a concurrent invalidation is never lost.
+ * </p>
+ *
+ * @param <T> the type of the value.
+ * @author Harald.Brabenetz
+ */
+class DefaultSettingHandle<T> implements SettingHandle<T> {
+
+    /** Marker for a resolved key where no connector returned a value. */
+    private static final Object NULL_VALUE = new Object();
+
+    private final DefaultSettings settings;
+    private final LookupType type;
+    private final String key;
+    private final AtomicReference<Object> state = new AtomicReference<Object>(new Stale());
+
+    /**
+     * @param settings the settings to resolve the value.
+     * @param type the lookup type.
+     * @param key the unmapped key.
+     */
+    DefaultSettingHandle(final DefaultSettings settings, final LookupType type, final String key) {
+        super();
+        this.settings = settings;
+        this.type = type;
+        this.key = key;
+    }
+
+    @Override
+    public String getKey() {
+        return this.key;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get() {
+        final Object currentState = this.state.get();
+        if (currentState == NULL_VALUE) {
+            return null;
+        }
+        if (!(currentState instanceof Stale)) {
+            return (T) currentState;
+        }
+
+        final Object value = this.settings.lookup(this.type, this.key);
+        // if the handle was invalidated in the meantime the value will be resolved again by the next call.
+        if (value == null) {
+            this.state.compareAndSet(currentState, NULL_VALUE);
+        } else {
+            this.state.compareAndSet(currentState, value);
+        }
+        return (T) value;
+    }
+
+    /**
+     * The next {@link #get()} will resolve the value again.
+     */
+    void invalidate() {
+        this.state.set(new Stale());
+    }
+
+    /**
+     * Marker for a value which must be resolved again. A new instance is used for every invalidation.
+     */
+    private static final class Stale {
+        // marker only
+    }
+}
@@ -19,36 +19,120 @@
  */
 package org.settings4j.settings;
 
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
+import org.settings4j.ChangeListener;
+import org.settings4j.ChangeNotifier;
 import org.settings4j.Connector;
 import org.settings4j.ConnectorPosition;
 import org.settings4j.ConnectorPositions;
-import org.settings4j.Settings4jInstance;
+import org.settings4j.DisposableConnector;
+import org.settings4j.ExtendedSettings4jInstance;
+import org.settings4j.SettingHandle;
+import org.settings4j.SettingsSnapshot;
+import org.settings4j.util.ContentStreamUtil;
+import org.settings4j.util.DaemonThreadFactory;
 
 /**
  * The default Settings Object.
+ * <p>
+ * The connector chain is held as an immutable array snapshot behind a volatile reference. Lookups iterate the current snapshot without any lock.
+ * Modifications ({@link #addConnector(Connector, ConnectorPosition)}, {@link #removeAllConnectors()}) copy the chain and publish the new snapshot
+ * atomically, so a concurrent lookup sees either the old or the new chain but never a half-modified one.
+ * </p>
+ * <p>
+ * Optionally the final resolved value of each key can be cached (see {@link #setCached(boolean)}). The cache also remembers keys where no connector
+ * returned a value. All cached values belong to an epoch which will be bumped by {@link #addConnector(Connector, ConnectorPosition)},
+ * {@link #removeAllConnectors()}, {@link #setMapping(Map)} and {@link #refresh()}.
+ * </p>
+ * <p>
+ * Optionally a resolution plan can be learned (see {@link #setResolutionPlanEnabled(boolean)}): for every key the index of the connector which
+ * answered it will be recorded, and the next lookup asks this connector first. The full chain will only be walked again if the recorded connector
+ * doesn't return a value anymore, or if the plan is dropped by a new epoch.
+ * </p>
+ * <p>
+ * {@link #handle(String)} returns one {@link SettingHandle} per key which holds the resolved value until the next epoch or
+ * {@link #refresh(String)} for this key.
+ * </p>
+ * <p>
+ * Asynchronous lookups (e.g. {@link #getStringAsync(String)}) run in a pluggable executor (see {@link #setExecutor(ExecutorService)}). Slow
+ * connectors can get a timeout for asynchronous lookups (see {@link #setConnectorTimeout(String, long)}) and will be skipped in chain order.
+ * </p>
+ * <p>
+ * Optionally the connectors can be asked in parallel for keys which are not cached (see {@link #setParallelProbing(boolean)}).
+ * </p>
+ * <p>
+ * Connectors which detect changes of their values (see {@link ChangeNotifier}) push the changed keys to {@link #refresh(String)}.
+ * </p>
  *
  * @author Harald.Brabenetz
  */
-public class DefaultSettings implements Settings4jInstance {
+public class DefaultSettings implements ExtendedSettings4jInstance {
 
     /** General Logger for this Class. */
     private static final org.slf4j.Logger LOG = org.slf4j.LoggerFactory.getLogger(DefaultSettings.class);
 
-    private final List<Connector> connectors = Collections.synchronizedList(new ArrayList<Connector>());
+    private static final Connector[] NO_CONNECTORS = new Connector[0];
+
+    /** Number of threads of the default executor for asynchronous lookups. */
+    private static final int DEFAULT_ASYNC_THREADS = 4;
+
+    /** Maximum number of queued asynchronous lookups of the default executor. */
+    private static final int DEFAULT_ASYNC_QUEUE_SIZE = 1000;
+
+    /** Keep-alive of idle threads of the default executor in seconds. */
+    private static final long DEFAULT_ASYNC_KEEP_ALIVE = 60L;
+
+    /** Maximum number of threads for the lookups of connectors with a timeout. */
+    private static final int MAX_PROBE_THREADS = 16;
+
+    // copy-on-write: the array is never modified after it was published.
+    private volatile Connector[] connectors = NO_CONNECTORS;
     private final Map<String, Connector> connectorMap = Collections.synchronizedMap(new HashMap<String, Connector>());
-    private Map<String, String> mapping;
+    private volatile Map<String, String> mapping;
+
+    // the connector chain, the cache and the plan of the current epoch. Read once per lookup.
+    private volatile LookupState lookupState = new LookupState(NO_CONNECTORS, null, null);
+    private final ParsedValueCache parsedValueCache = new ParsedValueCache();
+    private volatile boolean parallelProbing;
+    // connector name -> timeout in milliseconds for asynchronous lookups.
+    private final Map<String, Long> connectorTimeouts = new ConcurrentHashMap<String, Long>();
+    // null until the first asynchronous lookup if no executor was set.
+    private volatile ExecutorService executor;
+    // runs the lookups of connectors with a timeout. Separated from the executor, which runs the outer asynchronous lookups.
+    private volatile ExecutorService probeExecutor;
+    // one handle per key. Handles are intended for constant keys, so this map doesn't need to shrink.
+    private final ConcurrentMap<String, DefaultSettingHandle<String>> handles = new ConcurrentHashMap<String, DefaultSettingHandle<String>>();
 
     @Override
     public List<Connector> getConnectors() {
-        return Collections.unmodifiableList(this.connectors);
+        return Collections.unmodifiableList(Arrays.asList(this.connectors));
     }
 
     @Override
@@ -63,61 +147,759 @@ public class DefaultSettings implements Settings4jInstance {
 
     @Override
     public void addConnector(final Connector connector, final ConnectorPosition position) {
-        final int pos = position.getPosition(this.connectors);
-        Validate.isTrue(pos != ConnectorPosition.UNKNOWN_POSITION,
-            "No valid Position found to add the given connector.");
-        Validate.isTrue(this.connectorMap.get(connector.getName()) == null, //
-            "A connector with the given name '%s' already exists!", connector.getName());
-        this.connectors.add(pos, connector);
-        this.connectorMap.put(connector.getName(), connector);
+        synchronized (this) {
+            final Connector[] currentConnectors = this.connectors;
+            final int pos = position.getPosition(Collections.unmodifiableList(Arrays.asList(currentConnectors)));
+            Validate.isTrue(pos != ConnectorPosition.UNKNOWN_POSITION,
+                "No valid Position found to add the given connector.");
+            Validate.isTrue(this.connectorMap.get(connector.getName()) == null, //
+                "A connector with the given name '%s' already exists!", connector.getName());
+
+            final Connector[] newConnectors = new Connector[currentConnectors.length + 1];
+            System.arraycopy(currentConnectors, 0, newConnectors, 0, pos);
+            newConnectors[pos] = connector;
+            System.arraycopy(currentConnectors, pos, newConnectors, pos + 1, currentConnectors.length - pos);
+
+            this.connectorMap.put(connector.getName(), connector);
+            this.connectors = newConnectors;
+            nextEpoch();
+        }
+        if (connector instanceof ChangeNotifier) {
+            ((ChangeNotifier) connector).addChangeListener(new ChangeListener() {
 
+                @Override
+                public void valueChanged(final String key) {
+                    refreshChangedKey(key);
+                }
+            });
+        }
     }
 
+    /**
+     * Refresh the changed key of a connector and all keys which are mapped to it.
+     */
+    private void refreshChangedKey(final String connectorKey) {
+        refresh(connectorKey);
+        final Map<String, String> currentMapping = this.mapping;
+        if (currentMapping != null) {
+            for (final Map.Entry<String, String> entry : currentMapping.entrySet()) {
+                if (connectorKey.equals(entry.getValue())) {
+                    refresh(entry.getKey());
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove all connectors and {@link DisposableConnector#destroy() destroy} the removed {@link DisposableConnector}s.
+     */
     @Override
     public void removeAllConnectors() {
-        this.connectors.clear();
-        this.connectorMap.clear();
+        final Connector[] removedConnectors;
+        synchronized (this) {
+            removedConnectors = this.connectors;
+            this.connectors = NO_CONNECTORS;
+            this.connectorMap.clear();
+            this.connectorTimeouts.clear();
+            nextEpoch();
+        }
+        for (final Connector connector : removedConnectors) {
+            if (connector instanceof DisposableConnector) {
+                ((DisposableConnector) connector).destroy();
+            }
+        }
+    }
+
+    @Override
+    public void refresh() {
+        synchronized (this) {
+            nextEpoch();
+        }
+    }
+
+    @Override
+    public void refresh(final String key) {
+        final LookupState state = this.lookupState;
+        if (state.cache != null) {
+            state.cache.remove(key);
+        }
+        if (state.plan != null) {
+            state.plan.removeConnectorIndexes(key);
+        }
+        final DefaultSettingHandle<String> handle = this.handles.get(key);
+        if (handle != null) {
+            handle.invalidate();
+        }
+    }
+
+    @Override
+    public SettingHandle<String> handle(final String key) {
+        DefaultSettingHandle<String> handle = this.handles.get(key);
+        if (handle == null) {
+            final DefaultSettingHandle<String> newHandle = new DefaultSettingHandle<String>(this, LookupType.STRING, key);
+            handle = this.handles.putIfAbsent(key, newHandle);
+            if (handle == null) {
+                handle = newHandle;
+            }
+        }
+        return handle;
+    }
+
+    /**
+     * Bump the epoch and drop all values resolved in the previous epoch. Must be called with the monitor of this instance held.
+     */
+    private void nextEpoch() {
+        final LookupState state = this.lookupState;
+        final ResolvedValueCache newCache;
+        if (state.cache == null) {
+            newCache = null;
+        } else {
+            newCache = new ResolvedValueCache();
+        }
+        final ResolutionPlan newPlan;
+        if (state.plan == null) {
+            newPlan = null;
+        } else {
+            newPlan = new ResolutionPlan(this.connectors);
+        }
+        this.lookupState = new LookupState(this.connectors, newCache, newPlan);
+        for (final DefaultSettingHandle<String> handle : this.handles.values()) {
+            handle.invalidate();
+        }
+    }
+
+    /**
+     * @return true if the resolved values are cached.
+     */
+    public boolean isCached() {
+        return this.lookupState.cache != null;
+    }
+
+    /**
+     * Enable or disable the cache for resolved values.
+     * <p>
+     * This will be set, if you add the cached="true" attribute to the settings4j:configuration TAG in your settings4j.xml
+     * </p>
+     * <p>
+     * If enabled, every key will be resolved only once per epoch. Changes inside the connectors itself (e.g. a new System-Property) will only be
+     * visible after {@link #refresh()}.
+     * </p>
+     *
+     * @param cached true to cache the resolved values.
+     */
+    public void setCached(final boolean cached) {
+        synchronized (this) {
+            final LookupState state = this.lookupState;
+            if (cached && state.cache == null) {
+                this.lookupState = new LookupState(state.chain, new ResolvedValueCache(), state.plan);
+            } else if (!cached && state.cache != null) {
+                this.lookupState = new LookupState(state.chain, null, state.plan);
+            }
+        }
+    }
+
+    /**
+     * @return true if the connector which answered a key is recorded and asked first for the next lookup of this key.
+     */
+    public boolean isResolutionPlanEnabled() {
+        return this.lookupState.plan != null;
+    }
+
+    /**
+     * Enable or disable the learned resolution plan.
+     * <p>
+     * This will be set, if you add the resolution-plan="true" attribute to the settings4j:configuration TAG in your settings4j.xml
+     * </p>
+     * <p>
+     * If enabled, a key which was answered by a connector will be looked up in this connector only, until this connector doesn't return a value anymore.
+     * So a value which appears later in a connector with a higher priority (e.g. a new System-Property) will only be visible after {@link #refresh()}.
+     * </p>
+     *
+     * @param resolutionPlanEnabled true to learn the resolution plan.
+     */
+    public void setResolutionPlanEnabled(final boolean resolutionPlanEnabled) {
+        synchronized (this) {
+            final LookupState state = this.lookupState;
+            if (resolutionPlanEnabled && state.plan == null) {
+                this.lookupState = new LookupState(state.chain, state.cache, new ResolutionPlan(state.chain));
+            } else if (!resolutionPlanEnabled && state.plan != null) {
+                this.lookupState = new LookupState(state.chain, state.cache, null);
+            }
+        }
+    }
+
+    /**
+     * @return true if all connectors are asked in parallel for a key which is not cached.
+     */
+    public boolean isParallelProbing() {
+        return this.parallelProbing;
+    }
+
+    /**
+     * Enable or disable the parallel probing of the connectors.
+     * <p>
+     * This will be set, if you add the parallel-probing="true" attribute to the settings4j:configuration TAG in your settings4j.xml
+     * </p>
+     * <p>
+     * If enabled, all connectors will be asked in parallel for a key which is not cached (see {@link #getExecutor()}). The value of the connector
+     * with the highest priority wins as before, and the lookups of connectors with lower priority are cancelled as soon as a connector with higher
+     * priority returns a value. So the latency of a cold key is the slowest single connector instead of the sum of all connectors. The bulk
+     * methods (e.g. {@link #getStrings(Collection)}) still ask the connectors one after another.
+     * </p>
+     *
+     * @param parallelProbing true to ask the connectors in parallel.
+     */
+    public void setParallelProbing(final boolean parallelProbing) {
+        this.parallelProbing = parallelProbing;
     }
 
     @Override
     public byte[] getContent(final String key) {
+        return (byte[]) lookup(LookupType.CONTENT, key);
+    }
+
+    @Override
+    public Object getObject(final String key) {
+        return lookup(LookupType.OBJECT, key);
+    }
+
+    /**
+     * Walks the connector chain and returns the first opened stream. Streams are neither cached nor learned by the resolution plan.
+     */
+    @Override
+    public InputStream openContent(final String key) {
         final String mappedKey = mappedKey(key);
-        byte[] result = null;
         for (final Connector connector : this.connectors) {
-            result = connector.getContent(mappedKey);
+            final InputStream result = ContentStreamUtil.openContent(connector, mappedKey);
             if (result != null) {
-                logDebugFoundValueForKey("Content", key, connector);
+                logDebugFoundValueForKey(LookupType.CONTENT.getDisplayName(), key, connector);
                 return result;
             }
         }
-        return result;
+        return null;
     }
 
     @Override
-    public Object getObject(final String key) {
+    public String getString(final String key) {
+        return (String) lookup(LookupType.STRING, key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, byte[]> getContents(final Collection<String> keys) {
+        return (Map<String, byte[]>) lookupAll(LookupType.CONTENT, keys);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> getObjects(final Collection<String> keys) {
+        return (Map<String, Object>) lookupAll(LookupType.OBJECT, keys);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, String> getStrings(final Collection<String> keys) {
+        return (Map<String, String>) lookupAll(LookupType.STRING, keys);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Future<byte[]> getContentAsync(final String key) {
+        return (Future<byte[]>) lookupAsync(LookupType.CONTENT, key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Future<Object> getObjectAsync(final String key) {
+        return (Future<Object>) lookupAsync(LookupType.OBJECT, key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Future<String> getStringAsync(final String key) {
+        return (Future<String>) lookupAsync(LookupType.STRING, key);
+    }
+
+    /**
+     * Set the executor for the asynchronous lookups (e.g. {@link #getStringAsync(String)}).
+     * <p>
+     * If no executor is set, a bounded pool of {@value #DEFAULT_ASYNC_THREADS} daemon threads will be created with the first asynchronous lookup.
+     * The lookups of connectors with a timeout (see {@link #setConnectorTimeout(String, long)}) run in a separate pool of up to
+     * {@value #MAX_PROBE_THREADS} daemon threads, so they never wait in the queue behind the asynchronous lookups of this executor.
+     * </p>
+     *
+     * @param executor the executor for asynchronous lookups.
+     */
+    public void setExecutor(final ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * @return the executor for asynchronous lookups. Creates the default executor if no executor was set.
+     */
+    public ExecutorService getExecutor() {
+        ExecutorService currentExecutor = this.executor;
+        if (currentExecutor == null) {
+            synchronized (this) {
+                currentExecutor = this.executor;
+                if (currentExecutor == null) {
+                    final ThreadPoolExecutor defaultExecutor = new ThreadPoolExecutor(DEFAULT_ASYNC_THREADS, DEFAULT_ASYNC_THREADS,
+                        DEFAULT_ASYNC_KEEP_ALIVE, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(DEFAULT_ASYNC_QUEUE_SIZE),
+                        new DaemonThreadFactory("settings4j-async-"));
+                    defaultExecutor.allowCoreThreadTimeOut(true);
+                    currentExecutor = defaultExecutor;
+                    this.executor = currentExecutor;
+                }
+            }
+        }
+        return currentExecutor;
+    }
+
+    private ExecutorService getProbeExecutor() {
+        ExecutorService currentExecutor = this.probeExecutor;
+        if (currentExecutor == null) {
+            synchronized (this) {
+                currentExecutor = this.probeExecutor;
+                if (currentExecutor == null) {
+                    // no queue: a probe either gets a free thread immediately or runs in the calling thread.
+                    currentExecutor = new ThreadPoolExecutor(0, MAX_PROBE_THREADS, DEFAULT_ASYNC_KEEP_ALIVE, TimeUnit.SECONDS,
+                        new SynchronousQueue<Runnable>(), new DaemonThreadFactory("settings4j-probe-"));
+                    this.probeExecutor = currentExecutor;
+                }
+            }
+        }
+        return currentExecutor;
+    }
+
+    /**
+     * Set the timeout for the given connector in asynchronous lookups.
+     * <p>
+     * This will be set, if you add the timeout="..." attribute to the connector TAG in your settings4j.xml
+     * </p>
+     * <p>
+     * If the connector doesn't answer within the timeout, it will be skipped and the next connector in the chain will be asked. Values resolved
+     * after a skipped connector are not cached, because the skipped connector could have a value with higher priority. Synchronous lookups (e.g.
+     * {@link #getString(String)}) ignore the timeouts.
+     * </p>
+     *
+     * @param connectorName the name of the connector.
+     * @param timeoutMillis the timeout in milliseconds. 0 or less removes the timeout.
+     */
+    public void setConnectorTimeout(final String connectorName, final long timeoutMillis) {
+        if (timeoutMillis > 0) {
+            this.connectorTimeouts.put(connectorName, Long.valueOf(timeoutMillis));
+        } else {
+            this.connectorTimeouts.remove(connectorName);
+        }
+    }
+
+    /**
+     * @param connectorName the name of the connector.
+     * @return the timeout in milliseconds for asynchronous lookups or 0 if the connector has no timeout.
+     */
+    public long getConnectorTimeout(final String connectorName) {
+        final Long timeout = this.connectorTimeouts.get(connectorName);
+        if (timeout == null) {
+            return 0L;
+        }
+        return timeout.longValue();
+    }
+
+    @Override
+    public SettingsSnapshot snapshot(final Collection<String> keys) {
+        return new SettingsSnapshot(getStrings(keys));
+    }
+
+    @Override
+    public int getInt(final String key, final int defaultValue) {
+        final Integer value = (Integer) getParsedValue(key, ValueParser.INTEGER);
+        if (value == null) {
+            return defaultValue;
+        }
+        return value.intValue();
+    }
+
+    @Override
+    public long getLong(final String key, final long defaultValue) {
+        final Long value = (Long) getParsedValue(key, ValueParser.LONG);
+        if (value == null) {
+            return defaultValue;
+        }
+        return value.longValue();
+    }
+
+    @Override
+    public boolean getBoolean(final String key, final boolean defaultValue) {
+        final Boolean value = (Boolean) getParsedValue(key, ValueParser.BOOLEAN);
+        if (value == null) {
+            return defaultValue;
+        }
+        return value.booleanValue();
+    }
+
+    @Override
+    public long getDuration(final String key, final TimeUnit unit, final long defaultValue) {
+        final Long value = (Long) getParsedValue(key, ValueParser.forDuration(unit));
+        if (value == null) {
+            return defaultValue;
+        }
+        return value.longValue();
+    }
+
+    @Override
+    public <E extends Enum<E>> E getEnum(final String key, final Class<E> enumType, final E defaultValue) {
+        final E value = enumType.cast(getParsedValue(key, ValueParser.forEnum(enumType)));
+        if (value == null) {
+            return defaultValue;
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<String> getList(final String key, final List<String> defaultValue) {
+        final List<String> value = (List<String>) getParsedValue(key, ValueParser.LIST);
+        if (value == null) {
+            return defaultValue;
+        }
+        return value;
+    }
+
+    /**
+     * @param key the unmapped key.
+     * @param parser the parser for the expected type.
+     * @return the parsed value or null if no connector returned a value.
+     */
+    private Object getParsedValue(final String key, final ValueParser parser) {
+        final String rawValue = getString(key);
+        if (rawValue == null) {
+            return null;
+        }
+        return this.parsedValueCache.get(key, rawValue, parser);
+    }
+
+    private Future<?> lookupAsync(final LookupType type, final String key) {
+        return getExecutor().submit(new Callable<Object>() {
+
+            @Override
+            public Object call() throws InterruptedException {
+                if (DefaultSettings.this.connectorTimeouts.isEmpty()) {
+                    return lookup(type, key);
+                }
+                return lookupWithTimeouts(type, key);
+            }
+        });
+    }
+
+    /**
+     * Walks the connector chain like {@link #lookup(LookupType, String)}, but connectors with a timeout will be asked in a separate task and
+     * skipped if they doesn't answer in time. The resolution plan is not used here.
+     */
+    private Object lookupWithTimeouts(final LookupType type, final String key) throws InterruptedException {
+        final LookupState state = this.lookupState;
+        final ResolvedValueCache cache = state.cache;
+        if (cache != null) {
+            final Object cachedValue = cache.get(type, key);
+            if (cachedValue == ResolvedValueCache.NOT_FOUND) {
+                return null;
+            }
+            if (cachedValue != null) {
+                return cachedValue;
+            }
+        }
+
+        final long version = cache == null ? 0L : cache.getVersion(key);
         final String mappedKey = mappedKey(key);
+        boolean complete = true;
         Object result = null;
-        for (final Connector connector : this.connectors) {
-            result = connector.getObject(mappedKey);
+        for (final Connector connector : state.chain) {
+            final Long timeout = this.connectorTimeouts.get(connector.getName());
+            if (timeout == null) {
+                result = type.lookup(connector, mappedKey);
+            } else {
+                try {
+                    result = lookupWithTimeout(type, connector, mappedKey, timeout.longValue());
+                } catch (final TimeoutException e) {
+                    LOG.warn("Connector '{}' didn't return the {} for Key '{}' within {}ms. Skipped.", //
+                        connector.getName(), type.getDisplayName(), key, timeout);
+                    complete = false;
+                    continue;
+                }
+            }
             if (result != null) {
-                logDebugFoundValueForKey("Object", key, connector);
-                return result;
+                logDebugFoundValueForKey(type.getDisplayName(), key, connector);
+                break;
             }
         }
+        if (cache != null && complete) {
+            cache.put(type, key, result, version);
+        }
         return result;
     }
 
-    @Override
-    public String getString(final String key) {
+    private Object lookupWithTimeout(final LookupType type, final Connector connector, final String mappedKey, final long timeoutMillis)
+        throws InterruptedException, TimeoutException {
+        final FutureTask<Object> probe = new FutureTask<Object>(new Callable<Object>() {
+
+            @Override
+            public Object call() {
+                return type.lookup(connector, mappedKey);
+            }
+        });
+        try {
+            getProbeExecutor().execute(probe);
+        } catch (final RejectedExecutionException e) {
+            LOG.debug("No free thread for the lookup of connector '{}'. It will run in the calling thread without timeout.", connector.getName());
+            probe.run();
+        }
+        try {
+            return probe.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (final TimeoutException e) {
+            probe.cancel(true);
+            throw e;
+        } catch (final ExecutionException e) {
+            throw launderExecutionException(e);
+        }
+    }
+
+    Object lookup(final LookupType type, final String key) {
+        final LookupState state = this.lookupState;
+        final ResolvedValueCache cache = state.cache;
+        if (cache == null) {
+            return resolve(type, key, state);
+        }
+
+        final Object cachedValue = cache.get(type, key);
+        if (cachedValue == ResolvedValueCache.NOT_FOUND) {
+            return null;
+        }
+        if (cachedValue != null) {
+            return cachedValue;
+        }
+
+        final long version = cache.getVersion(key);
+        final Object result = resolve(type, key, state);
+        cache.put(type, key, result, version);
+        return result;
+    }
+
+    /**
+     * Iterates the connector chain of the given state (or follows its resolution plan) and returns the first found value.
+     *
+     * @param type the lookup type.
+     * @param key the unmapped key.
+     * @param state the state of the epoch of the lookup.
+     * @return the first found value or null.
+     */
+    private Object resolve(final LookupType type, final String key, final LookupState state) {
         final String mappedKey = mappedKey(key);
-        String result = null;
-        for (final Connector connector : this.connectors) {
-            result = connector.getString(mappedKey);
+        final ResolutionPlan plan = state.plan;
+        if (plan == null) {
+            return resolve(type, key, mappedKey, state.chain, null);
+        }
+
+        final Connector[] chain = plan.getChain();
+        final int index = plan.getConnectorIndex(type, key);
+        if (index != ResolutionPlan.UNKNOWN_INDEX) {
+            final Object result = type.lookup(chain[index], mappedKey);
+            if (result != null) {
+                logDebugFoundValueForKey(type.getDisplayName(), key, chain[index]);
+                return result;
+            }
+            // the planned connector lost the value: walk the full chain again.
+            plan.removeConnectorIndex(type, key);
+        }
+        return resolve(type, key, mappedKey, chain, plan);
+    }
+
+    private Object resolve(final LookupType type, final String key, final String mappedKey, final Connector[] chain, final ResolutionPlan plan) {
+        if (this.parallelProbing && chain.length > 1) {
+            return resolveParallel(type, key, mappedKey, chain, plan);
+        }
+        for (int i = 0; i < chain.length; i++) {
+            final Object result = type.lookup(chain[i], mappedKey);
             if (result != null) {
-                logDebugFoundValueForKey("String", key, connector);
+                logDebugFoundValueForKey(type.getDisplayName(), key, chain[i]);
+                if (plan != null) {
+                    plan.setConnectorIndex(type, key, i);
+                }
                 return result;
             }
         }
+        return null;
+    }
+
+    /**
+     * Asks all connectors in parallel, but returns the value of the first connector in chain order.
+     * <p>
+     * The first connector will be asked by the calling thread, all other connectors by the executor. Before the result of a connector is taken,
+     * the calling thread runs the probe itself if no executor thread has started it yet. So the lookup makes progress even if the executor is
+     * busy or rejects the probes.
+     * </p>
+     */
+    private Object resolveParallel(final LookupType type, final String key, final String mappedKey, final Connector[] chain,
+        final ResolutionPlan plan) {
+        final List<FutureTask<Object>> probes = new ArrayList<FutureTask<Object>>(chain.length - 1);
+        final ExecutorService currentExecutor = getExecutor();
+        for (int i = 1; i < chain.length; i++) {
+            final Connector connector = chain[i];
+            final FutureTask<Object> probe = new FutureTask<Object>(new Callable<Object>() {
+
+                @Override
+                public Object call() {
+                    return type.lookup(connector, mappedKey);
+                }
+            });
+            probes.add(probe);
+            try {
+                currentExecutor.execute(probe);
+            } catch (final RejectedExecutionException e) {
+                LOG.debug("Executor rejected the probe of connector '{}'. It will run in the calling thread.", connector.getName());
+            }
+        }
+
+        try {
+            for (int i = 0; i < chain.length; i++) {
+                final Object result;
+                if (i == 0) {
+                    result = type.lookup(chain[0], mappedKey);
+                } else {
+                    final FutureTask<Object> probe = probes.get(i - 1);
+                    // runs the probe in the calling thread if it wasn't started yet.
+                    probe.run();
+                    result = getProbeResult(probe);
+                }
+                if (result != null) {
+                    logDebugFoundValueForKey(type.getDisplayName(), key, chain[i]);
+                    if (plan != null) {
+                        plan.setConnectorIndex(type, key, i);
+                    }
+                    return result;
+                }
+            }
+            return null;
+        } finally {
+            // cancel the probes of connectors with lower priority.
+            for (final FutureTask<Object> probe : probes) {
+                probe.cancel(true);
+            }
+        }
+    }
+
+    private static Object getProbeResult(final Future<Object> probe) {
+        try {
+            return probe.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a connector.", e);
+        } catch (final ExecutionException e) {
+            throw launderExecutionException(e);
+        }
+    }
+
+    /**
+     * @param e the {@link ExecutionException} of a connector lookup.
+     * @return the unchecked cause to throw.
+     */
+    private static RuntimeException launderExecutionException(final ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+            return (RuntimeException) e.getCause();
+        }
+        if (e.getCause() instanceof Error) {
+            throw (Error) e.getCause();
+        }
+        return new IllegalStateException(e.getCause());
+    }
+
+    /**
+     * Resolves many keys with one pass through the connector chain.
+     * <p>
+     * Every connector will be asked only once for all keys which are still missing (see {@link org.settings4j.BulkConnector}).
+     * </p>
+     *
+     * @param type the lookup type.
+     * @param keys the unmapped keys.
+     * @return the found values in the order of the given keys. Keys without a value are not contained.
+     */
+    // SuppressWarnings rawtypes: the Map will be casted to the concrete type by the public methods.
+    @SuppressWarnings("rawtypes")
+    private Map lookupAll(final LookupType type, final Collection<String> keys) {
+        final LookupState state = this.lookupState;
+        final ResolvedValueCache cache = state.cache;
+        final Map<String, Object> foundValues = new HashMap<String, Object>();
+
+        // key = unmapped key; value = mapped key
+        final Map<String, String> missingKeys = new LinkedHashMap<String, String>();
+        // key = unmapped key; value = the version of the key before it was resolved
+        final Map<String, Long> versions = new HashMap<String, Long>();
+        for (final String key : keys) {
+            final Object cachedValue;
+            if (cache == null) {
+                cachedValue = null;
+            } else {
+                cachedValue = cache.get(type, key);
+            }
+            if (cachedValue == null) {
+                missingKeys.put(key, mappedKey(key));
+                if (cache != null) {
+                    versions.put(key, Long.valueOf(cache.getVersion(key)));
+                }
+            } else if (cachedValue != ResolvedValueCache.NOT_FOUND) {
+                foundValues.put(key, cachedValue);
+            }
+        }
+
+        if (!missingKeys.isEmpty()) {
+            final List<String> resolvedKeys = new ArrayList<String>(missingKeys.keySet());
+            final Map<String, Object> resolvedValues = resolveAll(type, missingKeys, state);
+            foundValues.putAll(resolvedValues);
+            if (cache != null) {
+                for (final String key : resolvedKeys) {
+                    cache.put(type, key, resolvedValues.get(key), versions.get(key).longValue());
+                }
+            }
+        }
+
+        final Map<String, Object> result = new LinkedHashMap<String, Object>();
+        for (final String key : keys) {
+            final Object value = foundValues.get(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param type the lookup type.
+     * @param keys the keys to resolve (key = unmapped key; value = mapped key). Will be modified.
+     * @param state the state of the epoch of the lookup.
+     * @return the found values (key = unmapped key).
+     */
+    private Map<String, Object> resolveAll(final LookupType type, final Map<String, String> keys, final LookupState state) {
+        final ResolutionPlan plan = state.plan;
+        final Connector[] chain = state.chain;
+
+        final Map<String, Object> result = new HashMap<String, Object>();
+        for (int i = 0; i < chain.length && !keys.isEmpty(); i++) {
+            final Set<String> mappedKeys = new HashSet<String>(keys.values());
+            final Map<String, ?> connectorValues = type.lookupAll(chain[i], mappedKeys);
+            if (connectorValues.isEmpty()) {
+                continue;
+            }
+            for (final Iterator<Map.Entry<String, String>> iter = keys.entrySet().iterator(); iter.hasNext();) {
+                final Map.Entry<String, String> entry = iter.next();
+                final Object value = connectorValues.get(entry.getValue());
+                if (value != null) {
+                    logDebugFoundValueForKey(type.getDisplayName(), entry.getKey(), chain[i]);
+                    if (plan != null) {
+                        plan.setConnectorIndex(type, entry.getKey(), i);
+                    }
+                    result.put(entry.getKey(), value);
+                    iter.remove();
+                }
+            }
+        }
         return result;
     }
 
@@ -162,11 +944,41 @@ public class DefaultSettings implements Settings4jInstance {
 
     @Override
     public void setMapping(final Map<String, String> mapping) {
-        this.mapping = mapping;
+        synchronized (this) {
+            this.mapping = mapping;
+            nextEpoch();
+        }
     }
 
     private void logDebugFoundValueForKey(final String type, final String key, final Connector connector) {
-        LOG.debug("Found {} for Key '{}' in connector '{}' ({})", //
-            type, key, connector.getName(), connector.getClass().getName());
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Found {} for Key '{}' in connector '{}' ({})", //
+                type, key, connector.getName(), connector.getClass().getName());
+        }
+    }
+
+    /**
+     * The connector chain, the {@link ResolvedValueCache} and the {@link ResolutionPlan} of one epoch.
+     * <p>
+     * They are published together behind one volatile field, so a lookup never stores a value resolved with the chain or the plan of an old
+     * epoch into the cache of a new epoch.
+     * </p>
+     */
+    private static final class LookupState {
+
+        private final Connector[] chain;
+
+        // null if caching is disabled.
+        private final ResolvedValueCache cache;
+
+        // null if the resolution plan is disabled. Bound to the same chain.
+        private final ResolutionPlan plan;
+
+        private LookupState(final Connector[] chain, final ResolvedValueCache cache, final ResolutionPlan plan) {
+            super();
+            this.chain = chain;
+            this.cache = cache;
+            this.plan = plan;
+        }
     }
 }
@@ -0,0 +1,103 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j.settings;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.settings4j.Connector;
+import org.settings4j.util.BulkConnectorUtil;
+
+/**
+ * The three kinds of values a {@link Connector} can return.
+ * <p>
+ * Used internally by {@link DefaultSettings} to share the lookup logic between getString, getContent and getObject.
+ * </p>
+ *
+ * @author Harald.Brabenetz
+ */
+enum LookupType {
+
+    /** {@link Connector#getString(String)}. */
+    STRING("String") {
+
+        @Override
+        Object lookup(final Connector connector, final String key) {
+            return connector.getString(key);
+        }
+
+        @Override
+        Map<String, ?> lookupAll(final Connector connector, final Collection<String> keys) {
+            return BulkConnectorUtil.getStrings(connector, keys);
+        }
+    },
+
+    /** {@link Connector#getContent(String)}. */
+    CONTENT("Content") {
+
+        @Override
+        Object lookup(final Connector connector, final String key) {
+            return connector.getContent(key);
+        }
+
+        @Override
+        Map<String, ?> lookupAll(final Connector connector, final Collection<String> keys) {
+            return BulkConnectorUtil.getContents(connector, keys);
+        }
+    },
+
+    /** {@link Connector#getObject(String)}. */
+    OBJECT("Object") {
+
+        @Override
+        Object lookup(final Connector connector, final String key) {
+            return connector.getObject(key);
+        }
+
+        @Override
+        Map<String, ?> lookupAll(final Connector connector, final Collection<String> keys) {
+            return BulkConnectorUtil.getObjects(connector, keys);
+        }
+    };
+
+    private final String displayName;
+
+    private LookupType(final String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return this.displayName;
+    }
+
+    /**
+     * @param connector the connector to ask.
+     * @param key the (already mapped) key.
+     * @return the value of the given connector or null.
+     */
+    abstract Object lookup(Connector connector, String key);
+
+    /**
+     * @param connector the connector to ask.
+     * @param keys the (already mapped) keys.
+     * @return the found values of the given connector. Keys without a value are not contained.
+     */
+    abstract Map<String, ?> lookupAll(Connector connector, Collection<String> keys);
+}
@@ -0,0 +1,110 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j.settings;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.settings4j.cache.ValueCache;
+import org.settings4j.cache.Weighers;
+
+/**
+ * Caches the parsed values of the typed accessors of {@link DefaultSettings}.
+ * <p>
+ * A parsed value is bound to the identity of the String-Value it was parsed from. As long as the connectors (or the resolved value cache) returns
+ * the same String instance the value will not be parsed again. A changed value is a new String instance and will be parsed and replace the old
+ * entry. So this cache doesn't need to be cleared if the settings changes.
+ * </p>
+ * <p>
+ * Every parser (compared with {@link ValueParser#equals(Object)}) has its own {@link ValueCache}, so a cache hit needs no composite key. Each of
+ * them is bounded to {@link #DEFAULT_MAX_ENTRIES} entries.
+ * </p>
+ *
+ * @author Harald.Brabenetz
+ */
+class ParsedValueCache {
+
+    /** Maximum number of cached parsed values per parser. */
+    static final long DEFAULT_MAX_ENTRIES = 10000L;
+
+    private final ConcurrentMap<ValueParser, ValueCache<ParsedValue>> parsedValues = new ConcurrentHashMap<ValueParser, ValueCache<ParsedValue>>();
+
+    ParsedValueCache() {
+        super();
+    }
+
+    /**
+     * @param key the unmapped key.
+     * @param rawValue the String-Value of the key. Must not be null.
+     * @param parser the parser for the expected type.
+     * @return the parsed value.
+     * @throws IllegalArgumentException if the value cannot be parsed.
+     */
+    Object get(final String key, final String rawValue, final ValueParser parser) {
+        final ValueCache<ParsedValue> parserValues = getParserValues(parser);
+        final ParsedValue parsedValue = parserValues.getIfPresent(key);
+        // identity check: the same String instance was already parsed.
+        if (parsedValue != null && parsedValue.rawValue == rawValue) {
+            return parsedValue.value;
+        }
+        final Object value = parser.parse(key, rawValue);
+        parserValues.put(key, new ParsedValue(rawValue, value));
+        return value;
+    }
+
+    private ValueCache<ParsedValue> getParserValues(final ValueParser parser) {
+        ValueCache<ParsedValue> parserValues = this.parsedValues.get(parser);
+        if (parserValues == null) {
+            final ValueCache<ParsedValue> newParserValues = new ValueCache<ParsedValue>(Weighers.ZERO);
+            newParserValues.setMaxEntries(DEFAULT_MAX_ENTRIES);
+            parserValues = this.parsedValues.putIfAbsent(parser, newParserValues);
+            if (parserValues == null) {
+                parserValues = newParserValues;
+            }
+        }
+        return parserValues;
+    }
+
+    /**
+     * @return the number of cached values of all parsers.
+     */
+    long size() {
+        long size = 0L;
+        for (final ValueCache<ParsedValue> parserValues : this.parsedValues.values()) {
+            size += parserValues.size();
+        }
+        return size;
+    }
+
+    /**
+     * A parsed value together with the String instance it was parsed from.
+     */
+    private static final class ParsedValue {
+
+        private final String rawValue;
+        private final Object value;
+
+        ParsedValue(final String rawValue, final Object value) {
+            super();
+            this.rawValue = rawValue;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j.settings;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.settings4j.Connector;
+
+/**
+ * The learned "resolution plan" of a {@link DefaultSettings} instance: which connector of the chain answered a key.
+ * <p>
+ * The plan is bound to one connector chain snapshot. A new plan is created every time the epoch of the {@link DefaultSettings} is bumped (connector
+ * chain, mapping or refresh), so a recorded index always refers to the chain returned by {@link #getChain()}.
+ * </p>
+ *
+ * @author Harald.Brabenetz
+ */
+class ResolutionPlan {
+
+    /** Returned by {@link #getConnectorIndex(LookupType, String)} if nothing is recorded for a key. */
+    static final int UNKNOWN_INDEX = -1;
+
+    private final Connector[] chain;
+
+    private final ConcurrentMap<String, Integer>[] connectorIndexes;
+
+    /**
+     * @param chain the connector chain this plan is bound to.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    ResolutionPlan(final Connector[] chain) {
+        super();
+        this.chain = chain;
+        final LookupType[] lookupTypes = LookupType.values();
+        this.connectorIndexes = new ConcurrentMap[lookupTypes.length];
+        for (int i = 0; i < lookupTypes.length; i++) {
+            this.connectorIndexes[i] = new ConcurrentHashMap<String, Integer>();
+        }
+    }
+
+    Connector[] getChain() {
+        return this.chain;
+    }
+
+    /**
+     * @param type the lookup type.
+     * @param key the unmapped key.
+     * @return the index of the connector which answered the key the last time or {@link #UNKNOWN_INDEX}.
+     */
+    int getConnectorIndex(final LookupType type, final String key) {
+        final Integer index = this.connectorIndexes[type.ordinal()].get(key);
+        if (index == null) {
+            return UNKNOWN_INDEX;
+        }
+        return index.intValue();
+    }
+
+    /**
+     * @param type the lookup type.
+     * @param key the unmapped key.
+     * @param index the index of the connector which answered the key.
+     */
+    void setConnectorIndex(final LookupType type, final String key, final int index) {
+        this.connectorIndexes[type.ordinal()].put(key, Integer.valueOf(index));
+    }
+
+    /**
+     * @param type the lookup type.
+     * @param key the unmapped key to forget.
+     */
+    void removeConnectorIndex(final LookupType type, final String key) {
+        this.connectorIndexes[type.ordinal()].remove(key);
+    }
+
+    /**
+     * @param key the unmapped key to remove for all lookup types.
+     */
+    void removeConnectorIndexes(final String key) {
+        for (final ConcurrentMap<String, Integer> typeIndexes : this.connectorIndexes) {
+            typeIndexes.remove(key);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j.settings;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Holds the final resolved values of one epoch of a {@link DefaultSettings} instance.
+ * <p>
+ * A new instance is created every time the epoch is bumped (connector chain, mapping or refresh). Lookups which are still running against the old
+ * instance only write into the old instance, which is not reachable anymore. So no stale value can leak into the new epoch.
+ * </p>
+ * <p>
+ * Negative results ("not found") are stored as {@link #NOT_FOUND}.
+ * </p>
+ * <p>
+ * A refresh of a single key (see {@link #remove(String)}) must not be undone by a lookup which read the old value before the refresh, but writes
+ * it after. So every key has a version (striped: keys with the same stripe share one counter), which a lookup reads with {@link #getVersion(String)}
+ * before it resolves the key, and {@link #put(LookupType, String, Object, long)} drops the value if the version has changed in the meantime.
+ * </p>
+ *
+ * @author Harald.Brabenetz
+ */
+class ResolvedValueCache {
+
+    /** Marker for a key where no connector returned a value. */
+    static final Object NOT_FOUND = new Object();
+
+    /** Number of version counters (a power of two). */
+    private static final int VERSION_STRIPES = 64;
+
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    private final ConcurrentMap<String, Object>[] values;
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    ResolvedValueCache() {
+        super();
+        final LookupType[] lookupTypes = LookupType.values();
+        this.values = new ConcurrentMap[lookupTypes.length];
+        for (int i = 0; i < lookupTypes.length; i++) {
+            this.values[i] = new ConcurrentHashMap<String, Object>();
+        }
+    }
+
+    /**
+     * @param type the lookup type.
+     * @param key the unmapped key.
+     * @return the cached value, {@link #NOT_FOUND} or null if the key wasn't resolved in this epoch.
+     */
+    Object get(final LookupType type, final String key) {
+        return this.values[type.ordinal()].get(key);
+    }
+
+    /**
+     * @param key the unmapped key.
+     * @return the current version of the key, which must be read before the key is resolved.
+     */
+    long getVersion(final String key) {
+        return this.versions.get(stripe(key));
+    }
+
+    /**
+     * @param type the lookup type.
+     * @param key the unmapped key.
+     * @param value the resolved value or null if not found.
+     * @param version the version of the key before it was resolved (see {@link #getVersion(String)}).
+     */
+    void put(final LookupType type, final String key, final Object value, final long version) {
+        final Object storedValue;
+        if (value == null) {
+            storedValue = NOT_FOUND;
+        } else {
+            storedValue = value;
+        }
+        final ConcurrentMap<String, Object> typeValues = this.values[type.ordinal()];
+        typeValues.put(key, storedValue);
+        // check after the put: a remove which bumped the version before this check will be undone here, a later one removes the value itself.
+        if (this.versions.get(stripe(key)) != version) {
+            typeValues.remove(key, storedValue);
+        }
+    }
+
+    /**
+     * @param key the unmapped key to remove for all lookup types.
+     */
+    void remove(final String key) {
+        // bump the version first, so a running lookup of this key cannot store its possibly outdated value afterwards.
+        this.versions.incrementAndGet(stripe(key));
+        for (final ConcurrentMap<String, Object> typeValues : this.values) {
+            typeValues.remove(key);
+        }
+    }
+
+    private static int stripe(final String key) {
+        final int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (VERSION_STRIPES - 1);
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j.settings;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.BooleanUtils;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Parses String-Values for the typed accessors of {@link DefaultSettings} (e.g. {@link DefaultSettings#getInt(String, int)}).
+ * <p>
+ * The parsed values are cached by {@link ParsedValueCache} per equal parser. Enum parsers are created per call (see {@link #forEnum(Class)}) and
+ * compare their enum class, so no enum class is referenced by a static field.
+ * </p>
+ *
+ * @author Harald.Brabenetz
+ */
+abstract class ValueParser {
+
+    /** Parses an {@link Integer}. */
+    static final ValueParser INTEGER = new ValueParser("Integer") {
+
+        @Override
+        Object parseValue(final String value) {
+            return Integer.valueOf(value.trim());
+        }
+    };
+
+    /** Parses a {@link Long}. */
+    static final ValueParser LONG = new ValueParser("Long") {
+
+        @Override
+        Object parseValue(final String value) {
+            return Long.valueOf(value.trim());
+        }
+    };
+
+    /** Parses a {@link Boolean} (true/false, yes/no, on/off. See {@link BooleanUtils#toBooleanObject(String)}). */
+    static final ValueParser BOOLEAN = new ValueParser("Boolean") {
+
+        @Override
+        Object parseValue(final String value) {
+            final Boolean result = BooleanUtils.toBooleanObject(value.trim());
+            if (result == null) {
+                throw new IllegalArgumentException("Not a boolean value");
+            }
+            return result;
+        }
+    };
+
+    /** Parses a comma separated list into an unmodifiable {@link List} of trimmed Strings. Empty elements are ignored. */
+    static final ValueParser LIST = new ValueParser("List") {
+
+        @Override
+        Object parseValue(final String value) {
+            final String[] elements = StringUtils.split(value, ',');
+            final List<String> result = new ArrayList<String>(elements.length);
+            for (final String element : elements) {
+                final String trimmedElement = element.trim();
+                if (trimmedElement.length() > 0) {
+                    result.add(trimmedElement);
+                }
+            }
+            return Collections.unmodifiableList(result);
+        }
+    };
+
+    private static final ValueParser[] DURATION_PARSERS;
+    static {
+        final TimeUnit[] timeUnits = TimeUnit.values();
+        DURATION_PARSERS = new ValueParser[timeUnits.length];
+        for (final TimeUnit timeUnit : timeUnits) {
+            DURATION_PARSERS[timeUnit.ordinal()] = new DurationParser(timeUnit);
+        }
+    }
+
+    private final String typeName;
+
+    private ValueParser(final String typeName) {
+        super();
+        this.typeName = typeName;
+    }
+
+    /**
+     * @param targetUnit the unit of the parsed {@link Long}.
+     * @return the parser for durations in the given unit (see {@link DurationParser}).
+     */
+    static ValueParser forDuration(final TimeUnit targetUnit) {
+        return DURATION_PARSERS[targetUnit.ordinal()];
+    }
+
+    /**
+     * @param enumType the enum class.
+     * @return a new parser for the given enum class (the enum constant name, case sensitive).
+     */
+    static ValueParser forEnum(final Class<? extends Enum<?>> enumType) {
+        return new EnumParser(enumType);
+    }
+
+    /**
+     * @param key the key of the value (only for the error message).
+     * @param value the String-Value. Must not be null.
+     * @return the parsed value. Never null.
+     * @throws IllegalArgumentException if the value cannot be parsed.
+     */
+    Object parse(final String key, final String value) {
+        try {
+            return parseValue(value);
+        } catch (final IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format("The value '%s' of the key '%s' is not a valid %s.", value, key, this.typeName), e);
+        }
+    }
+
+    /**
+     * @param value the String-Value. Must not be null.
+     * @return the parsed value. Never null.
+     * @throws IllegalArgumentException if the value cannot be parsed.
+     */
+    abstract Object parseValue(String value);
+
+    /**
+     * Parses a duration like "500ms", "30s", "5m", "2h" or "1d" into a {@link Long} of the target unit. A plain number is already in the target
+     * unit. Supported suffixes: ns, us, ms, s, m (or min), h and d.
+     */
+    private static final class DurationParser extends ValueParser {
+
+        private final TimeUnit targetUnit;
+
+        DurationParser(final TimeUnit targetUnit) {
+            super("Duration");
+            this.targetUnit = targetUnit;
+        }
+
+        @Override
+        Object parseValue(final String value) {
+            final String trimmedValue = value.trim();
+            int suffixStart = 0;
+            while (suffixStart < trimmedValue.length() && Character.isDigit(trimmedValue.charAt(suffixStart))) {
+                suffixStart++;
+            }
+            final long amount = Long.parseLong(trimmedValue.substring(0, suffixStart));
+            final String suffix = trimmedValue.substring(suffixStart).trim().toLowerCase(Locale.ENGLISH);
+            return Long.valueOf(this.targetUnit.convert(amount, toTimeUnit(suffix)));
+        }
+
+        private TimeUnit toTimeUnit(final String suffix) {
+            if (suffix.length() == 0) {
+                return this.targetUnit;
+            } else if ("ns".equals(suffix)) {
+                return TimeUnit.NANOSECONDS;
+            } else if ("us".equals(suffix)) {
+                return TimeUnit.MICROSECONDS;
+            } else if ("ms".equals(suffix)) {
+                return TimeUnit.MILLISECONDS;
+            } else if ("s".equals(suffix)) {
+                return TimeUnit.SECONDS;
+            } else if ("m".equals(suffix) || "min".equals(suffix)) {
+                return TimeUnit.MINUTES;
+            } else if ("h".equals(suffix)) {
+                return TimeUnit.HOURS;
+            } else if ("d".equals(suffix)) {
+                return TimeUnit.DAYS;
+            }
+            throw new IllegalArgumentException("Unknown duration unit '" + suffix + "'");
+        }
+    }
+
+    /**
+     * Parses the name of an enum constant.
+     */
+    private static final class EnumParser extends ValueParser {
+
+        private final Class<? extends Enum<?>> enumType;
+
+        EnumParser(final Class<? extends Enum<?>> enumType) {
+            super(enumType.getName());
+            this.enumType = enumType;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return obj instanceof EnumParser && ((EnumParser) obj).enumType == this.enumType;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.enumType.hashCode();
+        }
+
+        @Override
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        Object parseValue(final String value) {
+            return Enum.valueOf((Class) this.enumType, value.trim());
+        }
+    }
+}
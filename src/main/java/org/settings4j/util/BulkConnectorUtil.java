@@ -0,0 +1,103 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j.util;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.settings4j.BulkConnector;
+import org.settings4j.Connector;
+
+/**
+ * Helper to resolve many keys with one {@link Connector}.
+ * <p>
+ * If the Connector is a {@link BulkConnector}, the call will be delegated. Otherwise every key will be resolved one by one.
+ * </p>
+ *
+ * @author Harald.Brabenetz
+ */
+public final class BulkConnectorUtil {
+
+    /** Hide Constructor (Utility-Pattern). */
+    private BulkConnectorUtil() {
+        super();
+    }
+
+    /**
+     * @param connector the connector to ask.
+     * @param keys the keys to resolve.
+     * @return the found String-Values. Keys without a value are not contained.
+     * @see BulkConnector#getStrings(Collection)
+     */
+    public static Map<String, String> getStrings(final Connector connector, final Collection<String> keys) {
+        if (connector instanceof BulkConnector) {
+            return ((BulkConnector) connector).getStrings(keys);
+        }
+        final Map<String, String> result = new LinkedHashMap<String, String>();
+        for (final String key : keys) {
+            final String value = connector.getString(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param connector the connector to ask.
+     * @param keys the keys to resolve.
+     * @return the found byte[]-Values. Keys without a value are not contained.
+     * @see BulkConnector#getContents(Collection)
+     */
+    public static Map<String, byte[]> getContents(final Connector connector, final Collection<String> keys) {
+        if (connector instanceof BulkConnector) {
+            return ((BulkConnector) connector).getContents(keys);
+        }
+        final Map<String, byte[]> result = new LinkedHashMap<String, byte[]>();
+        for (final String key : keys) {
+            final byte[] value = connector.getContent(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param connector the connector to ask.
+     * @param keys the keys to resolve.
+     * @return the found Object-Values. Keys without a value are not contained.
+     * @see BulkConnector#getObjects(Collection)
+     */
+    public static Map<String, Object> getObjects(final Connector connector, final Collection<String> keys) {
+        if (connector instanceof BulkConnector) {
+            return ((BulkConnector) connector).getObjects(keys);
+        }
+        final Map<String, Object> result = new LinkedHashMap<String, Object>();
+        for (final String key : keys) {
+            final Object value = connector.getObject(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j.util;
+
+import java.nio.ByteBuffer;
+
+import org.settings4j.BufferedConnector;
+import org.settings4j.BufferedContentResolver;
+import org.settings4j.Connector;
+import org.settings4j.ContentResolver;
+
+/**
+ * Helper to read a content as {@link ByteBuffer} from any {@link ContentResolver} or {@link Connector}.
+ * <p>
+ * If the ContentResolver is a {@link BufferedContentResolver} (or the Connector a {@link BufferedConnector}), the call will be delegated.
+ * Otherwise the byte[] of {@link ContentResolver#getContent(String)} will be wrapped.
+ * </p>
+ *
+ * @author Harald.Brabenetz
+ */
+public final class ContentBufferUtil {
+
+    /** Hide Constructor (Utility-Pattern). */
+    private ContentBufferUtil() {
+        super();
+    }
+
+    /**
+     * @param contentResolver the ContentResolver to ask.
+     * @param key the Key for the content.
+     * @return the content as read-only buffer or null if not found.
+     * @see BufferedContentResolver#getContentBuffer(String)
+     */
+    public static ByteBuffer getContentBuffer(final ContentResolver contentResolver, final String key) {
+        if (contentResolver instanceof BufferedContentResolver) {
+            return ((BufferedContentResolver) contentResolver).getContentBuffer(key);
+        }
+        return wrap(contentResolver.getContent(key));
+    }
+
+    /**
+     * @param connector the Connector to ask.
+     * @param key the Key for the content.
+     * @return the content as read-only buffer or null if not found.
+     * @see BufferedConnector#getContentBuffer(String)
+     */
+    public static ByteBuffer getContentBuffer(final Connector connector, final String key) {
+        if (connector instanceof BufferedConnector) {
+            return ((BufferedConnector) connector).getContentBuffer(key);
+        }
+        return wrap(connector.getContent(key));
+    }
+
+    private static ByteBuffer wrap(final byte[] content) {
+        if (content == null) {
+            return null;
+        }
+        return ByteBuffer.wrap(content).asReadOnlyBuffer();
+    }
+}
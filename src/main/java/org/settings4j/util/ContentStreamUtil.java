@@ -0,0 +1,140 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import org.settings4j.Connector;
+import org.settings4j.ContentResolver;
+import org.settings4j.StreamingConnector;
+import org.settings4j.StreamingContentResolver;
+
+/**
+ * Helper to open a content as {@link InputStream} from any {@link Connector} or {@link ContentResolver}.
+ * <p>
+ * If the Connector is a {@link StreamingConnector} (or the ContentResolver a {@link StreamingContentResolver}), the call will be delegated.
+ * Otherwise the byte[] of getContent(key) will be streamed.
+ * </p>
+ *
+ * @author Harald.Brabenetz
+ */
+public final class ContentStreamUtil {
+
+    /** Hide Constructor (Utility-Pattern). */
+    private ContentStreamUtil() {
+        super();
+    }
+
+    /**
+     * @param connector the connector to ask.
+     * @param key the Key for the content.
+     * @return a new {@link InputStream} of the content or null if not found.
+     * @see StreamingConnector#openContent(String)
+     */
+    public static InputStream openContent(final Connector connector, final String key) {
+        if (connector instanceof StreamingConnector) {
+            return ((StreamingConnector) connector).openContent(key);
+        }
+        return toInputStream(connector.getContent(key));
+    }
+
+    /**
+     * @param contentResolver the ContentResolver to ask.
+     * @param key the Key for the content.
+     * @return a new {@link InputStream} of the content or null if not found.
+     * @see StreamingContentResolver#openContent(String)
+     */
+    public static InputStream openContent(final ContentResolver contentResolver, final String key) {
+        if (contentResolver instanceof StreamingContentResolver) {
+            return ((StreamingContentResolver) contentResolver).openContent(key);
+        }
+        return toInputStream(contentResolver.getContent(key));
+    }
+
+    /**
+     * @param content the content (can be null).
+     * @return a new {@link InputStream} of the content or null if the content is null.
+     */
+    public static InputStream toInputStream(final byte[] content) {
+        if (content == null) {
+            return null;
+        }
+        return new ByteArrayInputStream(content);
+    }
+
+    /**
+     * @param content the content (can be null). The position of the given buffer will not be changed.
+     * @return a new {@link InputStream} of the remaining bytes of the content or null if the content is null.
+     */
+    public static InputStream toInputStream(final ByteBuffer content) {
+        if (content == null) {
+            return null;
+        }
+        return new ByteBufferInputStream(content.duplicate());
+    }
+
+    /**
+     * {@link InputStream} which reads a {@link ByteBuffer} without a copy into a byte[].
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(final ByteBuffer buffer) {
+            super();
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            if (!this.buffer.hasRemaining()) {
+                return -1;
+            }
+            return this.buffer.get() & 0xFF;
+        }
+
+        @Override
+        public int read(final byte[] bytes, final int off, final int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!this.buffer.hasRemaining()) {
+                return -1;
+            }
+            final int count = Math.min(len, this.buffer.remaining());
+            this.buffer.get(bytes, off, count);
+            return count;
+        }
+
+        @Override
+        public long skip(final long n) {
+            final int count = (int) Math.max(0L, Math.min(n, this.buffer.remaining()));
+            this.buffer.position(this.buffer.position() + count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return this.buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class SettingsSnapshotTest {
+
+    @Test
+    public void testManyKeys() {
+        // prepare
+        final Map<String, String> values = new HashMap<String, String>();
+        for (int i = 0; i < 1000; i++) {
+            values.put("com/mycompany/key" + i, "value" + i);
+        }
+        values.put("nullValue", null);
+
+        // test
+        final SettingsSnapshot snapshot = new SettingsSnapshot(values);
+
+        // validate
+        assertThat(snapshot.size(), is(1000));
+        for (int i = 0; i < 1000; i++) {
+            assertThat(snapshot.getString("com/mycompany/key" + i), is("value" + i));
+        }
+        assertThat(snapshot.getString("nullValue"), is(nullValue()));
+        assertThat(snapshot.containsKey("nullValue"), is(false));
+        assertThat(snapshot.getString("unknown"), is(nullValue()));
+        assertThat(snapshot.toMap().size(), is(1000));
+    }
+
+    @Test
+    public void testEmpty() {
+        final SettingsSnapshot snapshot = new SettingsSnapshot(new HashMap<String, String>());
+        assertThat(snapshot.size(), is(0));
+        assertThat(snapshot.getString("unknown"), is(nullValue()));
+    }
+}
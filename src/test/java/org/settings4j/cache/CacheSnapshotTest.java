@@ -0,0 +1,139 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j.cache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CacheSnapshotTest {
+
+    /** General Logger for this Class. */
+    private static final org.slf4j.Logger LOG = org.slf4j.LoggerFactory.getLogger(CacheSnapshotTest.class);
+
+    private File testDir;
+
+    @Before
+    public void setUp() throws Exception {
+        this.testDir = new File("target/test/" + getClass().getSimpleName().toLowerCase()).getAbsoluteFile();
+        FileUtils.forceMkdir(this.testDir);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        FileUtils.deleteDirectory(this.testDir);
+    }
+
+    @Test
+    public void testWriteAndRead() throws Exception {
+        // prepare
+        final Map<String, String> strings = new LinkedHashMap<String, String>();
+        strings.put("com/mycompany/a", "value äöü");
+        strings.put("com/mycompany/notFound", null);
+        final Map<String, byte[]> contents = new LinkedHashMap<String, byte[]>();
+        contents.put("com/mycompany/content", new byte[] {0, 1, 2, -1 });
+        final File file = new File(this.testDir, "sub/snapshot.bin");
+
+        // test
+        new CacheSnapshot(strings, contents).write(file);
+        final CacheSnapshot snapshot = CacheSnapshot.read(file);
+
+        // validate: "not found" results are not stored
+        assertThat(snapshot.getStrings().size(), is(1));
+        assertThat(snapshot.getStrings().get("com/mycompany/a"), is("value äöü"));
+        assertThat(snapshot.getContents().size(), is(1));
+        assertThat(snapshot.getContents().get("com/mycompany/content"), is(new byte[] {0, 1, 2, -1 }));
+        assertThat(new File(this.testDir, "sub/snapshot.bin.tmp").exists(), is(false));
+    }
+
+    @Test
+    public void testWriteRestrictsToOwner() throws Exception {
+        // prepare
+        final Map<String, String> strings = new LinkedHashMap<String, String>();
+        strings.put("com/mycompany/password", "secret");
+        final File file = new File(this.testDir, "snapshot.bin");
+
+        // test
+        new CacheSnapshot(strings, new LinkedHashMap<String, byte[]>()).write(file);
+
+        // validate
+        final String permissions = readPermissions(file);
+        if (permissions == null) {
+            LOG.warn("File permissions cannot be read: skip testWriteRestrictsToOwner");
+            return;
+        }
+        assertThat(permissions, is("600"));
+    }
+
+    @Test
+    public void testReadCorruptFile() throws Exception {
+        // prepare
+        final Map<String, String> strings = new LinkedHashMap<String, String>();
+        strings.put("com/mycompany/a", "value");
+        final File file = new File(this.testDir, "snapshot.bin");
+        new CacheSnapshot(strings, new LinkedHashMap<String, byte[]>()).write(file);
+        // change the last char of the value
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            randomAccessFile.seek(file.length() - 9);
+            randomAccessFile.write('X');
+        } finally {
+            randomAccessFile.close();
+        }
+
+        // test & validate
+        try {
+            CacheSnapshot.read(file);
+            throw new AssertionError("IOException expected");
+        } catch (final IOException e) {
+            assertThat(e.getMessage().endsWith("wrong checksum."), is(true));
+        }
+    }
+
+    /**
+     * @return the octal POSIX permissions of the file (e.g. "600") or null if they cannot be read. java.nio.file requires Java 7.
+     */
+    private static String readPermissions(final File file) {
+        try {
+            final Process process = Runtime.getRuntime().exec(new String[] {"stat", "-c", "%a", file.getAbsolutePath() });
+            final String output = IOUtils.toString(process.getInputStream(), "UTF-8").trim();
+            if (process.waitFor() != 0) {
+                return null;
+            }
+            return output;
+        } catch (final IOException e) {
+            return null;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j.cache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.nio.charset.Charset;
+
+import org.junit.Test;
+
+public class ContentStoreTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+
+    @Test
+    public void testIntern() {
+        // prepare
+        final ContentStore contentStore = new ContentStore();
+        final byte[] content1 = "same content".getBytes(UTF_8);
+        final byte[] content2 = "same content".getBytes(UTF_8);
+        final byte[] otherContent = "other content".getBytes(UTF_8);
+
+        // test
+        final byte[] interned1 = contentStore.intern(content1);
+        final byte[] interned2 = contentStore.intern(content2);
+        final byte[] internedOther = contentStore.intern(otherContent);
+
+        // validate
+        assertThat(interned1, is(sameInstance(content1)));
+        assertThat(interned2, is(sameInstance(content1)));
+        assertThat(internedOther, is(sameInstance(otherContent)));
+        assertThat(contentStore.size(), is(2));
+        assertThat(contentStore.intern(null), is(nullValue()));
+    }
+
+    @Test
+    public void testDecode() {
+        // prepare
+        final ContentStore contentStore = new ContentStore();
+        final byte[] content1 = "äöü".getBytes(UTF_8);
+        final byte[] content2 = "äöü".getBytes(UTF_8);
+
+        // test
+        final String decoded1 = contentStore.decode(content1, UTF_8);
+        final String decoded2 = contentStore.decode(content2, UTF_8);
+        final String decodedIso = contentStore.decode(content2, ISO_8859_1);
+
+        // validate: memoized per payload and charset
+        assertThat(decoded1, is("äöü"));
+        assertThat(decoded2, is(sameInstance(decoded1)));
+        assertThat(decodedIso, is(not("äöü")));
+        assertThat(contentStore.decode(content1, ISO_8859_1), is(sameInstance(decodedIso)));
+        assertThat(contentStore.decode(null, UTF_8), is(nullValue()));
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j.cache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+public class KeyIndexTest {
+
+    private static final List<String> KEYS = Arrays.asList("com/mycompany/moduleX/a", "com/mycompany/moduleX/b", "com/mycompany/moduleY",
+        "com/mycompany", "com/other", "org/settings4j");
+
+    @Test
+    public void testCollect() {
+        // prepare
+        final KeyIndex keyIndex = createKeyIndex();
+
+        // test & validate
+        assertThat(collect(keyIndex, "com/mycompany/moduleX/"), is(keys("com/mycompany/moduleX/a", "com/mycompany/moduleX/b")));
+        assertThat(collect(keyIndex, "com/mycompany/module"),
+            is(keys("com/mycompany/moduleX/a", "com/mycompany/moduleX/b", "com/mycompany/moduleY")));
+        assertThat(collect(keyIndex, "com/mycompany").size(), is(4));
+        assertThat(collect(keyIndex, "com/mycompanyX").size(), is(0));
+        assertThat(collect(keyIndex, "com/mycompany/moduleX/a/b").size(), is(0));
+        assertThat(collect(keyIndex, "").size(), is(KEYS.size()));
+        assertThat(keyIndex.size(), is(KEYS.size()));
+        assertThat(keyIndex.add("com/other"), is(false));
+    }
+
+    @Test
+    public void testRemove() {
+        // prepare
+        final KeyIndex keyIndex = createKeyIndex();
+
+        // test
+        assertThat(keyIndex.remove("com/mycompany"), is(true));
+        assertThat(keyIndex.remove("com/mycompany"), is(false));
+        assertThat(keyIndex.remove("com/mycompany/module"), is(false));
+        assertThat(keyIndex.remove("com/mycompany/moduleX/a"), is(true));
+        assertThat(keyIndex.remove("com/mycompany/moduleY"), is(true));
+
+        // validate: the remaining keys are still found after the nodes were merged
+        assertThat(collect(keyIndex, ""), is(keys("com/mycompany/moduleX/b", "com/other", "org/settings4j")));
+        assertThat(collect(keyIndex, "com/mycompany/moduleX"), is(keys("com/mycompany/moduleX/b")));
+        assertThat(keyIndex.size(), is(3));
+
+        keyIndex.add("com/mycompany/moduleX/a");
+        assertThat(collect(keyIndex, "com/mycompany/moduleX/"), is(keys("com/mycompany/moduleX/a", "com/mycompany/moduleX/b")));
+
+        keyIndex.clear();
+        assertThat(collect(keyIndex, "").size(), is(0));
+        assertThat(keyIndex.size(), is(0));
+    }
+
+    private static KeyIndex createKeyIndex() {
+        final KeyIndex keyIndex = new KeyIndex();
+        for (final String key : KEYS) {
+            assertThat(keyIndex.add(key), is(true));
+        }
+        return keyIndex;
+    }
+
+    private static Set<String> collect(final KeyIndex keyIndex, final String prefix) {
+        final Set<String> result = new TreeSet<String>();
+        keyIndex.collect(prefix, result);
+        return result;
+    }
+
+    private static Set<String> keys(final String... keys) {
+        return new TreeSet<String>(Arrays.asList(keys));
+    }
+}
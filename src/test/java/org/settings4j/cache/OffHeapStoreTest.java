@@ -0,0 +1,97 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j.cache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+public class OffHeapStoreTest {
+
+    @Test
+    public void testStore() {
+        // prepare
+        final OffHeapStore offHeapStore = new OffHeapStore();
+        offHeapStore.setThreshold(4);
+        offHeapStore.setCapacity(10L);
+
+        // test
+        final Object small = offHeapStore.store(new byte[] {1, 2, 3 });
+        final Object large = offHeapStore.store(new byte[] {1, 2, 3, 4, 5, 6 });
+        final Object overCapacity = offHeapStore.store(new byte[] {1, 2, 3, 4, 5, 6 });
+
+        // validate
+        assertThat(small, instanceOf(byte[].class));
+        assertThat(large, instanceOf(OffHeapContent.class));
+        assertThat(overCapacity, instanceOf(byte[].class));
+        assertThat(offHeapStore.getUsedCapacity(), is(6L));
+        assertThat(offHeapStore.store(null), is(nullValue()));
+
+        assertThat(OffHeapStore.toByteArray(large), is(new byte[] {1, 2, 3, 4, 5, 6 }));
+        final ByteBuffer buffer = OffHeapStore.toByteBuffer(large);
+        assertThat(buffer.isReadOnly(), is(true));
+        assertThat(buffer.isDirect(), is(true));
+        assertThat(buffer.remaining(), is(6));
+        assertThat(OffHeapStore.toByteBuffer(small).isReadOnly(), is(true));
+
+        offHeapStore.release(large);
+        offHeapStore.release(small);
+        assertThat(offHeapStore.getUsedCapacity(), is(0L));
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+        // prepare
+        final OffHeapStore offHeapStore = new OffHeapStore();
+
+        // test & validate
+        assertThat(offHeapStore.store(new byte[OffHeapStore.DEFAULT_THRESHOLD]), instanceOf(byte[].class));
+        assertThat(offHeapStore.getUsedCapacity(), is(0L));
+    }
+
+    @Test
+    public void testReleasedByCache() {
+        // prepare
+        final OffHeapStore offHeapStore = new OffHeapStore();
+        offHeapStore.setThreshold(1);
+        offHeapStore.setCapacity(100L);
+        final ValueCache<Object> cache = new ValueCache<Object>(Weighers.CONTENT);
+        cache.setRemovalListener(offHeapStore);
+        cache.setMaxEntries(2L);
+
+        // test: the third entry evicts one, the replaced and the removed entries are released
+        cache.put("a", offHeapStore.store(new byte[10]));
+        cache.put("b", offHeapStore.store(new byte[10]));
+        cache.put("c", offHeapStore.store(new byte[10]));
+        assertThat(offHeapStore.getUsedCapacity(), is(20L));
+        cache.put("c", offHeapStore.store(new byte[5]));
+        assertThat(offHeapStore.getUsedCapacity(), is(15L));
+        cache.clear();
+
+        // validate
+        assertThat(offHeapStore.getUsedCapacity(), is(0L));
+        assertThat(cache.getWeight(), is(0L));
+    }
+}
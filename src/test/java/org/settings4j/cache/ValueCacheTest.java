@@ -0,0 +1,504 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j.cache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.settings4j.settings.DefaultFilter;
+
+public class ValueCacheTest {
+
+    @Test
+    public void testGetCachesValuesAndNulls() {
+        // prepare
+        final CountingLoader loader = new CountingLoader();
+        loader.values.put("a", "valueA");
+        final ValueCache<String> cache = new ValueCache<String>(Weighers.STRING);
+
+        // test
+        assertThat(cache.get("a", loader), is("valueA"));
+        assertThat(cache.get("a", loader), is("valueA"));
+        assertThat(cache.get("unknown", loader), is(nullValue()));
+        assertThat(cache.get("unknown", loader), is(nullValue()));
+
+        // validate
+        assertThat(loader.count, is(2));
+        assertThat(cache.size(), is(2L));
+        assertThat(cache.getWeight(), is(12L));
+    }
+
+    @Test
+    public void testGetAll() {
+        // prepare
+        final CountingLoader loader = new CountingLoader();
+        loader.values.put("a", "valueA");
+        loader.values.put("b", "valueB");
+        final ValueCache<String> cache = new ValueCache<String>(Weighers.STRING);
+        cache.get("b", loader);
+
+        // test
+        final Map<String, String> result = cache.getAll(Arrays.asList("b", "unknown", "a"), loader);
+
+        // validate
+        assertThat(result.keySet().toString(), is("[b, a]"));
+        assertThat(loader.count, is(1));
+        assertThat(loader.bulkCount, is(1));
+        assertThat(cache.size(), is(3L));
+    }
+
+    @Test
+    public void testMaxEntriesIsScanResistant() {
+        // prepare
+        final CountingLoader loader = new CountingLoader();
+        final ValueCache<String> cache = new ValueCache<String>(Weighers.STRING);
+        cache.setMaxEntries(10);
+        for (int i = 0; i < 5; i++) {
+            loader.values.put("hot" + i, "value");
+            cache.get("hot" + i, loader);
+            // second hit: promoted into the protected segment
+            cache.get("hot" + i, loader);
+        }
+
+        // test: scan many keys which are only read once
+        for (int i = 0; i < 1000; i++) {
+            cache.get("scan" + i, loader);
+        }
+
+        // validate
+        assertThat(cache.size(), is(10L));
+        final int count = loader.count;
+        for (int i = 0; i < 5; i++) {
+            cache.get("hot" + i, loader);
+        }
+        assertThat(loader.count, is(count));
+    }
+
+    @Test
+    public void testMaxWeight() {
+        // prepare
+        final ValueCache<byte[]> cache = new ValueCache<byte[]>(Weighers.BYTE_ARRAY);
+        cache.setMaxWeight(100);
+
+        // test
+        cache.put("a", new byte[40]);
+        cache.put("b", new byte[40]);
+        cache.put("c", new byte[40]);
+        cache.put("tooHeavy", new byte[101]);
+
+        // validate: "a" was evicted, the too heavy value was not cached
+        assertThat(cache.size(), is(2L));
+        assertThat(cache.getWeight(), is(80L));
+
+        // setting a lower limit evicts immediately
+        cache.setMaxWeight(50);
+        assertThat(cache.size(), is(1L));
+        cache.clear();
+        assertThat(cache.getWeight(), is(0L));
+    }
+
+    @Test
+    public void testExpireAfterWrite() throws Exception {
+        // prepare
+        final CountingLoader loader = new CountingLoader();
+        loader.values.put("a", "valueA");
+        final ValueCache<String> cache = new ValueCache<String>(Weighers.STRING);
+        cache.setExpireAfterWrite(1000L);
+        cache.setNegativeExpireAfterWrite(20L);
+
+        // test
+        cache.get("a", loader);
+        cache.get("unknown", loader);
+        Thread.sleep(50L);
+        cache.get("a", loader);
+        cache.get("unknown", loader);
+
+        // validate: only the negative entry expired
+        assertThat(loader.count, is(3));
+    }
+
+    @Test
+    public void testRefreshAfterWrite() throws Exception {
+        // prepare
+        final CountingLoader loader = new CountingLoader();
+        loader.values.put("a", "value1");
+        final ValueCache<String> cache = new ValueCache<String>(Weighers.STRING);
+        cache.setRefreshAfterWrite(20L);
+        cache.setRefreshExecutor(new Executor() {
+
+            @Override
+            public void execute(final Runnable command) {
+                command.run();
+            }
+        });
+        assertThat(cache.get("a", loader), is("value1"));
+        loader.values.put("a", "value2");
+
+        // test
+        Thread.sleep(50L);
+
+        // validate: the old value is returned while the refresh runs, then the new value
+        assertThat(cache.get("a", loader), is("value1"));
+        assertThat(cache.get("a", loader), is("value2"));
+        assertThat(loader.count, is(2));
+        assertThat(cache.size(), is(1L));
+    }
+
+    @Test
+    public void testRefreshWithRejectingExecutor() throws Exception {
+        // prepare
+        final CountingLoader loader = new CountingLoader();
+        loader.values.put("a", "value1");
+        final ValueCache<String> cache = new ValueCache<String>(Weighers.STRING);
+        cache.setRefreshAfterWrite(20L);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.shutdown();
+        cache.setRefreshExecutor(executor);
+        cache.get("a", loader);
+        Thread.sleep(50L);
+
+        // test & validate: the old value is still returned
+        assertThat(cache.get("a", loader), is("value1"));
+        assertThat(cache.get("a", loader), is("value1"));
+    }
+
+    @Test
+    public void testRemoveWhileLoading() throws Exception {
+        // prepare: the loader reads the old value, then the key is removed (e.g. a change notification) before the load is done
+        final ValueCache<String> cache = new ValueCache<String>(Weighers.STRING);
+        final CountDownLatch loadStarted = new CountDownLatch(1);
+        final CountDownLatch releaseLoad = new CountDownLatch(1);
+        final CountingLoader slowLoader = new CountingLoader() {
+
+            @Override
+            public String load(final String key) {
+                final String value = super.load(key);
+                loadStarted.countDown();
+                try {
+                    releaseLoad.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return value;
+            }
+        };
+        slowLoader.values.put("a", "oldValue");
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            // test
+            final Future<String> result = executor.submit(new Callable<String>() {
+
+                @Override
+                public String call() {
+                    return cache.get("a", slowLoader);
+                }
+            });
+            loadStarted.await();
+            slowLoader.values.put("a", "newValue");
+            cache.remove("a");
+            releaseLoad.countDown();
+
+            // validate: the outdated value is returned to the loading caller, but not cached
+            assertThat(result.get(5, TimeUnit.SECONDS), is("oldValue"));
+            assertThat(cache.size(), is(0L));
+            assertThat(cache.get("a", slowLoader), is("newValue"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSingleFlightLoading() throws Exception {
+        // prepare
+        final ValueCache<String> cache = new ValueCache<String>(Weighers.STRING);
+        final AtomicInteger loadCount = new AtomicInteger();
+        final CountDownLatch loadStarted = new CountDownLatch(1);
+        final CountDownLatch releaseLoad = new CountDownLatch(1);
+        final CacheLoader<String> slowLoader = new CountingLoader() {
+
+            @Override
+            public String load(final String key) {
+                loadCount.incrementAndGet();
+                loadStarted.countDown();
+                try {
+                    releaseLoad.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "slowValue";
+            }
+        };
+        final ExecutorService executor = Executors.newFixedThreadPool(20);
+        final List<Future<String>> results = new ArrayList<Future<String>>();
+
+        try {
+            // test: 20 concurrent misses of the same key
+            results.add(executor.submit(new Callable<String>() {
+
+                @Override
+                public String call() {
+                    return cache.get("a", slowLoader);
+                }
+            }));
+            loadStarted.await();
+            for (int i = 1; i < 20; i++) {
+                results.add(executor.submit(new Callable<String>() {
+
+                    @Override
+                    public String call() {
+                        return cache.get("a", slowLoader);
+                    }
+                }));
+            }
+            final Future<Map<String, String>> bulkResult = executor.submit(new Callable<Map<String, String>>() {
+
+                @Override
+                public Map<String, String> call() {
+                    return cache.getAll(Arrays.asList("a"), slowLoader);
+                }
+            });
+            Thread.sleep(50L);
+            releaseLoad.countDown();
+
+            // validate: only one load, all threads got the value
+            for (final Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS), is("slowValue"));
+            }
+            assertThat(bulkResult.get(5, TimeUnit.SECONDS).get("a"), is("slowValue"));
+            assertThat(loadCount.get(), is(1));
+        } finally {
+            releaseLoad.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testConcurrentHitsAndEviction() throws Exception {
+        // prepare
+        final ValueCache<String> cache = new ValueCache<String>(Weighers.STRING);
+        cache.setMaxEntries(50L);
+        final CountingLoader loader = new CountingLoader();
+        for (int i = 0; i < 200; i++) {
+            loader.values.put("key" + i, "value" + i);
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        final List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+
+        try {
+            // test: concurrent hits of hot keys while other threads load (and evict) cold keys
+            for (int t = 0; t < 8; t++) {
+                final int thread = t;
+                results.add(executor.submit(new Callable<Boolean>() {
+
+                    @Override
+                    public Boolean call() {
+                        for (int i = 0; i < 2000; i++) {
+                            final int keyIndex;
+                            if (thread % 2 == 0) {
+                                keyIndex = i % 10;
+                            } else {
+                                keyIndex = 10 + i % 190;
+                            }
+                            if (!("value" + keyIndex).equals(cache.get("key" + keyIndex, loader))) {
+                                return Boolean.FALSE;
+                            }
+                        }
+                        return Boolean.TRUE;
+                    }
+                }));
+            }
+
+            // validate: every thread got the correct values and the limit holds
+            for (final Future<Boolean> result : results) {
+                assertThat(result.get(30, TimeUnit.SECONDS), is(Boolean.TRUE));
+            }
+            assertThat(cache.size(), is(50L));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testStats() {
+        // prepare
+        final ValueCache<String> cache = new ValueCache<String>(Weighers.STRING);
+        cache.setMaxEntries(2L);
+        final CountingLoader loader = new CountingLoader();
+        loader.values.put("a", "valueA");
+        loader.values.put("b", "valueB");
+        loader.values.put("c", "valueC");
+
+        // test
+        cache.get("a", loader);
+        cache.get("a", loader);
+        cache.get("x", loader);
+        cache.getAll(Arrays.asList("a", "b", "c"), loader);
+
+        // validate
+        final CacheStats stats = cache.getStats();
+        assertThat(stats.getHitCount(), is(2L));
+        assertThat(stats.getMissCount(), is(4L));
+        assertThat(stats.getHitRate(), is(2.0 / 6));
+        assertThat(stats.getLoadCount(), is(3L));
+        assertThat(stats.getLoadFailureCount(), is(0L));
+        assertThat(stats.getEvictionCount(), is(2L));
+        assertThat(stats.getSize(), is(2L));
+        assertThat(stats.getWeight(), is(cache.getWeight()));
+
+        stats.reset();
+        assertThat(stats.getHitCount(), is(0L));
+        assertThat(stats.getLoadCount(), is(0L));
+        assertThat(stats.getSize(), is(2L));
+    }
+
+    @Test
+    public void testStatsDump() {
+        // prepare
+        final ValueCache<byte[]> cache = new ValueCache<byte[]>(Weighers.BYTE_ARRAY);
+        cache.put("org/settings4j/b", new byte[] {1, 2, 3 });
+        cache.put("org/settings4j/a", null);
+        cache.put("com/other", new byte[] {1 });
+
+        // test
+        final String dump = cache.getStats().dump("org/");
+
+        // validate
+        final String lineSeparator = System.getProperty("line.separator");
+        assertThat(dump, is("org/settings4j/a = (not found)" + lineSeparator + "org/settings4j/b = byte[3]" + lineSeparator));
+        assertThat(cache.getEntries(null).size(), is(3));
+    }
+
+    @Test
+    public void testRemoveByPrefixAndMatching() {
+        // prepare
+        final ValueCache<String> cache = new ValueCache<String>(Weighers.STRING);
+        cache.put("com/mycompany/moduleX/a", "a");
+        cache.put("com/mycompany/moduleX/b", null);
+        cache.put("com/mycompany/moduleY/c", "c");
+        cache.put("com/mycompany/moduleY/d", "d");
+        cache.put("org/settings4j", "e");
+        final DefaultFilter filter = new DefaultFilter();
+        filter.addInclude(".*/d");
+
+        // test & validate
+        assertThat(cache.removeByPrefix("com/mycompany/moduleX/"), is(2));
+        assertThat(cache.removeMatching(filter), is(1));
+        assertThat(cache.getEntries("").keySet(), is((Set<String>) new TreeSet<String>(Arrays.asList("com/mycompany/moduleY/c", "org/settings4j"))));
+        assertThat(cache.size(), is(2L));
+        assertThat(cache.getWeight(), is(4L));
+    }
+
+    @Test
+    public void testPreloadIsRevalidated() {
+        // prepare
+        final CountingLoader loader = new CountingLoader();
+        loader.values.put("a", "newValue");
+        final ValueCache<String> cache = new ValueCache<String>(Weighers.STRING);
+        cache.setRefreshExecutor(new Executor() {
+
+            @Override
+            public void execute(final Runnable command) {
+                command.run();
+            }
+        });
+        cache.put("b", "currentValue");
+
+        // test
+        cache.preload("a", "snapshotValue");
+        cache.preload("b", "snapshotValue");
+
+        // validate: the preloaded value is served once and refreshed, existing values are not replaced
+        assertThat(cache.get("a", loader), is("snapshotValue"));
+        assertThat(cache.get("a", loader), is("newValue"));
+        assertThat(cache.get("a", loader), is("newValue"));
+        assertThat(cache.get("b", loader), is("currentValue"));
+        assertThat(loader.count, is(1));
+    }
+
+    @Test
+    public void testSingleFlightLoadingWithException() {
+        // prepare
+        final ValueCache<String> cache = new ValueCache<String>(Weighers.STRING);
+        final CountingLoader failingLoader = new CountingLoader() {
+
+            @Override
+            public String load(final String key) {
+                throw new IllegalStateException("connector not available");
+            }
+        };
+
+        // test & validate: the exception is not cached
+        for (int i = 0; i < 2; i++) {
+            try {
+                cache.get("a", failingLoader);
+                throw new AssertionError("IllegalStateException expected");
+            } catch (final IllegalStateException e) {
+                assertThat(e.getMessage(), is("connector not available"));
+            }
+        }
+        assertThat(cache.size(), is(0L));
+        assertThat(cache.getStats().getLoadFailureCount(), is(2L));
+    }
+
+    private static class CountingLoader implements CacheLoader<String> {
+
+        private final Map<String, String> values = new HashMap<String, String>();
+        private int count;
+        private int bulkCount;
+
+        @Override
+        public String load(final String key) {
+            this.count++;
+            return this.values.get(key);
+        }
+
+        @Override
+        public Map<String, String> loadAll(final Collection<String> keys) {
+            this.bulkCount++;
+            final Map<String, String> result = new HashMap<String, String>();
+            for (final String key : keys) {
+                if (this.values.containsKey(key)) {
+                    result.put(key, this.values.get(key));
+                }
+            }
+            return result;
+        }
+    }
+}
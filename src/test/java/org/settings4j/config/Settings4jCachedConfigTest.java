@@ -0,0 +1,79 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j.config;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import org.junit.After;
+import org.junit.Test;
+import org.settings4j.Settings4jInstance;
+import org.settings4j.Settings4jRepository;
+import org.settings4j.settings.DefaultSettings;
+import org.settings4j.test.TestUtils;
+
+public class Settings4jCachedConfigTest extends AbstractTestSettings4jConfig {
+
+    private static final String TEST_KEY = "org/settings4j/config/cachedValue";
+
+    @Override
+    @After
+    public void tearDown() throws Exception {
+        System.clearProperty(TEST_KEY);
+        super.tearDown();
+    }
+
+    @Test
+    public void testCachedSettings() {
+        final Settings4jRepository settingsRepository = TestUtils
+            .getConfiguredSettingsRepository("org/settings4j/config/testConfigCached.xml");
+
+        final Settings4jInstance settings = settingsRepository.getSettings();
+        assertThat(((DefaultSettings) settings).isCached(), is(true));
+        assertThat(((DefaultSettings) settings).getConnectorTimeout("SystemPropertyConnector"), is(500L));
+
+        // negative value is cached
+        assertThat(settings.getString(TEST_KEY), is(nullValue()));
+        System.setProperty(TEST_KEY, "value1");
+        assertThat(settings.getString(TEST_KEY), is(nullValue()));
+
+        // refresh
+        ((DefaultSettings) settings).refresh();
+        assertThat(settings.getString(TEST_KEY), is("value1"));
+        System.setProperty(TEST_KEY, "value2");
+        assertThat(settings.getString(TEST_KEY), is("value1"));
+        ((DefaultSettings) settings).refresh();
+        assertThat(settings.getString(TEST_KEY), is("value2"));
+    }
+
+    @Test
+    public void testNotCachedSettings() {
+        final Settings4jRepository settingsRepository = TestUtils
+            .getConfiguredSettingsRepository("org/settings4j/config/testConfigMapping.xml");
+
+        final Settings4jInstance settings = settingsRepository.getSettings();
+        assertThat(((DefaultSettings) settings).isCached(), is(false));
+
+        assertThat(settings.getString(TEST_KEY), is(nullValue()));
+        System.setProperty(TEST_KEY, "value1");
+        assertThat(settings.getString(TEST_KEY), is("value1"));
+    }
+}
@@ -39,6 +39,7 @@ import org.junit.Test;
 import org.settings4j.Connector;
 import org.settings4j.Settings4jInstance;
 import org.settings4j.Settings4jRepository;
+import org.settings4j.connector.FSConnector;
 import org.settings4j.settings.SettingsManager;
 import org.settings4j.test.TestUtils;
 
@@ -87,6 +88,26 @@ public class Settings4jConfigTest extends AbstractTestSettings4jConfig {
     }
 
 
+    /**
+     * test for the statCacheEnabled, statCacheInterval and mappingThreshold params of the {@link org.settings4j.connector.FSConnector}.
+     *
+     * @throws Exception in case of an error.
+     */
+    @Test
+    public void testFSConfigStatCache() throws Exception {
+        final Settings4jRepository settingsRepository = TestUtils
+            .getConfiguredSettingsRepository("org/settings4j/config/testConfigFSStatCache.xml");
+
+        final Settings4jInstance settings = settingsRepository.getSettings();
+        final FSConnector connector = (FSConnector) settings.getConnector("FSConnector");
+        assertThat(connector.isStatCacheEnabled(), is(true));
+        assertThat(connector.getStatCacheInterval(), is(1000L));
+        assertThat(connector.getMappingThreshold(), is(1048576));
+
+        FileUtils.writeStringToFile(new File(TestUtils.getTmpFolder(), "xyz"), "abc", "UTF-8");
+        assertThat(settings.getString("xyz"), is("abc"));
+    }
+
     /**
      * test for {@link org.settings4j.connector.FSConnector}.
      *
@@ -0,0 +1,210 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j.connector;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Properties;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+import org.settings4j.contentresolver.ClasspathContentResolver;
+import org.settings4j.metrics.ConnectorMetrics;
+import org.settings4j.metrics.LookupMetrics;
+import org.settings4j.settings.DefaultSettings;
+
+public class MetricsConnectorWrapperTest {
+
+    @Test
+    public void testMetrics() {
+        // prepare
+        final Properties properties = new Properties();
+        properties.setProperty("key", "value");
+        final PropertyFileConnector connector = new PropertyFileConnector();
+        connector.setName("metricsTestConnector");
+        connector.setProperty(properties);
+        final MetricsConnectorWrapper wrapper = new MetricsConnectorWrapper(connector);
+
+        // test
+        assertThat(wrapper.getString("key"), is("value"));
+        assertThat(wrapper.getString("unknown"), is(nullValue()));
+        assertThat(wrapper.getStrings(Arrays.asList("key", "unknown", "unknown2")).size(), is(1));
+        assertThat(wrapper.getObject("key"), is(nullValue()));
+
+        // validate
+        final ConnectorMetrics metrics = wrapper.getMetrics();
+        assertThat(metrics.getConnectorName(), is("metricsTestConnector"));
+        assertThat(metrics.getStringMetrics().getHits(), is(2L));
+        assertThat(metrics.getStringMetrics().getMisses(), is(3L));
+        assertThat(metrics.getStringMetrics().getLatency().getCount(), is(3L));
+        assertThat(metrics.getObjectMetrics().getMisses(), is(1L));
+        assertThat(metrics.getContentMetrics().getLatency().getCount(), is(0L));
+    }
+
+    @Test
+    public void testContentBufferOfOffHeapCachedConnector() {
+        // prepare
+        final Properties properties = new Properties();
+        properties.setProperty("key", "org/settings4j/contentresolver/HelloWorld.txt");
+        final PropertyFileConnector connector = new PropertyFileConnector();
+        connector.setName("metricsBufferTestConnector");
+        connector.setProperty(properties);
+        connector.setContentResolver(new ClasspathContentResolver());
+        final CachedConnectorWrapper cachedConnector = new CachedConnectorWrapper(connector);
+        cachedConnector.setOffHeapThreshold(1);
+        cachedConnector.setOffHeapCapacity(1024L);
+        final MetricsConnectorWrapper wrapper = new MetricsConnectorWrapper(cachedConnector);
+
+        // test
+        final ByteBuffer buffer = wrapper.getContentBuffer("key");
+
+        // validate: the off-heap content is passed through without a copy into the heap
+        assertThat(buffer.isDirect(), is(true));
+        assertThat(buffer.isReadOnly(), is(true));
+        assertThat(buffer.remaining(), is("Hello World".length()));
+        assertThat(wrapper.getContentBuffer("unknown"), is(nullValue()));
+        assertThat(wrapper.getMetrics().getContentMetrics().getHits(), is(1L));
+        assertThat(wrapper.getMetrics().getContentMetrics().getMisses(), is(1L));
+    }
+
+    @Test
+    public void testJmxRegistration() throws Exception {
+        // prepare
+        final PropertyFileConnector connector = new PropertyFileConnector();
+        connector.setName("metrics:Test,Connector");
+        connector.setProperty(new Properties());
+        final MetricsConnectorWrapper wrapper = new MetricsConnectorWrapper(connector);
+        final MetricsConnectorWrapper sameNameWrapper = new MetricsConnectorWrapper(connector);
+        final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName objectName = wrapper.getMetrics().createObjectName("String");
+        final ObjectName sameNameObjectName = sameNameWrapper.getMetrics().createObjectName("String");
+
+        try {
+            // test
+            wrapper.init();
+            wrapper.getString("unknown");
+            sameNameWrapper.init();
+
+            // validate
+            assertThat(mBeanServer.isRegistered(objectName), is(true));
+            assertThat((Long) mBeanServer.getAttribute(objectName, "Misses"), is(1L));
+
+            // a wrapper with the same connector name does not replace the MBean
+            assertThat(sameNameObjectName.equals(objectName), is(false));
+            assertThat((Long) mBeanServer.getAttribute(sameNameObjectName, "Misses"), is(0L));
+        } finally {
+            wrapper.destroy();
+            sameNameWrapper.destroy();
+        }
+        assertThat(mBeanServer.isRegistered(objectName), is(false));
+        assertThat(mBeanServer.isRegistered(sameNameObjectName), is(false));
+    }
+
+    @Test
+    public void testJmxRegistrationWithoutName() throws Exception {
+        // prepare
+        final PropertyFileConnector connector = new PropertyFileConnector();
+        connector.setProperty(new Properties());
+        final MetricsConnectorWrapper wrapper = new MetricsConnectorWrapper(connector);
+
+        // test: a connector without name is measured, but not published
+        wrapper.init();
+        wrapper.getString("unknown");
+        wrapper.destroy();
+
+        // validate
+        assertThat(wrapper.getMetrics().getStringMetrics().getMisses(), is(1L));
+    }
+
+    @Test
+    public void testSetNameMovesMBeans() throws Exception {
+        // prepare
+        final PropertyFileConnector connector = new PropertyFileConnector();
+        connector.setName("metricsOldName");
+        connector.setProperty(new Properties());
+        final MetricsConnectorWrapper wrapper = new MetricsConnectorWrapper(connector);
+        final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName oldObjectName = wrapper.getMetrics().createObjectName("String");
+        wrapper.init();
+        wrapper.getString("unknown");
+
+        try {
+            // test
+            wrapper.setName("metricsNewName");
+
+            // validate: the counters are kept under the new name
+            final ObjectName newObjectName = wrapper.getMetrics().createObjectName("String");
+            assertThat(mBeanServer.isRegistered(oldObjectName), is(false));
+            assertThat((Long) mBeanServer.getAttribute(newObjectName, "Misses"), is(1L));
+        } finally {
+            wrapper.destroy();
+        }
+    }
+
+    @Test
+    public void testUnregisterKeepsForeignMBeans() throws Exception {
+        // prepare: another MBean already uses the name of the metrics
+        final PropertyFileConnector connector = new PropertyFileConnector();
+        connector.setName("metricsForeignTestConnector");
+        connector.setProperty(new Properties());
+        final MetricsConnectorWrapper wrapper = new MetricsConnectorWrapper(connector);
+        final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName objectName = wrapper.getMetrics().createObjectName("String");
+        mBeanServer.registerMBean(new LookupMetrics(), objectName);
+
+        try {
+            // test
+            wrapper.init();
+            wrapper.destroy();
+
+            // validate
+            assertThat(mBeanServer.isRegistered(objectName), is(true));
+        } finally {
+            mBeanServer.unregisterMBean(objectName);
+        }
+    }
+
+    @Test
+    public void testRemoveAllConnectorsUnregistersMBeans() throws Exception {
+        // prepare
+        final PropertyFileConnector connector = new PropertyFileConnector();
+        connector.setName("metricsRemoveTestConnector");
+        connector.setProperty(new Properties());
+        final MetricsConnectorWrapper wrapper = new MetricsConnectorWrapper(connector);
+        final ObjectName objectName = wrapper.getMetrics().createObjectName("String");
+        final DefaultSettings settings = new DefaultSettings();
+        wrapper.init();
+        settings.addConnector(wrapper);
+        assertThat(ManagementFactory.getPlatformMBeanServer().isRegistered(objectName), is(true));
+
+        // test
+        settings.removeAllConnectors();
+
+        // validate
+        assertThat(ManagementFactory.getPlatformMBeanServer().isRegistered(objectName), is(false));
+    }
+}
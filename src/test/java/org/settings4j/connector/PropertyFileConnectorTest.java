@@ -26,6 +26,8 @@ import static org.hamcrest.Matchers.is;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.util.Arrays;
+import java.util.Map;
 
 import org.junit.Rule;
 import org.junit.Test;
@@ -67,6 +69,43 @@ public class PropertyFileConnectorTest {
         assertThat(connector.getString("someNormalUnixPath"), is(new URL("file:/test.xml").toExternalForm()));
     }
 
+    @Test
+    public void testGetStrings() {
+        final PropertyFileConnector connector = new PropertyFileConnector();
+        connector.setPropertyFromPath("classpath:/org/settings4j/connector/propertyFile.properties");
+        final Map<String, String> result = connector.getStrings(Arrays.asList("unknown", "xyz"));
+        assertThat(result.size(), is(1));
+        assertThat(result.get("xyz"), is("Value from Property-File"));
+    }
+
+    @Test
+    public void testBulkMethodsUseSingleKeyMethods() throws Exception {
+        // prepare: overwritten single-key methods must also be used by the bulk methods
+        final PropertyFileConnector connector = new PropertyFileConnector() {
+
+            @Override
+            public byte[] getContent(final String key) {
+                return "xyz".equals(key) ? new byte[] {1 } : null;
+            }
+
+            @Override
+            public Object getObject(final String key) {
+                return "xyz".equals(key) ? "object" : null;
+            }
+        };
+        connector.setPropertyFromPath("classpath:/org/settings4j/connector/propertyFile.properties");
+
+        // test
+        final Map<String, byte[]> contents = connector.getContents(Arrays.asList("unknown", "xyz"));
+        final Map<String, Object> objects = connector.getObjects(Arrays.asList("unknown", "xyz"));
+
+        // validate
+        assertThat(contents.size(), is(1));
+        assertThat(contents.get("xyz"), is(new byte[] {1 }));
+        assertThat(objects.size(), is(1));
+        assertThat(objects.get("xyz"), is((Object) "object"));
+    }
+
     @Test
     public void testReadPropertyFromJarFile() {
         final PropertyFileConnector connector = new PropertyFileConnector();
@@ -22,13 +22,21 @@ package org.settings4j.contentresolver;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
@@ -37,6 +45,9 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.settings4j.ChangeListener;
+import org.settings4j.connector.FSConnector;
+import org.settings4j.settings.DefaultSettings;
 
 public class FSContentResolverTest {
 
@@ -108,6 +119,262 @@ public class FSContentResolverTest {
         assertFileContent(contentResolver, "file:laksjdhalksdhfa", null);
     }
 
+    @Test
+    public void testWatchInterval() throws Exception {
+        // prepare
+        final File file = new File(this.testDir, "org/settings4j/contentresolver/Watched.txt");
+        FileUtils.writeStringToFile(file, "Version 1", "UTF-8");
+        final FSContentResolver contentResolver = new FSContentResolver();
+        contentResolver.setRootFolderPath(this.testDir.getAbsolutePath());
+        contentResolver.setWatchInterval(20L);
+        final List<String> changedKeys = new CopyOnWriteArrayList<String>();
+        contentResolver.addChangeListener(new ChangeListener() {
+
+            @Override
+            public void valueChanged(final String key) {
+                changedKeys.add(key);
+            }
+        });
+        assertFileContent(contentResolver, "org/settings4j/contentresolver/Watched.txt", "Version 1");
+        assertFileContent(contentResolver, "org/settings4j/contentresolver/New.txt", null);
+        // the served content is a copy
+        contentResolver.getContent("org/settings4j/contentresolver/Watched.txt")[0] = 'X';
+        assertFileContent(contentResolver, "org/settings4j/contentresolver/Watched.txt", "Version 1");
+
+        try {
+            // test
+            FileUtils.writeStringToFile(file, "Version 22", "UTF-8");
+            FileUtils.writeStringToFile(new File(this.testDir, "org/settings4j/contentresolver/New.txt"), "New", "UTF-8");
+            for (int i = 0; i < 250 && changedKeys.size() < 2; i++) {
+                Thread.sleep(20L);
+            }
+
+            // validate
+            assertThat(new HashSet<String>(changedKeys), is((Set<String>) new HashSet<String>(Arrays.asList(
+                "org/settings4j/contentresolver/Watched.txt", "org/settings4j/contentresolver/New.txt"))));
+            assertFileContent(contentResolver, "org/settings4j/contentresolver/Watched.txt", "Version 22");
+            assertFileContent(contentResolver, "./org/settings4j/contentresolver/New.txt", "New");
+        } finally {
+            contentResolver.setWatchInterval(0L);
+        }
+    }
+
+    @Test
+    public void testRemoveAllConnectorsStopsWatcher() throws Exception {
+        // prepare
+        final FSConnector connector = new FSConnector();
+        connector.setName("fs");
+        connector.setRootFolderPath(this.testDir.getAbsolutePath());
+        connector.setWatchInterval(20L);
+        final List<String> changedKeys = new CopyOnWriteArrayList<String>();
+        connector.addChangeListener(new ChangeListener() {
+
+            @Override
+            public void valueChanged(final String key) {
+                changedKeys.add(key);
+            }
+        });
+        final DefaultSettings settings = new DefaultSettings();
+        settings.addConnector(connector);
+
+        // test
+        settings.removeAllConnectors();
+        FileUtils.writeStringToFile(new File(this.testDir, "afterDestroy.txt"), "new", "UTF-8");
+        Thread.sleep(200L);
+
+        // validate
+        assertThat(connector.getWatchInterval(), is(0L));
+        assertThat(changedKeys.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testContentBuffer() throws Exception {
+        // prepare
+        final FSContentResolver contentResolver = new FSContentResolver();
+        contentResolver.setRootFolderPath(this.testDir.getAbsolutePath());
+        contentResolver.setMappingThreshold(1024);
+        final byte[] small = "small".getBytes("UTF-8");
+        final byte[] large = new byte[2048];
+        Arrays.fill(large, (byte) 'x');
+        contentResolver.setContent("small.txt", small);
+        contentResolver.setContent("large.txt", large);
+
+        // test
+        final ByteBuffer smallBuffer = contentResolver.getContentBuffer("small.txt");
+        final ByteBuffer largeBuffer = contentResolver.getContentBuffer("file:large.txt");
+        final ByteBuffer largeBuffer2 = contentResolver.getContentBuffer("large.txt");
+
+        // validate
+        assertThat(smallBuffer.isReadOnly(), is(true));
+        assertThat(toByteArray(smallBuffer), is(small));
+        assertThat(largeBuffer.isReadOnly(), is(true));
+        assertThat(largeBuffer.isDirect(), is(true));
+        assertThat(toByteArray(largeBuffer), is(large));
+        // every call returns an independent buffer
+        assertThat(largeBuffer2.position(), is(0));
+        assertThat(toByteArray(largeBuffer2), is(large));
+        assertThat(contentResolver.getContentBuffer("missing.txt"), is(nullValue()));
+        assertThat(new UnionContentResolver(contentResolver).getContentBuffer("large.txt").remaining(), is(large.length));
+
+        // replaced files will be mapped again
+        final byte[] large2 = new byte[4096];
+        Arrays.fill(large2, (byte) 'y');
+        contentResolver.setContent("large.txt", large2);
+        assertThat(toByteArray(contentResolver.getContentBuffer("large.txt")), is(large2));
+
+        // deleted files are not served from the mapping
+        FileUtils.forceDelete(new File(this.testDir, "large.txt"));
+        assertThat(contentResolver.getContentBuffer("large.txt"), is(nullValue()));
+    }
+
+    @Test
+    public void testStatCache() throws Exception {
+        // prepare
+        final FSContentResolver contentResolver = new FSContentResolver();
+        contentResolver.setRootFolderPath(this.testDir.getAbsolutePath());
+        contentResolver.setStatCacheEnabled(true);
+        final File file = new File(this.testDir, "stat.txt");
+        FileUtils.writeStringToFile(file, "v1", "UTF-8");
+
+        // test
+        final byte[] content1 = contentResolver.getContent("stat.txt");
+        final byte[] content2 = contentResolver.getContent("stat.txt");
+
+        // validate: the callers get copies
+        assertThat(new String(content1, "UTF-8"), is("v1"));
+        assertThat(content2, is(content1));
+        assertThat(content2, is(not(sameInstance(content1))));
+
+        // the unchanged attributes serve the cached content
+        final long lastModified = file.lastModified();
+        FileUtils.writeStringToFile(file, "v9", "UTF-8");
+        assertThat(file.setLastModified(lastModified), is(true));
+        assertThat(new String(contentResolver.getContent("stat.txt"), "UTF-8"), is("v1"));
+
+        // a changed length is detected, even with the same last modification time
+        FileUtils.writeStringToFile(file, "v22", "UTF-8");
+        assertThat(file.setLastModified(lastModified), is(true));
+        assertThat(new String(contentResolver.getContent("stat.txt"), "UTF-8"), is("v22"));
+
+        // within the statCacheInterval the file is not checked
+        contentResolver.setStatCacheInterval(60000L);
+        contentResolver.getContent("stat.txt");
+        FileUtils.writeStringToFile(file, "v333", "UTF-8");
+        assertThat(new String(contentResolver.getContent("stat.txt"), "UTF-8"), is("v22"));
+
+        // deleted files are not cached
+        contentResolver.setStatCacheInterval(0L);
+        FileUtils.forceDelete(file);
+        assertThat(contentResolver.getContent("stat.txt"), is(nullValue()));
+    }
+
+    @Test
+    public void testIndex() throws Exception {
+        // prepare
+        FileUtils.writeStringToFile(new File(this.testDir, "sub/a.txt"), "a", "UTF-8");
+        final FSContentResolver contentResolver = new FSContentResolver();
+        contentResolver.setRootFolderPath(this.testDir.getAbsolutePath());
+        contentResolver.setIndexEnabled(true);
+
+        // test and validate
+        assertThat(new String(contentResolver.getContent("sub/a.txt"), "UTF-8"), is("a"));
+        assertThat(new String(contentResolver.getContent("file:/sub/./a.txt"), "UTF-8"), is("a"));
+        assertThat(contentResolver.getContent("sub/missing.txt"), is(nullValue()));
+
+        // without a watcher and a refresh interval the index is ignored
+        FileUtils.writeStringToFile(new File(this.testDir, "b.txt"), "b", "UTF-8");
+        assertThat(new String(contentResolver.getContent("b.txt"), "UTF-8"), is("b"));
+
+        // the index is built in the background, the lookups don't wait for it
+        contentResolver.setIndexRefreshInterval(60000L);
+        assertThat(contentResolver.getContent("sub/missing.txt"), is(nullValue()));
+        awaitIndex(contentResolver);
+
+        // files created outside of the resolver are unknown until the index is refreshed
+        FileUtils.writeStringToFile(new File(this.testDir, "d.txt"), "d", "UTF-8");
+        assertThat(contentResolver.getContent("d.txt"), is(nullValue()));
+        assertThat(contentResolver.getContentBuffer("d.txt"), is(nullValue()));
+
+        // files written by the resolver are indexed immediately
+        contentResolver.setContent("c.txt", "c".getBytes("UTF-8"));
+        assertThat(new String(contentResolver.getContent("c.txt"), "UTF-8"), is("c"));
+
+        contentResolver.setIndexRefreshInterval(1L);
+        Thread.sleep(10L);
+        assertThat(new String(contentResolver.getContent("d.txt"), "UTF-8"), is("d"));
+    }
+
+    @Test
+    public void testIndexWithSymbolicLinkCycle() throws Exception {
+        // prepare
+        FileUtils.writeStringToFile(new File(this.testDir, "sub/a.txt"), "a", "UTF-8");
+        if (!createSymbolicLink(new File(this.testDir, "sub/loop"), this.testDir)) {
+            LOG.warn("Symbolic links are not supported: skip testIndexWithSymbolicLinkCycle");
+            return;
+        }
+        final FSContentResolver contentResolver = new FSContentResolver();
+        contentResolver.setRootFolderPath(this.testDir.getAbsolutePath());
+        contentResolver.setIndexEnabled(true);
+        contentResolver.setIndexRefreshInterval(60000L);
+
+        // test
+        final FSIndex index = new FSIndex(this.testDir);
+        awaitIndex(contentResolver);
+
+        // validate
+        assertThat(index.contains("sub/a.txt"), is(true));
+        assertThat(index.contains("sub/loop/sub/a.txt"), is(false));
+        assertThat(new String(contentResolver.getContent("sub/a.txt"), "UTF-8"), is("a"));
+        assertThat(contentResolver.getContent("sub/missing.txt"), is(nullValue()));
+    }
+
+    @Test
+    public void testOpenContent() throws Exception {
+        // prepare
+        final FSContentResolver contentResolver = new FSContentResolver();
+        contentResolver.setRootFolderPath(this.testDir.getAbsolutePath());
+        contentResolver.setContent("stream.txt", "Hello Stream".getBytes("UTF-8"));
+
+        // test
+        final InputStream content = contentResolver.openContent("file:stream.txt");
+
+        // validate
+        try {
+            assertThat(IOUtils.toString(content, "UTF-8"), is("Hello Stream"));
+        } finally {
+            IOUtils.closeQuietly(content);
+        }
+        assertThat(contentResolver.openContent("missing.txt"), is(nullValue()));
+    }
+
+    private static void awaitIndex(final FSContentResolver contentResolver) throws InterruptedException {
+        for (int i = 0; i < 250 && !contentResolver.isIndexReady(); i++) {
+            // every lookup schedules the build of a missing index
+            contentResolver.getContent("awaitIndex.txt");
+            Thread.sleep(20L);
+        }
+        assertThat(contentResolver.isIndexReady(), is(true));
+    }
+
+    private static boolean createSymbolicLink(final File link, final File target) {
+        // java.nio.file.Files.createSymbolicLink requires Java 7
+        try {
+            final Process process = Runtime.getRuntime().exec(new String[] {"ln", "-s", target.getAbsolutePath(), link.getAbsolutePath() });
+            return process.waitFor() == 0 && link.isDirectory();
+        } catch (final IOException e) {
+            return false;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static byte[] toByteArray(final ByteBuffer buffer) {
+        final byte[] result = new byte[buffer.remaining()];
+        buffer.get(result);
+        return result;
+    }
+
     @Test
     public void testWriteHelloWorldTxt1() throws Exception {
         testWriteHelloWorldTxt("org/settings4j/contentresolver/HelloWorld.txt");
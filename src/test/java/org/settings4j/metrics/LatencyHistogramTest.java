@@ -0,0 +1,65 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j.metrics;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testRecord() {
+        // prepare
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        // test
+        for (int i = 0; i < 99; i++) {
+            histogram.record(1000L);
+        }
+        histogram.record(1000000L);
+
+        // validate
+        assertThat(histogram.getCount(), is(100L));
+        assertThat(histogram.getMaxNanos(), is(1000000L));
+        assertThat(histogram.getMeanNanos(), is((99L * 1000L + 1000000L) / 100L));
+        // 1000ns is in the bucket 512..1023
+        assertThat(histogram.getPercentileNanos(50.0), is(1023L));
+        assertThat(histogram.getPercentileNanos(99.0), is(1023L));
+        assertThat(histogram.getPercentileNanos(100.0), is(1000000L));
+    }
+
+    @Test
+    public void testEmptyAndReset() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        assertThat(histogram.getPercentileNanos(99.0), is(0L));
+        assertThat(histogram.getMeanNanos(), is(0L));
+
+        histogram.record(0L);
+        histogram.record(-5L);
+        assertThat(histogram.getCount(), is(2L));
+        assertThat(histogram.getBuckets()[0], is(2L));
+
+        histogram.reset();
+        assertThat(histogram.getCount(), is(0L));
+        assertThat(histogram.getMaxNanos(), is(0L));
+    }
+}
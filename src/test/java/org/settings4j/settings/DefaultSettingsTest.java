@@ -0,0 +1,777 @@
+/*
+ * #%L
+ * settings4j
+ * ===============================================================
+ * Copyright (C) 2008 - 2016 Brabenetz Harald, Austria
+ * ===============================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.settings4j.settings;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.fail;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+import org.settings4j.ChangeListener;
+import org.settings4j.ChangeNotifier;
+import org.settings4j.Connector;
+import org.settings4j.ConnectorPositions;
+import org.settings4j.SettingHandle;
+import org.settings4j.SettingsSnapshot;
+import org.settings4j.connector.AbstractPropertyConnector;
+import org.settings4j.connector.CachedConnectorWrapper;
+import org.settings4j.connector.PropertyFileConnector;
+import org.settings4j.contentresolver.ClasspathContentResolver;
+
+/**
+ * TestCases for {@link DefaultSettings}.
+ */
+public class DefaultSettingsTest {
+
+    @Test
+    public void testGetStringInConnectorOrder() {
+        // prepare
+        final DefaultSettings settings = new DefaultSettings();
+        settings.addConnector(createConnector("second", "key", "value2"));
+        settings.addConnector(createConnector("first", "key", "value1"), ConnectorPositions.atFirst());
+
+        // test
+        assertThat(settings.getString("key"), is("value1"));
+        assertThat(settings.getString("unknown"), is(nullValue()));
+
+        // validate
+        final List<Connector> connectors = settings.getConnectors();
+        assertThat(connectors.size(), is(2));
+        assertThat(connectors.get(0).getName(), is("first"));
+        assertThat(connectors.get(1).getName(), is("second"));
+    }
+
+    @Test
+    public void testGetConnectorsIsSnapshot() {
+        // prepare
+        final DefaultSettings settings = new DefaultSettings();
+        settings.addConnector(createConnector("first", "key", "value1"));
+        final List<Connector> connectors = settings.getConnectors();
+
+        // test
+        settings.addConnector(createConnector("second", "key", "value2"));
+        settings.removeAllConnectors();
+
+        // validate
+        assertThat(connectors.size(), is(1));
+        assertThat(settings.getConnectors().size(), is(0));
+        assertThat(settings.getConnector("first"), is(nullValue()));
+    }
+
+    @Test
+    public void testConcurrentReconfiguration() throws Exception {
+        // prepare
+        final DefaultSettings settings = new DefaultSettings();
+        settings.addConnector(createConnector("first", "key", "value"));
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final Thread[] readers = new Thread[4];
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = new Thread(new Runnable() {
+
+                @Override
+                public void run() {
+                    try {
+                        for (int j = 0; j < 20000; j++) {
+                            final String value = settings.getString("key");
+                            if (value != null && !"value".equals(value)) {
+                                throw new IllegalStateException("unexpected value: " + value);
+                            }
+                        }
+                    } catch (final Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            });
+            readers[i].start();
+        }
+
+        // test
+        for (int i = 0; i < 2000; i++) {
+            settings.removeAllConnectors();
+            settings.addConnector(createConnector("first", "key", "value"));
+            settings.addConnector(createConnector("second", "other", "value"));
+        }
+        for (final Thread reader : readers) {
+            reader.join();
+        }
+
+        // validate
+        assertThat(failure.get(), is(nullValue()));
+        assertThat(settings.getString("key"), is("value"));
+    }
+
+    @Test
+    public void testCachedValues() {
+        // prepare
+        final DefaultSettings settings = new DefaultSettings();
+        final CountingConnector connector = new CountingConnector("counting");
+        connector.properties.setProperty("key", "value1");
+        settings.addConnector(connector);
+        settings.setCached(true);
+
+        // test
+        assertThat(settings.getString("key"), is("value1"));
+        assertThat(settings.getString("key"), is("value1"));
+        assertThat(settings.getString("unknown"), is(nullValue()));
+        assertThat(settings.getString("unknown"), is(nullValue()));
+
+        // validate
+        assertThat(connector.count, is(2));
+
+        // refresh
+        connector.properties.setProperty("key", "value2");
+        assertThat(settings.getString("key"), is("value1"));
+        settings.refresh();
+        assertThat(settings.getString("key"), is("value2"));
+        assertThat(connector.count, is(3));
+    }
+
+    @Test
+    public void testRefreshWhileResolving() throws Exception {
+        // prepare: the connector reads the old value, then the key is refreshed (e.g. a change notification) before the lookup is done
+        final DefaultSettings settings = new DefaultSettings();
+        final BlockingConnector connector = new BlockingConnector("blocking");
+        connector.properties.setProperty("key", "oldValue");
+        settings.addConnector(connector);
+        settings.setCached(true);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            // test single lookup
+            final Future<String> result = executor.submit(new Callable<String>() {
+
+                @Override
+                public String call() {
+                    return settings.getString("key");
+                }
+            });
+            connector.awaitRead();
+            connector.properties.setProperty("key", "newValue");
+            settings.refresh("key");
+            connector.release();
+
+            // validate: the outdated value is returned to the running lookup, but not cached
+            assertThat(result.get(5, TimeUnit.SECONDS), is("oldValue"));
+            assertThat(settings.getString("key"), is("newValue"));
+
+            // test bulk lookup
+            settings.refresh("key");
+            connector.block();
+            final Future<Map<String, String>> bulkResult = executor.submit(new Callable<Map<String, String>>() {
+
+                @Override
+                public Map<String, String> call() {
+                    return settings.getStrings(Arrays.asList("key"));
+                }
+            });
+            connector.awaitRead();
+            connector.properties.setProperty("key", "newestValue");
+            settings.refresh("key");
+            connector.release();
+
+            // validate
+            assertThat(bulkResult.get(5, TimeUnit.SECONDS).get("key"), is("newValue"));
+            assertThat(settings.getString("key"), is("newestValue"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCachedValuesInvalidatedByChainAndMapping() {
+        // prepare
+        final DefaultSettings settings = new DefaultSettings();
+        settings.setCached(true);
+        settings.addConnector(createConnector("second", "key", "value2"));
+        assertThat(settings.getString("key"), is("value2"));
+        assertThat(settings.getString("mappedKey"), is(nullValue()));
+
+        // test chain change
+        settings.addConnector(createConnector("first", "key", "value1"), ConnectorPositions.atFirst());
+        assertThat(settings.getString("key"), is("value1"));
+
+        // test mapping change
+        settings.setMapping(Collections.singletonMap("mappedKey", "key"));
+        assertThat(settings.getString("mappedKey"), is("value1"));
+
+        // test remove all
+        settings.removeAllConnectors();
+        assertThat(settings.getString("key"), is(nullValue()));
+    }
+
+    @Test
+    public void testResolutionPlan() {
+        // prepare
+        final DefaultSettings settings = new DefaultSettings();
+        final CountingConnector first = new CountingConnector("first");
+        final CountingConnector second = new CountingConnector("second");
+        second.properties.setProperty("key", "value2");
+        settings.addConnector(first);
+        settings.addConnector(second);
+        settings.setResolutionPlanEnabled(true);
+
+        // test
+        assertThat(settings.getString("key"), is("value2"));
+        assertThat(settings.getString("key"), is("value2"));
+        assertThat(settings.getString("key"), is("value2"));
+
+        // validate: the first connector was only asked once
+        assertThat(first.count, is(1));
+        assertThat(second.count, is(3));
+
+        // a new value in the first connector is only visible after refresh
+        first.properties.setProperty("key", "value1");
+        assertThat(settings.getString("key"), is("value2"));
+        settings.refresh();
+        assertThat(settings.getString("key"), is("value1"));
+
+        // the planned connector lost the value: the full chain will be walked again
+        first.properties.remove("key");
+        assertThat(settings.getString("key"), is("value2"));
+        assertThat(settings.getString("key"), is("value2"));
+        assertThat(first.count, is(4));
+    }
+
+    @Test
+    public void testGetStrings() {
+        // prepare
+        final DefaultSettings settings = new DefaultSettings();
+        final CountingConnector first = new CountingConnector("first");
+        final CountingConnector second = new CountingConnector("second");
+        first.properties.setProperty("a", "a1");
+        second.properties.setProperty("a", "a2");
+        second.properties.setProperty("b", "b2");
+        second.properties.setProperty("mapped", "mapped2");
+        settings.addConnector(first);
+        settings.addConnector(second);
+        final Map<String, String> mapping = new HashMap<String, String>();
+        mapping.put("c", "mapped");
+        settings.setMapping(mapping);
+        settings.setCached(true);
+
+        // test
+        final Map<String, String> result = settings.getStrings(Arrays.asList("b", "a", "c", "unknown"));
+
+        // validate: order of the given keys, first connector wins, unknown keys are missing
+        assertThat(result.keySet().toString(), is("[b, a, c]"));
+        assertThat(result.get("a"), is("a1"));
+        assertThat(result.get("b"), is("b2"));
+        assertThat(result.get("c"), is("mapped2"));
+
+        // validate: the second call is served from the cache (including the negative entry)
+        final int firstCount = first.count;
+        final int secondCount = second.count;
+        assertThat(settings.getStrings(Arrays.asList("a", "b", "c", "unknown")).size(), is(3));
+        assertThat(settings.getString("unknown"), is(nullValue()));
+        assertThat(first.count, is(firstCount));
+        assertThat(second.count, is(secondCount));
+    }
+
+    @Test
+    public void testRemoveAllConnectorsDestroysCachedConnectors() throws Exception {
+        // prepare: two settings instances (e.g. two webapps) with a cached connector of the same name
+        final DefaultSettings settings = new DefaultSettings();
+        final DefaultSettings otherSettings = new DefaultSettings();
+        final CachedConnectorWrapper cached = new CachedConnectorWrapper(createConnector("sameName", "key", "value"));
+        final CachedConnectorWrapper otherCached = new CachedConnectorWrapper(createConnector("sameName", "key", "otherValue"));
+        cached.init();
+        otherCached.init();
+        settings.addConnector(cached);
+        otherSettings.addConnector(otherCached);
+        final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName objectName = cached.createObjectName("String");
+        final ObjectName otherObjectName = otherCached.createObjectName("String");
+        assertThat(settings.getString("key"), is("value"));
+
+        try {
+            // test
+            settings.removeAllConnectors();
+
+            // validate
+            assertThat(mBeanServer.isRegistered(objectName), is(false));
+            assertThat(mBeanServer.isRegistered(otherObjectName), is(true));
+            assertThat(cached.getStringCacheStats().getSize(), is(0L));
+        } finally {
+            otherSettings.removeAllConnectors();
+        }
+        assertThat(mBeanServer.isRegistered(otherObjectName), is(false));
+    }
+
+    @Test
+    public void testCachedConnectorKeepsForeignMBeans() throws Exception {
+        // prepare: another MBean already uses the name of the cache statistics
+        final CachedConnectorWrapper cached = new CachedConnectorWrapper(createConnector("foreignTest", "key", "value"));
+        final CachedConnectorWrapper foreign = new CachedConnectorWrapper(createConnector("foreign", "key", "value"));
+        final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName objectName = cached.createObjectName("String");
+        mBeanServer.registerMBean(foreign.getStringCacheStats(), objectName);
+
+        try {
+            // test
+            cached.init();
+            cached.setName("foreignTestRenamed");
+            cached.destroy();
+
+            // validate
+            assertThat(mBeanServer.isRegistered(objectName), is(true));
+            assertThat(mBeanServer.isRegistered(cached.createObjectName("String")), is(false));
+        } finally {
+            mBeanServer.unregisterMBean(objectName);
+        }
+    }
+
+    @Test
+    public void testCachedContentIsNotShared() {
+        // prepare
+        final DefaultSettings settings = new DefaultSettings();
+        final Connector connector = createConnector("cached", "key", "org/settings4j/contentresolver/HelloWorld.txt");
+        connector.setContentResolver(new ClasspathContentResolver());
+        settings.addConnector(new CachedConnectorWrapper(connector));
+
+        // test: a caller modifies its result
+        final byte[] content = settings.getContent("key");
+        content[0] = 'X';
+
+        // validate
+        assertThat(new String(settings.getContent("key")), is("Hello World"));
+    }
+
+    @Test
+    public void testOpenContent() throws Exception {
+        // prepare
+        final DefaultSettings settings = new DefaultSettings();
+        final Connector streaming = createConnector("streaming", "key", "classpath:org/settings4j/contentresolver/HelloWorld.txt");
+        streaming.setContentResolver(new ClasspathContentResolver());
+        settings.addConnector(streaming);
+        final Connector cached = createConnector("cached", "cachedKey", "org/settings4j/contentresolver/HelloWorld.txt");
+        cached.setContentResolver(new ClasspathContentResolver());
+        settings.addConnector(new CachedConnectorWrapper(cached));
+
+        // test
+        final InputStream content = settings.openContent("key");
+        final InputStream cachedContent = settings.openContent("cachedKey");
+
+        // validate
+        try {
+            assertThat(IOUtils.toString(content, "UTF-8"), is("Hello World"));
+            assertThat(IOUtils.toString(cachedContent, "UTF-8"), is("Hello World"));
+        } finally {
+            IOUtils.closeQuietly(content);
+            IOUtils.closeQuietly(cachedContent);
+        }
+        assertThat(settings.openContent("unknown"), is(nullValue()));
+    }
+
+    @Test
+    public void testChangeNotifier() {
+        // prepare
+        final DefaultSettings settings = new DefaultSettings();
+        settings.setCached(true);
+        final ObservableConnector observableConnector = new ObservableConnector("observable");
+        final CountingConnector connector = observableConnector;
+        connector.properties.setProperty("key", "value1");
+        settings.addConnector(new CachedConnectorWrapper(observableConnector));
+        settings.getMapping().put("mappedKey", "key");
+        final SettingHandle<String> handle = settings.handle("key");
+        assertThat(handle.get(), is("value1"));
+        assertThat(settings.getString("mappedKey"), is("value1"));
+
+        // test: the connector pushes the changed key through the CachedConnectorWrapper
+        connector.properties.setProperty("key", "value2");
+        for (final ChangeListener listener : observableConnector.listeners) {
+            listener.valueChanged("key");
+        }
+
+        // validate
+        assertThat(settings.getString("key"), is("value2"));
+        assertThat(settings.getString("mappedKey"), is("value2"));
+        assertThat(handle.get(), is("value2"));
+    }
+
+    @Test
+    public void testHandle() {
+        // prepare
+        final DefaultSettings settings = new DefaultSettings();
+        final CountingConnector connector = new CountingConnector("counting");
+        connector.properties.setProperty("key", "value1");
+        settings.addConnector(connector);
+
+        // test
+        final SettingHandle<String> handle = settings.handle("key");
+        assertThat(handle.getKey(), is("key"));
+        assertThat(handle.get(), is("value1"));
+        assertThat(handle.get(), is("value1"));
+
+        // validate: resolved only once and the same handle for the same key
+        assertThat(connector.count, is(1));
+        assertThat(settings.handle("key") == handle, is(true));
+
+        // refresh of the key
+        connector.properties.setProperty("key", "value2");
+        assertThat(handle.get(), is("value1"));
+        settings.refresh("key");
+        assertThat(handle.get(), is("value2"));
+
+        // change of the connector chain
+        final Connector first = createConnector("first", "key", "value3");
+        settings.addConnector(first, ConnectorPositions.atFirst());
+        assertThat(handle.get(), is("value3"));
+
+        // change of the mapping
+        settings.setMapping(Collections.singletonMap("key", "unknownKey"));
+        assertThat(handle.get(), is(nullValue()));
+        assertThat(connector.count, is(3));
+    }
+
+    @Test
+    public void testHandleAfterResetConfiguration() {
+        // prepare
+        final DefaultSettingsRepository repository = new DefaultSettingsRepository();
+        final DefaultSettings settings = (DefaultSettings) repository.getSettings();
+        settings.addConnector(createConnector("first", "key", "value1"));
+        final SettingHandle<String> handle = settings.handle("key");
+        assertThat(handle.get(), is("value1"));
+
+        // test
+        repository.resetConfiguration();
+        assertThat(handle.get(), is(nullValue()));
+        settings.addConnector(createConnector("second", "key", "value2"));
+
+        // validate
+        assertThat(repository.getSettings() == settings, is(true));
+        assertThat(handle.get(), is("value2"));
+    }
+
+    @Test
+    public void testGetStringAsync() throws Exception {
+        // prepare
+        final DefaultSettings settings = new DefaultSettings();
+        settings.addConnector(createConnector("first", "key", "value1"));
+
+        // test & validate
+        assertThat(settings.getStringAsync("key").get(1, TimeUnit.SECONDS), is("value1"));
+        assertThat(settings.getObjectAsync("key").get(1, TimeUnit.SECONDS), is(nullValue()));
+        assertThat(settings.getStringAsync("unknown").get(1, TimeUnit.SECONDS), is(nullValue()));
+    }
+
+    @Test
+    public void testGetStringAsyncWithConnectorTimeout() throws Exception {
+        // prepare
+        final DefaultSettings settings = new DefaultSettings();
+        settings.setCached(true);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountingConnector slow = new CountingConnector("slow") {
+
+            @Override
+            public String getString(final String key) {
+                try {
+                    release.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.getString(key);
+            }
+        };
+        slow.properties.setProperty("key", "slowValue");
+        settings.addConnector(slow);
+        settings.addConnector(createConnector("fast", "key", "fastValue"));
+        settings.setConnectorTimeout("slow", 50L);
+
+        try {
+            // test: the slow connector is skipped
+            assertThat(settings.getStringAsync("key").get(5, TimeUnit.SECONDS), is("fastValue"));
+
+            // validate: the value after a skipped connector is not cached
+            release.countDown();
+            assertThat(settings.getStringAsync("key").get(5, TimeUnit.SECONDS), is("slowValue"));
+            assertThat(settings.getString("key"), is("slowValue"));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testConnectorTimeoutWithSaturatedExecutor() throws Exception {
+        // prepare: the only thread of the executor runs the outer lookup
+        final DefaultSettings settings = new DefaultSettings();
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        settings.setExecutor(executor);
+        settings.addConnector(createConnector("timed", "key", "timedValue"));
+        settings.addConnector(createConnector("fallback", "key", "fallbackValue"));
+        settings.setConnectorTimeout("timed", 1000L);
+
+        try {
+            // test and validate: the probe of the timed connector doesn't wait behind the outer lookup
+            assertThat(settings.getStringAsync("key").get(5, TimeUnit.SECONDS), is("timedValue"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testParallelProbing() {
+        // prepare
+        final DefaultSettings settings = new DefaultSettings();
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        settings.setExecutor(executor);
+        settings.setParallelProbing(true);
+        final CountingConnector slow = new CountingConnector("slow") {
+
+            @Override
+            public String getString(final String key) {
+                try {
+                    Thread.sleep(100L);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.getString(key);
+            }
+        };
+        slow.properties.setProperty("a", "slowValue");
+        settings.addConnector(slow);
+        final CountingConnector fast = new CountingConnector("fast");
+        fast.properties.setProperty("a", "fastValue");
+        fast.properties.setProperty("b", "fastValue");
+        settings.addConnector(fast);
+        settings.addConnector(createConnector("last", "b", "lastValue"));
+
+        try {
+            // test & validate: the connector with the highest priority wins, even if it is slower
+            assertThat(settings.getString("a"), is("slowValue"));
+            assertThat(settings.getString("b"), is("fastValue"));
+            assertThat(settings.getString("unknown"), is(nullValue()));
+            assertThat(settings.isParallelProbing(), is(true));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testParallelProbingWithRejectingExecutor() {
+        // prepare
+        final DefaultSettings settings = new DefaultSettings();
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.shutdown();
+        settings.setExecutor(executor);
+        settings.setParallelProbing(true);
+        settings.addConnector(createConnector("first", "a", "firstValue"));
+        settings.addConnector(createConnector("second", "b", "secondValue"));
+
+        // test & validate: rejected probes run in the calling thread
+        assertThat(settings.getString("a"), is("firstValue"));
+        assertThat(settings.getString("b"), is("secondValue"));
+    }
+
+    @Test
+    public void testSnapshot() {
+        // prepare
+        final DefaultSettings settings = new DefaultSettings();
+        final CountingConnector connector = new CountingConnector("counting");
+        connector.properties.setProperty("a", "a1");
+        connector.properties.setProperty("b", "b1");
+        settings.addConnector(connector);
+
+        // test
+        final SettingsSnapshot snapshot = settings.snapshot(Arrays.asList("a", "b", "unknown"));
+        final int count = connector.count;
+        connector.properties.setProperty("a", "a2");
+        settings.addConnector(createConnector("first", "b", "b2"), ConnectorPositions.atFirst());
+
+        // validate: the snapshot keeps the old values and doesn't call the connectors
+        assertThat(snapshot.getString("a"), is("a1"));
+        assertThat(snapshot.getString("b"), is("b1"));
+        assertThat(snapshot.getString("unknown"), is(nullValue()));
+        assertThat(snapshot.size(), is(2));
+        assertThat(connector.count, is(count));
+        assertThat(settings.getString("b"), is("b2"));
+    }
+
+    @Test
+    public void testTypedAccessors() {
+        // prepare
+        final DefaultSettings settings = new DefaultSettings();
+        final CountingConnector connector = new CountingConnector("typed");
+        connector.properties.setProperty("int", " 42 ");
+        connector.properties.setProperty("long", "12345678901");
+        connector.properties.setProperty("boolean", "yes");
+        connector.properties.setProperty("duration", "30s");
+        connector.properties.setProperty("durationWithoutUnit", "500");
+        connector.properties.setProperty("enum", "SECONDS");
+        connector.properties.setProperty("list", "a, b,,c ");
+        settings.addConnector(connector);
+
+        // test & validate
+        assertThat(settings.getInt("int", 0), is(42));
+        assertThat(settings.getInt("unknown", 7), is(7));
+        assertThat(settings.getLong("long", 0L), is(12345678901L));
+        assertThat(settings.getBoolean("boolean", false), is(true));
+        assertThat(settings.getBoolean("unknown", true), is(true));
+        assertThat(settings.getDuration("duration", TimeUnit.MILLISECONDS, 0L), is(30000L));
+        assertThat(settings.getDuration("duration", TimeUnit.MINUTES, 0L), is(0L));
+        assertThat(settings.getDuration("durationWithoutUnit", TimeUnit.MILLISECONDS, 0L), is(500L));
+        assertThat(settings.getEnum("enum", TimeUnit.class, null), is(TimeUnit.SECONDS));
+        assertThat(settings.getList("list", null), is(Arrays.asList("a", "b", "c")));
+        assertThat(settings.getList("unknown", Collections.<String> emptyList()).isEmpty(), is(true));
+
+        // the parsed value is reused as long as the String-Value doesn't change.
+        assertThat(settings.getList("list", null) == settings.getList("list", null), is(true));
+        connector.properties.setProperty("list", "d");
+        assertThat(settings.getList("list", null), is(Arrays.asList("d")));
+    }
+
+    @Test
+    public void testTypedAccessorsInvalidValue() {
+        // prepare
+        final DefaultSettings settings = new DefaultSettings();
+        settings.addConnector(createConnector("typed", "int", "abc"));
+
+        // test
+        try {
+            settings.getInt("int", 0);
+            fail("IllegalArgumentException expected");
+        } catch (final IllegalArgumentException e) {
+            // validate
+            assertThat(e.getMessage(), is("The value 'abc' of the key 'int' is not a valid Integer."));
+        }
+    }
+
+    @Test
+    public void testParsedValueCacheIsBounded() {
+        // prepare
+        final ParsedValueCache cache = new ParsedValueCache();
+        final String rawValue = "SECONDS";
+
+        // test
+        for (int i = 0; i < ParsedValueCache.DEFAULT_MAX_ENTRIES + 100; i++) {
+            cache.get("key" + i, rawValue, ValueParser.forEnum(TimeUnit.class));
+        }
+
+        // validate
+        assertThat(cache.size() <= ParsedValueCache.DEFAULT_MAX_ENTRIES, is(true));
+        assertThat(cache.get("key", rawValue, ValueParser.forEnum(TimeUnit.class)), is((Object) TimeUnit.SECONDS));
+        assertThat(cache.get("key", "5", ValueParser.INTEGER), is((Object) Integer.valueOf(5)));
+    }
+
+    private static Connector createConnector(final String name, final String key, final String value) {
+        final Properties properties = new Properties();
+        properties.setProperty(key, value);
+        final PropertyFileConnector connector = new PropertyFileConnector();
+        connector.setName(name);
+        connector.setProperty(properties);
+        return connector;
+    }
+
+    /**
+     * Connector which counts the calls to {@link #getString(String)}.
+     */
+    private static class CountingConnector extends AbstractPropertyConnector {
+
+        private final Properties properties = new Properties();
+
+        private int count;
+
+        CountingConnector(final String name) {
+            super();
+            setName(name);
+        }
+
+        @Override
+        public String getString(final String key) {
+            this.count++;
+            return this.properties.getProperty(key);
+        }
+    }
+
+    /**
+     * Blocks after the value was read until {@link #release()} is called.
+     */
+    private static class BlockingConnector extends AbstractPropertyConnector {
+
+        private final Properties properties = new Properties();
+        private volatile CountDownLatch read = new CountDownLatch(1);
+        private volatile CountDownLatch released = new CountDownLatch(1);
+
+        BlockingConnector(final String name) {
+            super();
+            setName(name);
+        }
+
+        @Override
+        public String getString(final String key) {
+            final String value = this.properties.getProperty(key);
+            this.read.countDown();
+            try {
+                this.released.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return value;
+        }
+
+        void block() {
+            this.read = new CountDownLatch(1);
+            this.released = new CountDownLatch(1);
+        }
+
+        void awaitRead() throws InterruptedException {
+            this.read.await();
+        }
+
+        void release() {
+            this.released.countDown();
+        }
+    }
+
+    private static class ObservableConnector extends CountingConnector implements ChangeNotifier {
+
+        private final List<ChangeListener> listeners = new ArrayList<ChangeListener>();
+
+        ObservableConnector(final String name) {
+            super(name);
+        }
+
+        @Override
+        public void addChangeListener(final ChangeListener listener) {
+            this.listeners.add(listener);
+        }
+    }
+}